@@ -0,0 +1,117 @@
+package refraff;
+
+import java.util.Arrays;
+
+/**
+ * The offsets at which each line of an input starts, built once while the input is tokenized. Line and column
+ * positions are only resolved from an offset, by binary search, when something actually needs them.
+ */
+public class LineIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] lineStarts;
+    private int lineCount;
+
+    public LineIndex() {
+        this.lineStarts = new int[INITIAL_CAPACITY];
+        this.lineStarts[0] = 0;
+        this.lineCount = 1;
+    }
+
+    /**
+     * Records that a new line starts at the specified offset. Lines must be added in order.
+     *
+     * @param offset the offset of the first character of the new line
+     */
+    public void addLineStart(int offset) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+
+        lineStarts[lineCount++] = offset;
+    }
+
+    /**
+     * Adds the line starts of the other index (after its first line) that fall in the specified range, shifted by the
+     * specified amount. The lines must still come after every line already added.
+     *
+     * @param other the line index to add lines from
+     * @param startOffset the first offset whose line start is added (inclusive)
+     * @param endOffset the offset up to which line starts are added (exclusive)
+     * @param offsetShift the amount to add to each offset
+     */
+    public void addLineStarts(LineIndex other, int startOffset, int endOffset, int offsetShift) {
+        int startLine = Math.max(1, other.findFirstLineAtOrAfter(startOffset));
+        int endLine = other.findFirstLineAtOrAfter(endOffset);
+        int addedLines = endLine - startLine;
+
+        if (addedLines <= 0) {
+            return;
+        }
+
+        if (lineCount + addedLines > lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, Math.max(lineStarts.length * 2, lineCount + addedLines));
+        }
+
+        for (int line = startLine; line < endLine; line++) {
+            lineStarts[lineCount++] = other.lineStarts[line] + offsetShift;
+        }
+    }
+
+    private int findFirstLineAtOrAfter(int offset) {
+        int low = 0;
+        int high = lineCount;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (lineStarts[middle] < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    // Gets the offset at which the line starts, counting lines from zero
+    public int getLineStart(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " out of bounds for line count " + lineCount);
+        }
+
+        return lineStarts[line];
+    }
+
+    /**
+     * Gets the line and column of the specified offset into the input.
+     *
+     * @param offset the offset into the input, from 0 up to and including its length
+     * @return the position of the offset
+     */
+    public SourcePosition getSourcePosition(int offset) {
+        // Find the last line starting at or before our offset
+        int low = 0;
+        int high = lineCount - 1;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (lineStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return new SourcePosition(SourcePosition.STARTING_LINE_POSITION + low,
+                SourcePosition.STARTING_COLUMN_POSITION + offset - lineStarts[low]);
+    }
+
+}
@@ -0,0 +1,209 @@
+package refraff;
+
+import refraff.parser.Program;
+import refraff.parser.ProgramSerializer;
+import refraff.util.AsciiCharSequence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * An on-disk cache of typechecked programs, so compiling an input that hasn't changed since it was last compiled goes
+ * straight to code generation. Each input file has one cache file of its own, named by a hash of the input's path, which
+ * holds the key of the input it was last compiled from followed by the program encoded by {@link ProgramSerializer}.
+ * Compiling an edited input, or compiling with a rebuilt compiler, replaces the file instead of adding another, so the
+ * cache only ever grows with the number of input files.
+ *
+ * The compiler version is the project version and build time the build writes into refraff/compiler.properties, so
+ * rebuilding the compiler is enough to stop it loading programs cached before, without bumping a version by hand. A
+ * compiler built without its version doesn't use the cache at all, and neither does one run with the system property
+ * {@value #ENABLED_PROPERTY} set to false.
+ */
+public class ProgramCache {
+
+    private static final String BUILD_PROPERTIES = "/refraff/compiler.properties";
+
+    // The version of a compiler that wasn't built with one, e.g. one whose resources weren't filtered
+    public static final String UNKNOWN_VERSION = "unknown";
+
+    // Part of every key, so a program cached by one build of the compiler is never loaded by another
+    public static final String COMPILER_VERSION = readCompilerVersion();
+
+    // The system property that turns the cache off when it's set to false
+    public static final String ENABLED_PROPERTY = "refraff.cache";
+
+    private static final String CACHE_FILE_EXTENSION = ".ast";
+
+    private final Path directory;
+    private final String compilerVersion;
+
+    public ProgramCache(Path directory) {
+        this(directory, COMPILER_VERSION);
+    }
+
+    // Makes a cache of the programs compiled by the specified version of the compiler
+    public ProgramCache(Path directory, String compilerVersion) {
+        this.directory = directory;
+        this.compilerVersion = compilerVersion;
+    }
+
+    // Reads the version the build wrote for this compiler, or the unknown version if it didn't write one
+    private static String readCompilerVersion() {
+        Properties properties = new Properties();
+
+        try (InputStream stream = ProgramCache.class.getResourceAsStream(BUILD_PROPERTIES)) {
+            if (stream != null) {
+                properties.load(stream);
+            }
+        } catch (IOException ex) {
+            // Same as having no version
+        }
+
+        String version = properties.getProperty("version");
+        String buildTime = properties.getProperty("build.time");
+
+        // Unfiltered properties still hold their ${...} placeholders
+        if (version == null || buildTime == null || version.startsWith("${") || buildTime.startsWith("${")) {
+            return UNKNOWN_VERSION;
+        }
+
+        return version + '+' + buildTime;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Checks whether programs are loaded from and stored in this cache. A compiler that doesn't know its own version
+     * can't tell whether it changed since a program was cached, so it never uses the cache.
+     *
+     * @return false if the compiler version is unknown or the cache was turned off, otherwise true
+     */
+    public boolean isEnabled() {
+        return !compilerVersion.equals(UNKNOWN_VERSION)
+                && Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Gets the key a program parsed from the input is cached under.
+     *
+     * @param input the input the program is parsed from
+     * @return a hex SHA-256 hash of the compiler version, the encoding's format version and the input
+     */
+    public String getKey(CharSequence input) {
+        MessageDigest digest = newDigest();
+
+        String version = compilerVersion + '/' + ProgramSerializer.FORMAT_VERSION + '\0';
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+
+        // ASCII input is hashed straight from the bytes it was read from
+        if (input instanceof AsciiCharSequence asciiInput) {
+            digest.update(asciiInput.asByteBuffer());
+        } else {
+            digest.update(input.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Gets the one file the program of the input file is cached in, whichever version of the input it was
+    public Path getCacheFile(Path inputFile) {
+        MessageDigest digest = newDigest();
+        digest.update(inputFile.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+
+        return directory.resolve(HexFormat.of().formatHex(digest.digest()) + CACHE_FILE_EXTENSION);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Loads the program cached for the input file, if it was cached under the key.
+     *
+     * @param inputFile the file the input was read from
+     * @param key the key of the input, from {@link #getKey(CharSequence)}
+     * @param input the input the program was parsed from
+     * @return the cached program, or null if the cache is off, the program of the input file was cached under another
+     * key, or it can't be loaded
+     */
+    public Program load(Path inputFile, String key, CharSequence input) {
+        Path cacheFile = getCacheFile(inputFile);
+
+        if (!isEnabled() || !Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(cacheFile);
+            byte[] keyBytes = key.getBytes(StandardCharsets.US_ASCII);
+
+            // The file holds an older version of the input, or was cached by another build of the compiler
+            if (bytes.length < keyBytes.length
+                    || !Arrays.equals(bytes, 0, keyBytes.length, keyBytes, 0, keyBytes.length)) {
+                return null;
+            }
+
+            ByteBuffer encoding = ByteBuffer.wrap(bytes, keyBytes.length, bytes.length - keyBytes.length).slice();
+            return ProgramSerializer.deserialize(encoding, input);
+        } catch (IOException | RuntimeException ex) {
+            // A cache file that can't be read, or was cut short or corrupted, is only a miss
+            return null;
+        }
+    }
+
+    /**
+     * Caches the program for the input file under the key, replacing whatever was cached for the input file before. The
+     * file is written in full before it replaces the old one, so a compile running at the same time never loads half of
+     * it.
+     *
+     * @param inputFile the file the input was read from
+     * @param key the key of the input, from {@link #getKey(CharSequence)}
+     * @param program the typechecked program parsed from the input
+     */
+    public void store(Path inputFile, String key, Program program) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            byte[] bytes = ProgramSerializer.serialize(program);
+            Path cacheFile = getCacheFile(inputFile);
+
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+
+            try {
+                try (OutputStream stream = Files.newOutputStream(temporaryFile)) {
+                    stream.write(key.getBytes(StandardCharsets.US_ASCII));
+                    stream.write(bytes);
+                }
+
+                Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            // The cache only saves time, so a program that can't be cached is still compiled as usual
+        }
+    }
+
+}
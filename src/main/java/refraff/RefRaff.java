@@ -3,21 +3,26 @@ package refraff;
 import refraff.codegen.Codegen;
 import refraff.codegen.CodegenException;
 import refraff.parser.Parser;
-import refraff.parser.ParserException;
 import refraff.parser.Program;
-import refraff.tokenizer.Token;
+import refraff.parser.RecoveredProgram;
 import refraff.tokenizer.Tokenizer;
 import refraff.tokenizer.TokenizerException;
 import refraff.typechecker.Typechecker;
 import refraff.typechecker.TypecheckerException;
+import refraff.util.SourceFileReader;
+import refraff.util.SymbolTable;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
-import java.util.Scanner;
 
 public class RefRaff {
 
+    // How many syntax errors are reported before the parser gives up on the rest of the input
+    private static final int MAX_SYNTAX_ERRORS = 100;
+
+    // Where typechecked programs are cached, in the directory the compiler is run from
+    public static final String CACHE_DIRECTORY_NAME = ".refraff-cache";
+
     public static void main(String[] args) {
         // Parse input/output args
         if (args.length != 2) {
@@ -50,38 +55,71 @@ public class RefRaff {
             return;
         }
 
-        String input = readInput(inputFile);
+        CharSequence input = readInput(inputFile);
         if (input == null) {
             return;
         }
 
+        // Names are only interned for as long as this compilation needs them
+        SymbolTable.startCompilation();
+
+        ProgramCache programCache = new ProgramCache(new File(currentWorkingDirectory, CACHE_DIRECTORY_NAME).toPath());
+        String cacheKey = programCache.isEnabled() ? programCache.getKey(input) : null;
+
         try {
-            List<Sourced<Token>> sourcedTokens = new Tokenizer(input).tokenize();
-            Program program = Parser.parseProgram(sourcedTokens);
-            Typechecker.typecheckProgram(program);
+            // An input that hasn't changed since it was last compiled doesn't need parsing or typechecking again
+            Program program = cacheKey != null ? programCache.load(inputFile.toPath(), cacheKey, input) : null;
+
+            if (program == null) {
+                program = parseProgram(input);
+                if (program == null) {
+                    return;
+                }
+
+                Typechecker.typecheckProgram(program);
+
+                if (cacheKey != null) {
+                    programCache.store(inputFile.toPath(), cacheKey, program);
+                }
+            }
+
             Codegen.generateProgram(program, currentWorkingDirectory, outputFileName);
 
             System.out.printf("Wrote output to %s!%n", outputFileName);
-        } catch (TokenizerException | ParserException | TypecheckerException | CodegenException ex) {
+        } catch (TokenizerException | TypecheckerException | CodegenException ex) {
             System.out.println(ex.getMessage());
         }
     }
 
-    private static String readInput(File file) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (Scanner scanner = new Scanner(file)) {
-            while (scanner.hasNextLine()) {
-                stringBuilder.append(scanner.nextLine());
-                stringBuilder.append('\n');
+    // Returns null if the input has syntax errors, after reporting them
+    private static Program parseProgram(CharSequence input) throws TokenizerException {
+        // Tokens are read lazily by the parser, so the whole token list is never held at once
+        RecoveredProgram recoveredProgram =
+                Parser.parseProgramWithRecovery(new Tokenizer(input).tokenStream(), MAX_SYNTAX_ERRORS);
+
+        // Report every syntax error at once, so they can all be fixed before compiling again
+        if (recoveredProgram.hasErrors()) {
+            recoveredProgram.getErrors().forEach(error -> System.out.println(error.getMessage()));
+
+            if (recoveredProgram.reachedErrorLimit()) {
+                System.out.printf("Stopped after %d syntax errors.%n", MAX_SYNTAX_ERRORS);
             }
+
+            return null;
+        }
+
+        return recoveredProgram.getProgram();
+    }
+
+    private static CharSequence readInput(File file) {
+        try {
+            return SourceFileReader.read(file.toPath());
         } catch (IOException ex) {
             System.out.println("Error reading input file, aborting...");
             ex.printStackTrace();
 
             return null;
         }
-
-        return stringBuilder.toString();
     }
 
     private static void printUsage(String specificError) {
@@ -5,6 +5,10 @@ import java.util.List;
 import java.util.Objects;
 import java.lang.IllegalArgumentException;
 
+/**
+ * Where something came from in the input. Sources made by the tokenizer are spans of offsets into a shared
+ * {@link SourceBuffer}, so they only copy their text out of the input when it's asked for (e.g. for a diagnostic).
+ */
 public class Source {
 
     public static final Source DEFAULT_TESTING_SOURCE = new Source(
@@ -14,29 +18,99 @@ public class Source {
     );
 
     private final String sourceString;
-    private final SourcePosition startPosition;
-    private final SourcePosition endPosition;
+
+    // Spans only know their offsets, and resolve their text and positions from the source buffer on demand
+    private final SourceBuffer sourceBuffer;
+    // Or from the buffer of the segment they're in, with their offsets relative to where the segment has moved
+    private final SourceSegment sourceSegment;
+    private final int startOffset;
+    private final int endOffset;
+
+    private SourcePosition startPosition;
+    private SourcePosition endPosition;
 
     public Source(String sourceString, SourcePosition startPosition, SourcePosition endPosition) {
         this.sourceString = sourceString;
 
+        this.sourceBuffer = null;
+        this.sourceSegment = null;
+        this.startOffset = -1;
+        this.endOffset = -1;
+
         this.startPosition = startPosition;
         this.endPosition = endPosition;
     }
 
+    public Source(SourceBuffer sourceBuffer, int startOffset, int endOffset) {
+        this.sourceString = null;
+
+        this.sourceBuffer = sourceBuffer;
+        this.sourceSegment = null;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    // Made by SourceSegment#span, with the offsets relative to where the segment was when the span was made
+    Source(SourceSegment sourceSegment, int startOffset, int endOffset) {
+        this.sourceString = null;
+
+        this.sourceBuffer = null;
+        this.sourceSegment = sourceSegment;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
     public String getSourceString() {
-        return sourceString;
+        // Spans don't keep their text, as the text of nested nodes would otherwise be copied at every level
+        return isSpan() ? getSourceBuffer().getSpacedText(getStartOffset(), getEndOffset()) : sourceString;
+    }
+
+    private boolean isSpan() {
+        return sourceBuffer != null || sourceSegment != null;
+    }
+
+    // The buffer this source spans, or null if this source only has its text
+    public SourceBuffer getSourceBuffer() {
+        return sourceSegment != null ? sourceSegment.getSourceBuffer() : sourceBuffer;
+    }
+
+    public int getStartOffset() {
+        return sourceSegment != null ? startOffset + sourceSegment.getOffsetShift() : startOffset;
+    }
+
+    public int getEndOffset() {
+        return sourceSegment != null ? endOffset + sourceSegment.getOffsetShift() : endOffset;
     }
 
     public SourcePosition getStartPosition() {
+        // A segment can move to another line, so the position of a span in one is never kept
+        if (sourceSegment != null) {
+            return getSourceBuffer().getLineIndex().getSourcePosition(getStartOffset());
+        }
+
+        if (startPosition == null) {
+            startPosition = sourceBuffer.getLineIndex().getSourcePosition(startOffset);
+        }
+
         return startPosition;
     }
 
     public SourcePosition getEndPosition() {
+        if (sourceSegment != null) {
+            return getSourceBuffer().getLineIndex().getSourcePosition(getEndOffset());
+        }
+
+        if (endPosition == null) {
+            endPosition = sourceBuffer.getLineIndex().getSourcePosition(endOffset);
+        }
+
         return endPosition;
     }
 
     public String toPositionString() {
+        SourcePosition startPosition = getStartPosition();
+        SourcePosition endPosition = getEndPosition();
+
         // Special case: our lines are the same
         if (startPosition.getLinePosition() == endPosition.getLinePosition()) {
             String edgeFormat = "line %d, columns %d to %d";
@@ -64,6 +138,18 @@ public class Source {
             return sources.get(0);
         }
 
+        Source first = sources.get(0);
+        Source last = sources.get(numberOfSources - 1);
+
+        // Spans of the same input are in order and cover everything between them, so they combine into one span
+        if (first.isSpan() && last.isSpan() && first.getSourceBuffer() == last.getSourceBuffer()) {
+            if (first.sourceSegment != null && first.sourceSegment == last.sourceSegment) {
+                return new Source(first.sourceSegment, first.startOffset, last.endOffset);
+            }
+
+            return new Source(first.getSourceBuffer(), first.getStartOffset(), last.getEndOffset());
+        }
+
         StringBuilder stringBuilder = new StringBuilder();
 
         Source previous = sources.get(0);
@@ -93,13 +179,18 @@ public class Source {
         return new Source(collectiveSourceString, startPosition, endPosition);
     }
 
+    // Equal sources always have equal positions, so the text doesn't need to be hashed
     @Override
     public int hashCode() {
-        return Objects.hash(getSourceString(), getStartPosition(), getEndPosition());
+        return Objects.hash(getStartPosition(), getEndPosition());
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (obj instanceof Source otherSource && isSpan() && getSourceBuffer() == otherSource.getSourceBuffer()) {
+            return getStartOffset() == otherSource.getStartOffset() && getEndOffset() == otherSource.getEndOffset();
+        }
+
         return obj instanceof Source otherSource
                 && Objects.equals(getSourceString(), otherSource.getSourceString())
                 && Objects.equals(getStartPosition(), otherSource.getStartPosition())
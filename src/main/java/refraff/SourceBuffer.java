@@ -0,0 +1,110 @@
+package refraff;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The input of one source file together with its line index. Every source made while compiling the file is only a span
+ * of offsets into this buffer, so its text is only copied out of the input when a diagnostic actually needs it.
+ */
+public class SourceBuffer {
+
+    private static final AtomicInteger NEXT_FILE_ID = new AtomicInteger();
+
+    private final int fileId;
+    private final CharSequence input;
+    private final LineIndex lineIndex;
+
+    public SourceBuffer(CharSequence input) {
+        this.fileId = NEXT_FILE_ID.getAndIncrement();
+        this.input = input;
+        this.lineIndex = new LineIndex();
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+
+    public CharSequence getInput() {
+        return input;
+    }
+
+    public LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    /**
+     * Gets the input between the offsets with its whitespace spaced out the same way {@link Source#fromSources} spaces
+     * out separate tokens: each line break becomes a \n, and every other whitespace character becomes a space.
+     *
+     * @param startOffset the offset of the first character (inclusive)
+     * @param endOffset the offset after the last character (exclusive)
+     * @return the spaced out text between the offsets
+     */
+    public String getSpacedText(int startOffset, int endOffset) {
+        String text = input.subSequence(startOffset, endOffset).toString();
+
+        if (!containsWhitespaceToSpaceOut(text)) {
+            return text;
+        }
+
+        StringBuilder stringBuilder = new StringBuilder(text.length());
+        int offset = startOffset;
+
+        while (offset < endOffset) {
+            char c = input.charAt(offset);
+
+            if (!isWhitespace(c)) {
+                stringBuilder.append(c);
+                offset++;
+                continue;
+            }
+
+            int lineBreaks = 0;
+            int columns = 0;
+
+            for (; offset < endOffset && isWhitespace(input.charAt(offset)); offset++) {
+                char whitespace = input.charAt(offset);
+                boolean isLineBreak = whitespace == '\n'
+                        || (whitespace == '\r' && (offset + 1 >= endOffset || input.charAt(offset + 1) != '\n'));
+
+                if (isLineBreak) {
+                    lineBreaks++;
+                    columns = 0;
+                } else if (whitespace != '\r') {
+                    columns++;
+                }
+            }
+
+            stringBuilder.append("\n".repeat(lineBreaks));
+            stringBuilder.append(" ".repeat(columns));
+        }
+
+        return stringBuilder.toString();
+    }
+
+    // Spaces and line breaks are kept as is, except for spaces trailing at the end of a line
+    private static boolean containsWhitespaceToSpaceOut(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            switch (text.charAt(i)) {
+                case '\t', '\u000B', '\f', '\r' -> {
+                    return true;
+                }
+                case '\n' -> {
+                    if (i > 0 && text.charAt(i - 1) == ' ') {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r' -> true;
+            default -> false;
+        };
+    }
+
+}
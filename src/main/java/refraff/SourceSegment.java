@@ -0,0 +1,50 @@
+package refraff;
+
+/**
+ * A movable part of a source buffer, which the sources of one top-level element span relative to. When an edit to the
+ * input moves the element, moving its segment to the edited buffer moves every source in the element along with it,
+ * without touching the sources one by one.
+ */
+public class SourceSegment {
+
+    private SourceBuffer sourceBuffer;
+
+    // How far the segment has moved from where its sources were made
+    private int offsetShift;
+
+    public SourceSegment(SourceBuffer sourceBuffer) {
+        this.sourceBuffer = sourceBuffer;
+        this.offsetShift = 0;
+    }
+
+    public SourceBuffer getSourceBuffer() {
+        return sourceBuffer;
+    }
+
+    public int getOffsetShift() {
+        return offsetShift;
+    }
+
+    /**
+     * Creates a span of this segment between the offsets in its current buffer.
+     *
+     * @param startOffset the offset of the first character (inclusive)
+     * @param endOffset the offset after the last character (exclusive)
+     * @return the span, which moves along with this segment
+     */
+    public Source span(int startOffset, int endOffset) {
+        return new Source(this, startOffset - offsetShift, endOffset - offsetShift);
+    }
+
+    /**
+     * Moves this segment to an edited buffer, where its text starts the specified number of characters later.
+     *
+     * @param editedBuffer the buffer of the edited input
+     * @param offsetShift how many characters later the text of this segment starts in the edited input
+     */
+    public void move(SourceBuffer editedBuffer, int offsetShift) {
+        this.sourceBuffer = editedBuffer;
+        this.offsetShift += offsetShift;
+    }
+
+}
@@ -8,7 +8,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import refraff.parser.*;
 import refraff.parser.struct.*;
@@ -17,6 +16,8 @@ import refraff.parser.function.*;
 import refraff.parser.expression.*;
 import refraff.parser.expression.primaryExpression.*;
 import refraff.parser.statement.*;
+import refraff.util.SymbolMap;
+import refraff.util.SymbolTable;
 
 public class Codegen {
 
@@ -28,12 +29,20 @@ public class Codegen {
     private int currentIndentCount;
     private StructScopeManager structScopeManager;
 
+    // The table of this compilation, which the program's names and the temporary variables made here are interned in
+    private final SymbolTable symbolTable;
+
     // This is to get the types of struct fields when instantiating from StructAllocExp that don't have that info
-    Map<String, StructDef> structNameToDef;
+    SymbolMap<StructDef> structNameToDef;
+
+    private final SymbolMap<List<FunctionDef>> overloadedFunctionNameToFunctionDefs;
 
-    private final Map<String, List<FunctionDef>> overloadedFunctionNameToFunctionDefs;
+    // Function definitions are keyed by identity, rather than hashing their entire bodies
     private final Map<FunctionDef, String> functionDefToFunctionName;
 
+    // The parts of expressions left to generate, each either an expression or a string to add as is
+    private final Deque<Object> expressionParts;
+
     private Codegen(Program program, File directory, String outputFileName) {
         this.program = program;
 
@@ -41,13 +50,20 @@ public class Codegen {
         this.generatedCodePath = Paths.get(directory.getPath(), trueOutputName);
 
         this.structScopeManager = new StructScopeManager();
-        this.structNameToDef = program.getStructDefs().stream()
-                .collect(Collectors.toMap(
-                        structDef -> structDef.getStructName().getName(),
-                        Function.identity()));
+        this.symbolTable = SymbolTable.current();
+        this.structNameToDef = new SymbolMap<>();
+        for (StructDef structDef : program.getStructDefs()) {
+            structNameToDef.put(structDef.getStructName().getSymbol(), structDef);
+
+            // The typechecker lays out every struct, but a program can be generated without being typechecked
+            if (structDef.getLayout() == null) {
+                structDef.setLayout(StructLayout.of(structDef));
+            }
+        }
 
-        this.overloadedFunctionNameToFunctionDefs = new HashMap<>();
-        this.functionDefToFunctionName = new HashMap<>();
+        this.overloadedFunctionNameToFunctionDefs = new SymbolMap<>();
+        this.functionDefToFunctionName = new IdentityHashMap<>();
+        this.expressionParts = new ArrayDeque<>();
     }
 
     public static void generateProgram(Program program, File directory) throws CodegenException {
@@ -184,16 +200,17 @@ public class Codegen {
         addComment("Exiting scope");
 
         // Get the list of struct variables that were declared in the current scope
-        Map<String, StructType> currentScopeStructVariables = structScopeManager.exitScope();
+        SymbolMap<StructType> currentScopeStructVariables = structScopeManager.exitScope();
 
         // Release each variable
-        for (Map.Entry<String, StructType> entry : currentScopeStructVariables.entrySet()) {
-            generateStructVariableReleaseFunction(entry.getKey(), entry.getValue());
+        for (int i = 0; i < currentScopeStructVariables.size(); i++) {
+            String structVariable = symbolTable.getName(currentScopeStructVariables.keyAt(i));
+            generateStructVariableReleaseFunction(structVariable, currentScopeStructVariables.valueAt(i));
         }
         currentIndentCount -= 1;
     }
 
-    private void addStructVariableToScope(String structVariable, StructType structType) throws CodegenException {
+    private void addStructVariableToScope(int structVariable, StructType structType) throws CodegenException {
         structScopeManager.addStructVariableToScope(structVariable, structType);
     }
 
@@ -202,25 +219,25 @@ public class Codegen {
         // So we're going to re-order them according to dependencies, first
 
         Queue<StructDef> queueOfUnprocessedStructs = new ArrayDeque<>(structDefs);
-        Set<String> alreadyCodeGeneratedStructNames = new HashSet<>();
+        SymbolMap<StructDef> alreadyCodeGeneratedStructNames = new SymbolMap<>();
 
         while (!queueOfUnprocessedStructs.isEmpty()) {
             StructDef structDef = queueOfUnprocessedStructs.poll();
-            String currentStructName = structDef.getStructName().getName();
+            int currentStructName = structDef.getStructName().getSymbol();
 
             boolean hasNonGeneratedStructDependencies = false;
 
             for (Param param : structDef.getParams()) {
                 if (param.getType() instanceof StructType paramStructType) {
-                    String paramStructName = paramStructType.getStructName().get().getName();
+                    int paramStructName = paramStructType.getStructName().get().getSymbol();
 
                     // If we have a recursive struct, we don't care about the order for this
-                    if (paramStructName.equals(currentStructName)) {
+                    if (paramStructName == currentStructName) {
                         continue;
                     }
 
                     // Otherwise, we need to make sure that the struct that this struct depends on, is already generated
-                    if (alreadyCodeGeneratedStructNames.contains(paramStructName)) {
+                    if (alreadyCodeGeneratedStructNames.containsKey(paramStructName)) {
                         continue;
                     }
 
@@ -242,7 +259,7 @@ public class Codegen {
             generateStructRetainFunction(structDef);
             generateStructReleaseFunction(structDef);
 
-            alreadyCodeGeneratedStructNames.add(currentStructName);
+            alreadyCodeGeneratedStructNames.put(currentStructName, structDef);
         }
     }
 
@@ -542,11 +559,11 @@ public class Codegen {
     }
 
     private void generateFunctionDefs(List<FunctionDef> functionDefs) throws CodegenException {
-        Map<String, Boolean> hasOverload = new HashMap<>();
+        SymbolMap<Boolean> hasOverload = new SymbolMap<>();
 
         // Iterate over the function definitions, determine if each function name has an overload
         for (FunctionDef functionDef : functionDefs) {
-            String functionName = functionDef.getFunctionName().getName();
+            int functionName = functionDef.getFunctionName().getSymbol();
 
             // If we already have an entry in our map, then we've put another function def with this name in
             if (hasOverload.containsKey(functionName)) {
@@ -558,25 +575,29 @@ public class Codegen {
             hasOverload.put(functionName, false);
         }
 
-        Map<String, Integer> overloadedFunctionCounter = new HashMap<>();
+        SymbolMap<Integer> overloadedFunctionCounter = new SymbolMap<>();
 
         // Assign each function def a
         for (FunctionDef functionDef : functionDefs) {
-            String functionName = functionDef.getFunctionName().getName();
-            String correctedFunctionName = functionName;
+            int functionName = functionDef.getFunctionName().getSymbol();
+            String correctedFunctionName = functionDef.getFunctionName().getName();
 
             if (hasOverload.get(functionName)) {
                 // Increment the number of overloads
-                int currentOverloadCount = overloadedFunctionCounter.getOrDefault(functionName, 0) + 1;
+                Integer previousOverloadCount = overloadedFunctionCounter.get(functionName);
+                int currentOverloadCount = (previousOverloadCount == null ? 0 : previousOverloadCount) + 1;
                 overloadedFunctionCounter.put(functionName, currentOverloadCount);
 
                 correctedFunctionName += "_overload_" + currentOverloadCount;
 
                 // Add these to a list
-                List<FunctionDef> overloadedFunctionDefs = overloadedFunctionNameToFunctionDefs.getOrDefault(functionName,
-                        new ArrayList<>());
+                List<FunctionDef> overloadedFunctionDefs = overloadedFunctionNameToFunctionDefs.get(functionName);
+                if (overloadedFunctionDefs == null) {
+                    overloadedFunctionDefs = new ArrayList<>();
+                    overloadedFunctionNameToFunctionDefs.put(functionName, overloadedFunctionDefs);
+                }
+
                 overloadedFunctionDefs.add(functionDef);
-                overloadedFunctionNameToFunctionDefs.put(functionName, overloadedFunctionDefs);
             }
 
             functionDefToFunctionName.put(functionDef, correctedFunctionName);
@@ -641,7 +662,7 @@ public class Codegen {
     }
 
     private void generateRetainFunctionCall(AssignStmt assignStmt) throws CodegenException {
-        StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getName());
+        StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getSymbol());
         // refraff_<STRUCT_NAME>_retain(<VARIABLE_NAME>);
         addIndentedString(getRetainStructFunctionName(structType));
         addString("(");
@@ -662,22 +683,21 @@ public class Codegen {
     // Generate arguments for allocating new structs with the generated struct alloc functions
     private void generateCommaSeparatedArgs(final AssignStmt assignStmt) throws CodegenException {
         // Get structdef so we know the types of the params
-        StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getName());
-        StructDef structDef = structNameToDef.get(structType.getStructName().get().getName());
-        List<Param> definedParams = structDef.getParams();
+        StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getSymbol());
+        StructDef structDef = structNameToDef.get(structType.getStructName().get().getSymbol());
+        StructLayout structLayout = structDef.getLayout();
 
-        // Get actual params
+        // Get actual params, which are in the order of the struct's slots
         StructAllocExp structAllocExp = (StructAllocExp) assignStmt.getExpression();
         List<StructActualParam> structActualParams = structAllocExp.getParams().getStructActualParams();
 
         for (int i = 0; i < structActualParams.size(); i++) {
             // If it's a primitive, just use the expression, otherwise, use the temporary struct variable
-            if (definedParams.get(i).getType() instanceof IntType
-                    || definedParams.get(i).getType() instanceof BoolType) {
+            if (structLayout.getFieldType(i) instanceof IntType || structLayout.getFieldType(i) instanceof BoolType) {
                 generateExpression(structActualParams.get(i).getExpression());
             } else {
                 // Otherwise, get the temporary variable holding the address of the struct
-                addString(getTempStructVariableName(definedParams.get(i), structDef));
+                addString(getTempStructVariableName(structLayout.getField(i), structDef));
             }
 
             if (i != structActualParams.size() - 1) {
@@ -686,68 +706,99 @@ public class Codegen {
         }
     }
 
-    private void generateDeclareTemporaryStructVariables(List<Param> definedParams, StructDef structDef)
+    // Makes sure temporary variables for each struct field of the allocation are declared, before generating it
+    private StructAllocFrame generateDeclareTemporaryStructVariables(final AssignStmt assignStmt)
             throws CodegenException {
+        // Get structdef so we know they types of the params
+        StructType allocatedStructType = structScopeManager.getStructTypeFromVariable(
+                assignStmt.getVariable().getSymbol());
+        StructDef structDef = structNameToDef.get(allocatedStructType.getStructName().get().getSymbol());
+
         // First, allocate temporary variables for each struct field
-        for (Param definedParam : definedParams) {
+        for (Param definedParam : structDef.getParams()) {
             // If this param is a struct
             if (definedParam.getType() instanceof StructType structType) {
                 // Create the temporary variable if it has not been created yet
                 String tempVariableName = getTempStructVariableName(definedParam, structDef);
-                if (!structScopeManager.isInScope(tempVariableName)) {
-                    generateVardecStmt(new VardecStmt(structType, new Variable(tempVariableName), new NullExp()));
+                Variable tempVariable = new Variable(tempVariableName);
+                if (!structScopeManager.isInScope(tempVariable.getSymbol())) {
+                    generateVardecStmt(new VardecStmt(structType, tempVariable, new NullExp()));
                 } else {
                     // Otherwise, release the previous temporary variable
                     generateStructVariableReleaseFunction(tempVariableName, structType);
                 }
             }
         }
+
+        return new StructAllocFrame(assignStmt, structDef);
     }
 
-    // Generate function calls for allocating new structs (recursive for nested structs)
+    // A struct allocation whose nested struct allocations are being generated before it
+    private static class StructAllocFrame {
+
+        private final AssignStmt assignStmt;
+        private final StructDef structDef;
+
+        // The next actual param to look at for a nested struct allocation
+        private int nextParam;
+
+        private StructAllocFrame(AssignStmt assignStmt, StructDef structDef) {
+            this.assignStmt = assignStmt;
+            this.structDef = structDef;
+        }
+
+    }
+
+    // Generate function calls for allocating new structs. Struct allocations can nest as deep as the program likes,
+    // so nested ones are kept on our own stack, rather than recursing
     private void generateStructAllocFunctionCalls(final AssignStmt assignStmt) throws CodegenException {
-        // Get structdef so we know they types of the params
-        StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getName());
-        StructDef structDef = structNameToDef.get(structType.getStructName().get().getName());
-        // Get params (for types)
-        List<Param> definedParams = structDef.getParams();
+        Deque<StructAllocFrame> frames = new ArrayDeque<>();
+        frames.push(generateDeclareTemporaryStructVariables(assignStmt));
 
-        // First, make sure temporary variables for each struct field are declared
-        generateDeclareTemporaryStructVariables(definedParams, structDef);
+        while (!frames.isEmpty()) {
+            StructAllocFrame frame = frames.peek();
 
-        // Get actual params
-        StructAllocExp structAllocExp = (StructAllocExp) assignStmt.getExpression();
-        List<StructActualParam> structActualParams = structAllocExp.getParams().getStructActualParams();
+            // Get actual params
+            StructAllocExp structAllocExp = (StructAllocExp) frame.assignStmt.getExpression();
+            List<StructActualParam> structActualParams = structAllocExp.getParams().getStructActualParams();
+
+            // Go through params (we'll need the defined params and the actual params for this)
+            while (frame.nextParam < structActualParams.size()
+                    && !(structActualParams.get(frame.nextParam).getExpression() instanceof StructAllocExp)) {
+                frame.nextParam++;
+            }
 
-        // Go through params (we'll need the defined params and the actual params for this)
-        for (int i = 0; i < structActualParams.size(); i++) {
             // But if it's a struct, we need to allocate that, then assign it to a temporary struct variable
-            if (structActualParams.get(i).getExpression() instanceof StructAllocExp fieldAlloc) {
+            if (frame.nextParam < structActualParams.size()) {
+                Param definedParam = frame.structDef.getLayout().getField(frame.nextParam);
                 AssignStmt fieldAssignStmt = new AssignStmt(
-                        new Variable(getTempStructVariableName(definedParams.get(i), structDef)),
-                        fieldAlloc);
-                generateStructAllocFunctionCalls(fieldAssignStmt);
+                        new Variable(getTempStructVariableName(definedParam, frame.structDef)),
+                        structActualParams.get(frame.nextParam).getExpression());
+                frame.nextParam++;
+
+                frames.push(generateDeclareTemporaryStructVariables(fieldAssignStmt));
+                continue;
             }
-        }
 
-        // Then allocate and assign the struct
-        indentLine(currentIndentCount);
-        generateVariable(assignStmt.getVariable());
-        addString(" = ");
-        addString(getStructAllocationFunctionName(structAllocExp.getStructType()));
-        addString("(");
-        generateCommaSeparatedArgs(assignStmt);
-        addString(")");
-        addSemicolonNewline();
+            frames.pop();
+
+            // Then allocate and assign the struct
+            indentLine(currentIndentCount);
+            generateVariable(frame.assignStmt.getVariable());
+            addString(" = ");
+            addString(getStructAllocationFunctionName(structAllocExp.getStructType()));
+            addString("(");
+            generateCommaSeparatedArgs(frame.assignStmt);
+            addString(")");
+            addSemicolonNewline();
+        }
     }
 
     // Parentheses mess up the allocation, so get rid of them
     // e.g. A a = ((new A { a: null }));
     private AssignStmt getAssignStmtWithoutParens(AssignStmt assignStmt) {
-        if (assignStmt.getExpression() instanceof ParenExp parenExp) {
-            return getAssignStmtWithoutParens(
-                new AssignStmt(assignStmt.getVariable(), parenExp.getExp())
-            );
+        if (assignStmt.getExpression() instanceof ParenExp) {
+            return new AssignStmt(assignStmt.getVariable(), getExpressionWithoutParen(assignStmt.getExpression()));
         } else {
             return assignStmt;
         }
@@ -757,8 +808,8 @@ public class Codegen {
         AssignStmt assignStmt = (AssignStmt) stmt;
 
         // Check if this is a struct variable
-        if (structScopeManager.isStructVariable(assignStmt.getVariable().getName())) {
-            StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getName());
+        if (structScopeManager.isStructVariable(assignStmt.getVariable().getSymbol())) {
+            StructType structType = structScopeManager.getStructTypeFromVariable(assignStmt.getVariable().getSymbol());
             addComment("Generating struct assignment stmt for " + assignStmt.getVariable().getName());
 
             // Release whatever the variable was pointing to
@@ -899,10 +950,9 @@ public class Codegen {
 
     // Parentheses only up struct allocations, so get rid of them
     private VardecStmt getVardecStmtWithoutParens(VardecStmt vardecStmt) {
-        if (vardecStmt.getExpression() instanceof ParenExp parenExp) {
-            return getVardecStmtWithoutParens(
-                new VardecStmt(vardecStmt.getType(), vardecStmt.getVariable(), parenExp.getExp())
-            );
+        if (vardecStmt.getExpression() instanceof ParenExp) {
+            return new VardecStmt(vardecStmt.getType(), vardecStmt.getVariable(),
+                    getExpressionWithoutParen(vardecStmt.getExpression()));
         } else {
             return vardecStmt;
         }
@@ -914,7 +964,7 @@ public class Codegen {
         // If we are declaring a struct variable,
         if (vardecStmt.getType() instanceof StructType structType) {
             // then add that variable to the current scope
-            addStructVariableToScope(vardecStmt.getVariable().getName(), structType);
+            addStructVariableToScope(vardecStmt.getVariable().getSymbol(), structType);
 
             // If the expression is in parens, get expression
             vardecStmt = getVardecStmtWithoutParens(vardecStmt);
@@ -998,16 +1048,43 @@ public class Codegen {
         DotExp.class, Codegen::generateDotExp,
         UnaryOpExp.class, Codegen::generateUnaryOpExp);
 
+    // Expressions can nest as deep as the program likes, so rather than recursing into subexpressions, generator
+    // functions push the parts of their expression to generate next. Parts pushed by expressions we're already
+    // generating, such as one holding a struct allocation, are left for them
     private void generateExpression(final Expression exp) throws CodegenException {
-        // Get the expression's class
-        Class<? extends Expression> expClass = exp.getClass();
+        final int enclosingParts = expressionParts.size();
+        expressionParts.push(exp);
 
-        if (!EXP_TO_GEN_FUNC.containsKey(expClass)) {
-            throw new UnsupportedOperationException("Map did not contain mapping function for: " + expClass);
+        while (expressionParts.size() > enclosingParts) {
+            Object part = expressionParts.pop();
+
+            if (part instanceof String str) {
+                addString(str);
+                continue;
+            }
+
+            // Get the expression's class
+            Expression expression = (Expression) part;
+            Class<? extends Expression> expClass = expression.getClass();
+
+            if (!EXP_TO_GEN_FUNC.containsKey(expClass)) {
+                throw new UnsupportedOperationException("Map did not contain mapping function for: " + expClass);
+            }
+
+            // Generate the expression
+            EXP_TO_GEN_FUNC.get(expClass).apply(this, expression);
+        }
+    }
+
+    // Generates the parts in order, after whatever the current expression generator adds itself
+    private void generateInOrder(List<Object> parts) {
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            expressionParts.push(parts.get(i));
         }
+    }
 
-        // Generate the expression
-        EXP_TO_GEN_FUNC.get(expClass).apply(this, exp);
+    private void generateInOrder(Object... parts) {
+        generateInOrder(Arrays.asList(parts));
     }
 
     private void generateBoolLiteralExp(final Expression exp) throws CodegenException {
@@ -1028,52 +1105,44 @@ public class Codegen {
         addString("NULL");
     }
 
-    private <T> void generateCommaSeparatedExpressions(List<T> list, Function<T,
-            Expression> getExpression) throws CodegenException {
-        // <EXP_1>, <EXP_2>, ...
-
-        for (int i = 0; i < list.size(); i++) {
-            T t = list.get(i);
-            generateExpression(getExpression.apply(t));
-
-            if (i != list.size() - 1) {
-                addString(", ");
-            }
+    private void generateFuncCallExp(final Expression exp) throws CodegenException {
+        FuncCallExp funcCallExp = (FuncCallExp) exp;
+        List<Expression> expressions = funcCallExp.getCommaExp().getExpressions();
+
+        // The typechecker records which definition the call resolved to, so overloads only need matching without it
+        String functionName = funcCallExp.getFunctionDef() == null
+                ? null
+                : functionDefToFunctionName.get(funcCallExp.getFunctionDef());
+        if (functionName == null) {
+            functionName = getOverloadedFunctionNameFromExpressions(funcCallExp.getFuncName(), expressions);
         }
-    }
 
-    private <T> void generateNamedFunctionCall(String functionName, List<T> params,
-                                               Function<T, Expression> getParamExpression) throws CodegenException {
-        // The format will look like:
+        // Generate a function call with comma separated expression parameters:
         // <FUNCTION_NAME>(<EXP_1>, <EXP_2>, ...)
+        List<Object> parts = new ArrayList<>(expressions.size() * 2 + 1);
+        parts.add(functionName + "(");
 
-        addString(functionName);
-
-        addString("(");
-        generateCommaSeparatedExpressions(params, getParamExpression);
-        addString(")");
-    }
+        for (int i = 0; i < expressions.size(); i++) {
+            parts.add(expressions.get(i));
+            parts.add(i != expressions.size() - 1 ? ", " : ")");
+        }
 
-    private void generateFuncCallExp(final Expression exp) throws CodegenException {
-        FuncCallExp funcCallExp = (FuncCallExp) exp;
-        String functionName = getOverloadedFunctionNameFromExpressions(funcCallExp.getFuncName().getName(),
-                funcCallExp.getCommaExp().getExpressions());
+        if (expressions.isEmpty()) {
+            parts.add(")");
+        }
 
-        // Generate a function call with comma separated expression parameters
-        generateNamedFunctionCall(
-                functionName,
-                funcCallExp.getCommaExp().getExpressions(),
-                Function.identity());
+        generateInOrder(parts);
     }
 
-    private String getOverloadedFunctionNameFromExpressions(String originalFunctionName,
+    private String getOverloadedFunctionNameFromExpressions(FunctionName originalFunctionName,
                                                             List<Expression> expressions) throws CodegenException {
+        List<FunctionDef> functionDefs = overloadedFunctionNameToFunctionDefs.get(originalFunctionName.getSymbol());
+
         // If this isn't an overloaded function, then return the original name
-        if (!overloadedFunctionNameToFunctionDefs.containsKey(originalFunctionName)) {
-            return originalFunctionName;
+        if (functionDefs == null) {
+            return originalFunctionName.getName();
         }
 
-        List<FunctionDef> functionDefs = overloadedFunctionNameToFunctionDefs.get(originalFunctionName);
         for (FunctionDef functionDef : functionDefs) {
             List<Param> params = functionDef.getParams();
 
@@ -1104,11 +1173,12 @@ public class Codegen {
     }
 
     private Expression getExpressionWithoutParen(final Expression exp) {
-        if (exp instanceof ParenExp parenExp) {
-            return getExpressionWithoutParen(parenExp.getExp());
-        } else {
-            return exp;
+        Expression expression = exp;
+        while (expression instanceof ParenExp parenExp) {
+            expression = parenExp.getExp();
         }
+
+        return expression;
     }
 
     private void generateParenExp(final Expression exp) throws CodegenException {
@@ -1118,9 +1188,7 @@ public class Codegen {
         if (getExpressionWithoutParen(exp) instanceof StructAllocExp structAllocExp) {
             generateStructAllocExp(structAllocExp);
         } else {
-            addString("(");
-            generateExpression(parenExp.getExp());
-            addString(")");
+            generateInOrder("(", parenExp.getExp(), ")");
         }
     }
 
@@ -1140,7 +1208,7 @@ public class Codegen {
 
         String tempAllocVariableName = getTempStructAllocVariableName(structType);
         Variable tempAllocVariable = new Variable(tempAllocVariableName);
-        if (!structScopeManager.isInScope(tempAllocVariableName)) {
+        if (!structScopeManager.isInScope(tempAllocVariable.getSymbol())) {
             // Instantiate temporary struct alloc variable if it has not been already
             generateVardecStmt(new VardecStmt(structType, tempAllocVariable, new NullExp()));
         } else {
@@ -1163,25 +1231,20 @@ public class Codegen {
     private void generateBinOpExp(final Expression exp) throws CodegenException {
         BinaryOpExp binOpExp = (BinaryOpExp)exp;
 
-        generateExpression(binOpExp.getLeftExp());
-        addString(" " + binOpExp.getOp().getSymbol() + " ");
-        generateExpression(binOpExp.getRightExp());
+        generateInOrder(binOpExp.getLeftExp(), " " + binOpExp.getOp().getSymbol() + " ", binOpExp.getRightExp());
     }
 
     private void generateDotExp(final Expression exp) throws CodegenException {
         DotExp dotExp = (DotExp) exp;
 
         // Structs will always be pointers, so we need the `->` operator instead of the `.` operator
-        generateExpression(dotExp.getLeftExp());
-        addString("->");
-        generateVariable(dotExp.getRightVar());
+        generateInOrder(dotExp.getLeftExp(), "->", dotExp.getRightVar().getName());
     }
 
     private void generateUnaryOpExp(final Expression exp) throws CodegenException {
         UnaryOpExp UnaryOpExp = (UnaryOpExp)exp;
 
-        addString(UnaryOpExp.getOp().getSymbol());
-        generateExpression(UnaryOpExp.getExp());
+        generateInOrder(UnaryOpExp.getOp().getSymbol(), UnaryOpExp.getExp());
     }
 
     private void generateVariable(final Variable variable) throws CodegenException {
@@ -1,24 +1,23 @@
 package refraff.codegen;
 
 import java.util.EmptyStackException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Stack;
 
 import refraff.parser.type.StructType;
+import refraff.util.SymbolMap;
 
-// Keeps track of the struct variables that were declared in each scope
+// Keeps track of the struct variables that were declared in each scope, by their interned variable symbols
 public class StructScopeManager {
-    private Stack<Map<String, StructType>> scopeStack = new Stack<>();
-    private Map<String, StructType> variableToStructType = new HashMap<>();
+    private Stack<SymbolMap<StructType>> scopeStack = new Stack<>();
+    private SymbolMap<StructType> variableToStructType = new SymbolMap<>();
 
     public void enterScope() {
-        scopeStack.push(new HashMap<String, StructType>());
+        scopeStack.push(new SymbolMap<StructType>());
     }
 
-    public void addStructVariableToScope(String newStructVariable, StructType structType) throws CodegenException {
+    public void addStructVariableToScope(int newStructVariable, StructType structType) throws CodegenException {
         try {
-            Map<String, StructType> currentScope = scopeStack.peek();
+            SymbolMap<StructType> currentScope = scopeStack.peek();
             variableToStructType.put(newStructVariable, structType);
             currentScope.put(newStructVariable, structType);
         } catch (EmptyStackException e) {
@@ -26,26 +25,26 @@ public class StructScopeManager {
         }
     }
 
-    public boolean isStructVariable(String variableName) {
-        return variableToStructType.containsKey(variableName);
+    public boolean isStructVariable(int variable) {
+        return variableToStructType.containsKey(variable);
     }
 
-    public StructType getStructTypeFromVariable(String variableName) {
-        return variableToStructType.get(variableName);
+    public StructType getStructTypeFromVariable(int variable) {
+        return variableToStructType.get(variable);
     }
 
-    public boolean isInScope(String variableName) throws CodegenException {
+    public boolean isInScope(int variable) throws CodegenException {
         try {
-            Map<String, StructType> currentScope = scopeStack.peek();
-            return currentScope.containsKey(variableName);
+            SymbolMap<StructType> currentScope = scopeStack.peek();
+            return currentScope.containsKey(variable);
         } catch (EmptyStackException e) {
             throw new CodegenException("Tried to check if variable was a struct, but scope stack was empty");
         }
     }
 
-    public Map<String, StructType> exitScope() throws CodegenException {
+    public SymbolMap<StructType> exitScope() throws CodegenException {
         try {
-            Map<String, StructType> currentScope = scopeStack.pop();
+            SymbolMap<StructType> currentScope = scopeStack.pop();
             return currentScope;
         } catch (EmptyStackException e) {
             throw new CodegenException("Tried to exit scope, but scope stack was empty");
@@ -56,7 +56,7 @@ public abstract class AbstractSyntaxTreeNode implements Node {
 
     @Override
     public int hashCode() {
-        return getParsedValue().hashCode();
+        return getSource().hashCode();
     }
 
     @Override
@@ -0,0 +1,40 @@
+package refraff.parser;
+
+import refraff.SourceSegment;
+import refraff.tokenizer.TokenBuffer;
+
+import java.util.List;
+
+/**
+ * A program parsed so that it can be parsed again after an edit to its input, without parsing the parts of it that the
+ * edit didn't touch. Each top-level element is sourced in a {@link SourceSegment} of its own, so an element the edit
+ * didn't touch can be moved to the edited input as it is. See
+ * {@link Parser#reparse(IncrementalProgram, TokenBuffer, int, int, int)}.
+ */
+public class IncrementalProgram {
+
+    private final Program program;
+    private final TokenBuffer tokens;
+
+    // The segment of each top-level element, in the order of the struct definitions, function definitions and statements
+    private final List<SourceSegment> segments;
+
+    IncrementalProgram(final Program program, final TokenBuffer tokens, final List<SourceSegment> segments) {
+        this.program = program;
+        this.tokens = tokens;
+        this.segments = segments;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    List<SourceSegment> getSegments() {
+        return segments;
+    }
+
+}
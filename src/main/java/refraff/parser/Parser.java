@@ -1,12 +1,13 @@
 package refraff.parser;
 
 import java.util.*;
-import java.util.function.Consumer;
-import java.util.function.Function;
-import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import refraff.Source;
+import refraff.SourceBuffer;
 import refraff.SourcePosition;
+import refraff.SourceSegment;
 import refraff.Sourceable;
 import refraff.Sourced;
 import refraff.parser.function.*;
@@ -19,33 +20,58 @@ import refraff.parser.expression.*;
 import refraff.tokenizer.symbol.*;
 import refraff.tokenizer.reserved.*;
 import refraff.tokenizer.*;
+import refraff.util.Pair;
 import refraff.util.SourcedErrorBuilder;
 
+/**
+ * Parses tokens into an abstract syntax tree with a single cursor into the tokens. Each parsing method parses from the
+ * cursor and moves it past whatever it parsed, returning the parsed node. If nothing matches, the method returns null
+ * and leaves the cursor where it started, so a successful parse only allocates the nodes themselves.
+ */
 public class Parser {
+
+    // Programs with fewer top-level definitions than this are parsed in one pass, even when parsing in parallel
+    private static final int MINIMUM_PARALLEL_DEFINITIONS = 64;
     
-    public final List<Sourced<Token>> sourcedTokens;
+    private final TokenStream tokens;
+
+    // The position of the next token to parse
+    private int cursor;
+
+    // Whether top-level elements release their tokens once parsed, which only a parser reading the tokens alone may do
+    private final boolean releasesParsedTokens;
+
+    // The frames of the expression being parsed, kept between expressions so they don't each need a new stack
+    private final Deque<ExpressionFrame> expressionFrames;
+
+    // The syntax errors recovered from so far, or null if this parser stops at the first one
+    private List<ParserException> recoveredErrors;
+
+    // How many syntax errors may be recovered from before parsing stops
+    private int maxErrors;
+
+    // The segment that the top-level element being parsed is sourced in, or null if sources aren't in segments
+    private SourceSegment sourceSegment;
 
     public Parser(final List<Sourced<Token>> sourcedTokens) {
-        this.sourcedTokens = sourcedTokens;
+        this(TokenStream.of(sourcedTokens));
     }
 
-    // Returns an optional token or empty if we've reached the end of tokens
-    public Optional<Token> getToken(final int position) {
-        // If we somehow go below position 0, we did something REAL bad in the parser
-        assert(position >= 0);
+    public Parser(final TokenStream tokens) {
+        this(tokens, true);
+    }
 
-        if (position < sourcedTokens.size()) {
-            return Optional.of(sourcedTokens.get(position).getValue());
-        } else {
-            return Optional.empty();
-        }
+    private Parser(final TokenStream tokens, final boolean releasesParsedTokens) {
+        this.tokens = tokens;
+        this.cursor = 0;
+        this.releasesParsedTokens = releasesParsedTokens;
+        this.expressionFrames = new ArrayDeque<>();
     }
 
     // Returns true if there are more tokens and they are the same, otherwise empty
     // Refactor: change expected to the token's class - no longer creating new tokens
     public boolean isExpectedToken(final int position, final Class<? extends Token> expected) {
-        final Optional<Token> received = getToken(position);
-        return received.isPresent() && received.get().getClass().equals(expected);
+        return tokens.hasToken(position) && tokens.getKind(position).getTokenClass().equals(expected);
     }
 
     private void throwParserExceptionOnNoSemicolon(String beingParsed, int startPos, int position) throws ParserException {
@@ -61,9 +87,9 @@ public class Parser {
         throwParserException(beingParsed, tokenRepresentation, startPos, position);
     }
 
-    private <T> void throwParserExceptionOnEmptyOptional(String beingParsed, Optional<T> optional,
-                                                         String expected, int startPos, int position) throws ParserException {
-        if (optional.isPresent()) {
+    private void throwParserExceptionOnNoMatch(String beingParsed, Object parsed,
+                                               String expected, int startPos, int position) throws ParserException {
+        if (parsed != null) {
             return;
         }
 
@@ -74,13 +100,13 @@ public class Parser {
         final String exceptionMessage = String.format("expected %s", expected);
 
         List<Source> tokenSources = new ArrayList<>();
+        final int tokenCount = tokens.size();
 
-        for (int i = startPos; i <= Math.min(position, sourcedTokens.size() - 1); i++) {
-            Sourced<Token> sourcedToken = sourcedTokens.get(i);
-            tokenSources.add(sourcedToken.getSource());
+        for (int i = startPos; i <= Math.min(position, tokenCount - 1); i++) {
+            tokenSources.add(tokens.getSourcedToken(i).getSource());
         }
 
-        Source lastSource = sourcedTokens.get(sourcedTokens.size() - 1).getSource();
+        Source lastSource = tokens.getSourcedToken(tokenCount - 1).getSource();
         SourcePosition lastEndPosition = lastSource.getEndPosition();
 
         Source endOfFileSource = new Source(
@@ -90,7 +116,7 @@ public class Parser {
         );
 
         Sourceable parent = () -> tokenSources.isEmpty() ? endOfFileSource : Source.fromSources(tokenSources);
-        Sourceable child = () -> position >= sourcedTokens.size() ? endOfFileSource : sourcedTokens.get(position).getSource();
+        Sourceable child = () -> position >= tokenCount ? endOfFileSource : tokens.getSourcedToken(position).getSource();
 
         throwParserException(beingParsed, parent, child, exceptionMessage);
     }
@@ -101,11 +127,11 @@ public class Parser {
                 child, exceptionMessage));
     }
 
+
     // Attempts to parse token array
     public static Program parseProgram(List<Sourced<Token>> tokens) throws ParserException {
         final Parser parser = new Parser(tokens);
-        final ParseResult<Program> program = parser.parseProgram(0);
-        return program.result;
+        return parser.parseProgram();
 
 //        If we have more tokens remaining, we will either: parse something successfully, or throw an error
 //        if (program.nextPosition == tokens.length) {
@@ -116,28 +142,555 @@ public class Parser {
 //        }
     }
 
-    // program ::= structdef* fdef* stmt*
+    // Attempts to parse a token stream, reading tokens from it only as they are needed
+    public static Program parseProgram(TokenStream tokens) throws TokenizerException, ParserException {
+        final Parser parser = new Parser(tokens);
+
+        try {
+            return parser.parseProgram();
+        } catch (UncheckedTokenizerException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Parses the tokens, recovering from each syntax error to carry on parsing. See
+     * {@link #parseProgramWithRecovery(TokenStream, int)}.
+     *
+     * @param tokens the tokens of the program
+     * @param maxErrors how many syntax errors to find before parsing stops
+     * @return the program parsed from the tokens, and the syntax errors in them
+     */
+    public static RecoveredProgram parseProgramWithRecovery(List<Sourced<Token>> tokens, int maxErrors) {
+        return new Parser(tokens).parseProgramWithRecovery(maxErrors);
+    }
+
+    /**
+     * Parses a token stream, recovering from each syntax error to carry on parsing, so one pass finds every syntax error
+     * rather than only the first. After an error, the tokens are skipped up to a `;`, a `}` closing the element the
+     * error was in or a block around it, or a `func` or `struct`, and parsing picks up again from there.
+     *
+     * The element with the error is left out of the program, so the program only holds what parsed. The first error is
+     * always the one {@link #parseProgram(TokenStream)} would have thrown.
+     *
+     * @param tokens the tokens of the program
+     * @param maxErrors how many syntax errors to find before parsing stops
+     * @return the program parsed from the tokens, and the syntax errors in them
+     * @throws TokenizerException if the tokens could not be read
+     */
+    public static RecoveredProgram parseProgramWithRecovery(TokenStream tokens, int maxErrors)
+            throws TokenizerException {
+        final Parser parser = new Parser(tokens);
+
+        try {
+            return parser.parseProgramWithRecovery(maxErrors);
+        } catch (UncheckedTokenizerException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Parses the tokens on the common fork/join pool. See {@link #parseProgramInParallel(TokenBuffer, ForkJoinPool)}.
+     *
+     * @param tokens the buffer of every token in the program
+     * @return the parsed program
+     * @throws ParserException if the program could not be parsed
+     */
+    public static Program parseProgramInParallel(TokenBuffer tokens) throws ParserException {
+        return parseProgramInParallel(tokens, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a program with many top-level definitions by splitting its tokens before each `struct` and `func` at
+     * brace depth 0, and parsing runs of those definitions in parallel on the pool while the top-level statements are
+     * parsed on this thread. The definitions are put back together in order, so the program is the same as parsing the
+     * tokens in one pass, and programs with few definitions are simply parsed in one pass.
+     *
+     * If any definition does not parse to exactly the tokens it was split at, or anything fails to parse, the tokens are
+     * parsed again in one pass so the error is exactly the one that {@link #parseProgram(TokenStream)} would have thrown.
+     *
+     * @param tokens the buffer of every token in the program
+     * @param pool the pool to parse the definitions on
+     * @return the parsed program
+     * @throws ParserException if the program could not be parsed
+     */
+    public static Program parseProgramInParallel(TokenBuffer tokens, ForkJoinPool pool) throws ParserException {
+        int[] definitionStarts = findDefinitionStarts(tokens);
+        int definitionCount = definitionStarts.length - 1;
+
+        if (definitionCount < MINIMUM_PARALLEL_DEFINITIONS || pool.getParallelism() == 1) {
+            return new Parser(tokens).parseProgram();
+        }
+
+        int chunkCount = Math.min(pool.getParallelism() * 4, definitionCount);
+
+        List<ForkJoinTask<Pair<List<StructDef>, List<FunctionDef>>>> chunkTasks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            int firstDefinition = (int) ((long) definitionCount * i / chunkCount);
+            int endDefinition = (int) ((long) definitionCount * (i + 1) / chunkCount);
+
+            chunkTasks.add(pool.submit(() -> parseDefinitions(tokens, definitionStarts, firstDefinition, endDefinition)));
+        }
+
+        // The statements come after every definition, so they can be parsed while the definitions are
+        final Parser statementParser = new Parser(tokens, false);
+        statementParser.cursor = definitionStarts[definitionCount];
+
+        List<StructDef> structDefs = new ArrayList<>();
+        List<FunctionDef> functionDefs = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
+
+        try {
+            statementParser.parseTopLevelZeroOrMore(Parser::parseStatement, statements);
+
+            // Join the chunks in order, so the definitions are put back together in order
+            boolean parsedEveryDefinition = true;
+            for (ForkJoinTask<Pair<List<StructDef>, List<FunctionDef>>> chunkTask : chunkTasks) {
+                Pair<List<StructDef>, List<FunctionDef>> chunkDefinitions = chunkTask.join();
+
+                if (chunkDefinitions == null) {
+                    parsedEveryDefinition = false;
+                    break;
+                }
+
+                structDefs.addAll(chunkDefinitions.getLeft());
+                functionDefs.addAll(chunkDefinitions.getRight());
+            }
+
+            if (parsedEveryDefinition) {
+                return statementParser.toProgram(structDefs, functionDefs, statements);
+            }
+        } catch (ParserException ex) {
+            // The program is parsed again below to throw the error
+        }
+
+        // Other chunks may still be reading the tokens, so they must not be released
+        return new Parser(tokens, false).parseProgram();
+    }
+
+    /*
+     * Finds the position of each `struct` definition followed by each `func` definition from the start of the tokens,
+     * as the grammar allows them, by where their braces return to depth 0. The last position is where the definitions
+     * end. Splitting stops early at anything unexpected, which leaves it for the statements to fail to parse.
+     */
+    private static int[] findDefinitionStarts(TokenBuffer tokens) {
+        int[] definitionStarts = new int[64];
+        int definitionCount = 0;
+
+        int position = 0;
+        boolean parsingFunctions = false;
+
+        while (tokens.hasToken(position)) {
+            TokenKind kind = tokens.getKind(position);
+
+            if (kind == TokenKind.FUNC) {
+                parsingFunctions = true;
+            } else if (kind != TokenKind.STRUCT || parsingFunctions) {
+                break;
+            }
+
+            int definitionEnd = findDefinitionEnd(tokens, position);
+            if (definitionEnd == -1) {
+                break;
+            }
+
+            if (definitionCount == definitionStarts.length) {
+                definitionStarts = Arrays.copyOf(definitionStarts, definitionCount * 2);
+            }
+
+            definitionStarts[definitionCount++] = position;
+            position = definitionEnd;
+        }
+
+        definitionStarts = Arrays.copyOf(definitionStarts, definitionCount + 1);
+        definitionStarts[definitionCount] = position;
+
+        return definitionStarts;
+    }
+
+    // Finds the position after the brace closing the definition at the position, or -1 if it is never closed
+    private static int findDefinitionEnd(TokenBuffer tokens, int definitionStart) {
+        int depth = 0;
+
+        for (int position = definitionStart + 1; tokens.hasToken(position); position++) {
+            switch (tokens.getKind(position)) {
+                case LEFT_BRACE -> depth++;
+                case RIGHT_BRACE -> {
+                    if (--depth == 0) {
+                        return position + 1;
+                    }
+                }
+                case STRUCT, FUNC -> {
+                    // Another definition starts before this one's body, so this one is malformed
+                    if (depth == 0) {
+                        return -1;
+                    }
+                }
+                default -> {
+                    // Everything else is part of the definition
+                }
+            }
+
+            if (depth < 0) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    // Returns null if any of the definitions could not be parsed to exactly where the next one starts
+    private static Pair<List<StructDef>, List<FunctionDef>> parseDefinitions(TokenBuffer tokens,
+                                                                           int[] definitionStarts,
+                                                                           int firstDefinition, int endDefinition) {
+        final Parser parser = new Parser(tokens, false);
+
+        List<StructDef> structDefs = new ArrayList<>();
+        List<FunctionDef> functionDefs = new ArrayList<>();
+
+        try {
+            for (int i = firstDefinition; i < endDefinition; i++) {
+                parser.cursor = definitionStarts[i];
+
+                boolean isStructDef = tokens.getKind(parser.cursor) == TokenKind.STRUCT;
+                AbstractSyntaxTreeNode definition = isStructDef ? parser.parseStructDef() : parser.parseFunctionDef();
+
+                if (definition == null || parser.cursor != definitionStarts[i + 1]) {
+                    return null;
+                }
+
+                if (isStructDef) {
+                    structDefs.add((StructDef) definition);
+                } else {
+                    functionDefs.add((FunctionDef) definition);
+                }
+            }
+        } catch (ParserException ex) {
+            return null;
+        }
+
+        return Pair.of(structDefs, functionDefs);
+    }
+
+    /**
+     * Parses a program so that it can be parsed again after an edit with
+     * {@link #reparse(IncrementalProgram, TokenBuffer, int, int, int)}. The program is the same as the one
+     * {@link #parseProgram(TokenStream)} would parse, and so is any error.
+     *
+     * @param tokens the buffer of every token in the program
+     * @return the parsed program, together with its tokens
+     * @throws ParserException if the program could not be parsed
+     */
+    public static IncrementalProgram parseIncrementally(TokenBuffer tokens) throws ParserException {
+        final Parser parser = new Parser(tokens, false);
+
+        List<AbstractSyntaxTreeNode> elements = new ArrayList<>();
+        List<SourceSegment> segments = new ArrayList<>();
+        parser.parseSegmentedElements(tokens.getSourceBuffer(), elements, segments, Integer.MAX_VALUE);
+
+        List<StructDef> structDefs = new ArrayList<>();
+        List<FunctionDef> functionDefs = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
+        splitTopLevelElements(elements, structDefs, functionDefs, statements);
+
+        return new IncrementalProgram(parser.toProgram(structDefs, functionDefs, statements), tokens, segments);
+    }
+
+    /**
+     * Retokenizes the input of a previous program after an edit, then parses it again. See
+     * {@link Tokenizer#retokenize(TokenBuffer, int, int, String)} and
+     * {@link #reparse(IncrementalProgram, TokenBuffer, int, int, int)}.
+     *
+     * @param previous the program before the edit, which must not be used again if this succeeds
+     * @param editOffset the offset of the edit in the previous input
+     * @param removedLength how many characters were removed at the offset
+     * @param insertedText the text inserted at the offset
+     * @return the program parsed from the edited input, together with its tokens
+     * @throws TokenizerException if the edited input could not be tokenized
+     * @throws ParserException if the edited program could not be parsed
+     */
+    public static IncrementalProgram reparse(IncrementalProgram previous, int editOffset, int removedLength,
+                                             String insertedText) throws TokenizerException, ParserException {
+        TokenBuffer tokens = Tokenizer.retokenize(previous.getTokens(), editOffset, removedLength, insertedText);
+        return reparse(previous, tokens, editOffset, removedLength, insertedText.length());
+    }
+
+    /**
+     * Parses an edited program again, reusing every top-level element of the previous program that the edit didn't
+     * touch. Only the elements whose tokens touch the edit are parsed again, and the elements after the edit are moved
+     * to where they are in the edited input by moving their segments, so the work is proportional to the edited
+     * elements (and the number of top-level elements), not the size of the program.
+     *
+     * The result is the same as parsing the edited tokens from scratch. If the edited elements don't parse to exactly
+     * where the kept elements start, or anything fails to parse, the whole program is parsed again so any error is
+     * exactly the one that {@link #parseProgram(TokenStream)} would have thrown.
+     *
+     * The kept elements are moved out of the previous program, so it must not be used again unless this throws.
+     *
+     * @param previous the program before the edit
+     * @param tokens the buffer of every token in the edited input, e.g. from
+     *               {@link Tokenizer#retokenize(TokenBuffer, CharSequence, int, int, int)}
+     * @param editOffset the offset of the edit in the previous input
+     * @param removedLength how many characters of the previous input were removed at the offset
+     * @param insertedLength how many characters were inserted at the offset in the edited input
+     * @return the program parsed from the edited input, together with its tokens
+     * @throws ParserException if the edited program could not be parsed
+     */
+    public static IncrementalProgram reparse(IncrementalProgram previous, TokenBuffer tokens, int editOffset,
+                                             int removedLength, int insertedLength) throws ParserException {
+        List<AbstractSyntaxTreeNode> previousElements = getTopLevelElements(previous.getProgram());
+        List<SourceSegment> previousSegments = previous.getSegments();
+        int elementCount = previousElements.size();
+
+        int editEnd = editOffset + removedLength;
+        int offsetShift = insertedLength - removedLength;
+
+        // Elements touching either end of the edit are parsed again, as the tokens at their edges may have changed
+        int firstEdited = 0;
+        while (firstEdited < elementCount
+                && previousElements.get(firstEdited).getSource().getEndOffset() < editOffset) {
+            firstEdited++;
+        }
+
+        // An if statement looked at the token after it for an `else`, which may have changed too
+        if (firstEdited > 0 && previousElements.get(firstEdited - 1) instanceof IfElseStmt) {
+            firstEdited--;
+        }
+
+        int firstKeptAfter = firstEdited;
+        while (firstKeptAfter < elementCount
+                && previousElements.get(firstKeptAfter).getSource().getStartOffset() <= editEnd) {
+            firstKeptAfter++;
+        }
+
+        // Nothing before the edit has moved, so the edited elements start right where the element before them ended
+        int editedStartOffset = firstEdited > 0 ? previousElements.get(firstEdited - 1).getSource().getEndOffset() : 0;
+        int editedStart = tokens.findFirstTokenStartingAtOrAfter(editedStartOffset);
+
+        int editedEnd = Integer.MAX_VALUE;
+        if (firstKeptAfter < elementCount) {
+            int keptStartOffset = previousElements.get(firstKeptAfter).getSource().getStartOffset() + offsetShift;
+            editedEnd = tokens.findFirstTokenStartingAtOrAfter(keptStartOffset);
+
+            // The kept elements can only be the same if a token still starts where they do
+            if (!tokens.hasToken(editedEnd) || tokens.getStart(editedEnd) != keptStartOffset) {
+                return parseIncrementally(tokens);
+            }
+        }
+
+        final Parser parser = new Parser(tokens, false);
+        parser.cursor = editedStart;
+
+        List<AbstractSyntaxTreeNode> editedElements = new ArrayList<>();
+        List<SourceSegment> editedSegments = new ArrayList<>();
+
+        try {
+            parser.parseSegmentedElements(tokens.getSourceBuffer(), editedElements, editedSegments, editedEnd);
+        } catch (ParserException ex) {
+            // The program is parsed again below to throw the error
+            return parseIncrementally(tokens);
+        }
+
+        boolean parsedUpToKeptElements = firstKeptAfter < elementCount
+                ? parser.cursor == editedEnd
+                : !tokens.hasToken(parser.cursor + 1);
+
+        List<AbstractSyntaxTreeNode> elements = new ArrayList<>(
+                elementCount - (firstKeptAfter - firstEdited) + editedElements.size());
+        elements.addAll(previousElements.subList(0, firstEdited));
+        elements.addAll(editedElements);
+        elements.addAll(previousElements.subList(firstKeptAfter, elementCount));
+
+        List<StructDef> structDefs = new ArrayList<>();
+        List<FunctionDef> functionDefs = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
+
+        // An element out of order would be an error where it's kept, which parsing it all again will throw
+        if (!parsedUpToKeptElements || !splitTopLevelElements(elements, structDefs, functionDefs, statements)) {
+            return parseIncrementally(tokens);
+        }
+
+        // Only now that nothing can fail are the kept elements moved out of the previous program
+        SourceBuffer editedBuffer = tokens.getSourceBuffer();
+
+        for (int i = 0; i < elementCount; i++) {
+            if (i < firstEdited) {
+                previousSegments.get(i).move(editedBuffer, 0);
+            } else if (i >= firstKeptAfter) {
+                previousSegments.get(i).move(editedBuffer, offsetShift);
+            }
+        }
+
+        List<SourceSegment> segments = new ArrayList<>(elements.size());
+        segments.addAll(previousSegments.subList(0, firstEdited));
+        segments.addAll(editedSegments);
+        segments.addAll(previousSegments.subList(firstKeptAfter, elementCount));
+
+        return new IncrementalProgram(parser.newProgram(structDefs, functionDefs, statements), tokens, segments);
+    }
+
+    // Gets the struct definitions, function definitions and statements of the program, in that order
+    private static List<AbstractSyntaxTreeNode> getTopLevelElements(Program program) {
+        List<AbstractSyntaxTreeNode> elements = new ArrayList<>(program.getStructDefs().size()
+                + program.getFunctionDefs().size() + program.getStatements().size());
+
+        elements.addAll(program.getStructDefs());
+        elements.addAll(program.getFunctionDefs());
+        elements.addAll(program.getStatements());
+
+        return elements;
+    }
+
+    // Splits the top-level elements by what they are, returning false if they're not in the order a program has them
+    private static boolean splitTopLevelElements(List<AbstractSyntaxTreeNode> elements, List<StructDef> structDefs,
+                                                 List<FunctionDef> functionDefs, List<Statement> statements) {
+        for (AbstractSyntaxTreeNode element : elements) {
+            if (element instanceof StructDef structDef) {
+                if (!functionDefs.isEmpty() || !statements.isEmpty()) {
+                    return false;
+                }
+
+                structDefs.add(structDef);
+            } else if (element instanceof FunctionDef functionDef) {
+                if (!statements.isEmpty()) {
+                    return false;
+                }
+
+                functionDefs.add(functionDef);
+            } else {
+                statements.add((Statement) element);
+            }
+        }
+
+        return true;
+    }
+
+    // Parses the top-level elements from the cursor until the end position, each sourced in a segment of its own
+    private void parseSegmentedElements(SourceBuffer sourceBuffer, List<AbstractSyntaxTreeNode> elements,
+                                        List<SourceSegment> segments, int endPosition) throws ParserException {
+        parseZeroOrMore(parser -> parser.parseSegmentedElement(Parser::parseStructDef, sourceBuffer, segments,
+                endPosition), elements);
+        parseZeroOrMore(parser -> parser.parseSegmentedElement(Parser::parseFunctionDef, sourceBuffer, segments,
+                endPosition), elements);
+        parseZeroOrMore(parser -> parser.parseSegmentedElement(Parser::parseStatement, sourceBuffer, segments,
+                endPosition), elements);
+    }
+
+    private <T> T parseSegmentedElement(ParsingFunction<Parser, T> parseFunction, SourceBuffer sourceBuffer,
+                                        List<SourceSegment> segments, int endPosition) throws ParserException {
+        if (cursor >= endPosition) {
+            return null;
+        }
+
+        sourceSegment = new SourceSegment(sourceBuffer);
+
+        try {
+            T element = parseFunction.apply(this);
+
+            if (element != null) {
+                segments.add(sourceSegment);
+            }
+
+            return element;
+        } finally {
+            sourceSegment = null;
+        }
+    }
+
     public ParseResult<Program> parseProgram(final int position) throws ParserException {
-        int currentPosition = position;
+        cursor = position;
+        Program program = parseProgram();
+
+        return new ParseResult<>(program, cursor);
+    }
+
+    public Optional<ParseResult<VardecStmt>> parseVardec(final int position) throws ParserException {
+        return parseAt(position, Parser::parseVardec);
+    }
+
+    public Optional<ParseResult<Expression>> parseExp(final int position) throws ParserException {
+        return parseAt(position, Parser::parseExp);
+    }
+
+    public Optional<ParseResult<Type>> parseType(final int position) throws ParserException {
+        return parseAt(position, Parser::parseType);
+    }
+
+    // Parses from the position, returning what was parsed and the position after it, or empty if nothing matched
+    private <T> Optional<ParseResult<T>> parseAt(final int position,
+                                                 final ParsingFunction<Parser, T> parsingFunction) throws ParserException {
+        cursor = position;
+        T result = parsingFunction.apply(this);
+
+        return result == null ? Optional.empty() : Optional.of(new ParseResult<>(result, cursor));
+    }
+
+    // program ::= structdef* fdef* stmt*
+    private Program parseProgram() throws ParserException {
         List<StructDef> structDefs = new ArrayList<>();
         List<FunctionDef> functionDefs = new ArrayList<>();
         List<Statement> statements = new ArrayList<>();
 
-        currentPosition = parseZeroOrMore(this::parseStructDef, structDefs::add, currentPosition);
-        currentPosition = parseZeroOrMore(this::parseFunctionDef, functionDefs::add, currentPosition);
-        currentPosition = parseZeroOrMore(this::parseStatement, statements::add, currentPosition);
+        // Top-level definitions are never backtracked into, so their tokens are released once they're parsed
+        parseTopLevelZeroOrMore(Parser::parseStructDef, structDefs);
+        parseTopLevelZeroOrMore(Parser::parseFunctionDef, functionDefs);
+        parseTopLevelZeroOrMore(Parser::parseStatement, statements);
+
+        return toProgram(structDefs, functionDefs, statements);
+    }
+
+    // Parses the program, recording each syntax error and skipping past it instead of stopping at the first
+    private RecoveredProgram parseProgramWithRecovery(final int maxErrors) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("The error limit must be at least 1.");
+        }
+
+        this.recoveredErrors = new ArrayList<>();
+        this.maxErrors = maxErrors;
+
+        List<StructDef> structDefs = new ArrayList<>();
+        List<FunctionDef> functionDefs = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
 
-        int lastIndex = sourcedTokens.size() - 1;
+        boolean reachedErrorLimit = false;
 
+        try {
+            while (true) {
+                parseTopLevelZeroOrMore(Parser::parseStructDef, structDefs);
+                parseTopLevelZeroOrMore(Parser::parseFunctionDef, functionDefs);
+                parseTopLevelZeroOrMore(Parser::parseStatement, statements);
+
+                try {
+                    return new RecoveredProgram(toProgram(structDefs, functionDefs, statements), recoveredErrors, false);
+                } catch (ParserMalformedException ex) {
+                    // Nothing at the cursor could be parsed, so skip it and parse whatever comes after
+                    recoverFrom(ex, cursor, releasesParsedTokens);
+                }
+            }
+        } catch (ErrorLimitReachedException ex) {
+            reachedErrorLimit = true;
+        } catch (ParserException ex) {
+            // Anything that couldn't be recovered from still ends with what was parsed up to it
+            recoveredErrors.add(ex);
+        }
+
+        return new RecoveredProgram(newProgram(structDefs, functionDefs, statements), recoveredErrors,
+                reachedErrorLimit);
+    }
+
+    // Creates the program from its parsed elements, as long as they've used up every token up to the cursor
+    private Program toProgram(List<StructDef> structDefs, List<FunctionDef> functionDefs,
+                              List<Statement> statements) throws ParserException {
         // If there aren't any remaining tokens, directly return the result
-        if (currentPosition >= lastIndex) {
-            return getSourcedParseResult(new Program(structDefs, functionDefs, statements), position, currentPosition);
+        if (!tokens.hasToken(cursor + 1)) {
+            return newProgram(structDefs, functionDefs, statements);
         }
         
         // Else, we have remaining tokens and should throw an error
         List<Source> tokenSources = new ArrayList<>();
-        for (int i = currentPosition; i <= lastIndex; i++) {
-            tokenSources.add(sourcedTokens.get(i).getSource());
+        int lastIndex = tokens.size() - 1;
+        for (int i = cursor; i <= lastIndex; i++) {
+            tokenSources.add(tokens.getSourcedToken(i).getSource());
         }
 
         // Compile the list of remaining tokens into a single source, set this to the parent
@@ -154,10 +707,12 @@ public class Parser {
             return null;
         }
 
-        // If it's on multiple lines, print just the first line
+        // If it's on multiple lines, print just the first line, from the first remaining token (which is often partway
+        // along its line, after whatever was recovered from before it)
         String firstLine = remainingSource.getSourceString().split("\n")[0];
-        SourcePosition startPosition = new SourcePosition(startLinePosition, 1);
-        SourcePosition endPosition = new SourcePosition(startLinePosition, firstLine.length());
+        SourcePosition startPosition = remainingSource.getStartPosition();
+        SourcePosition endPosition = new SourcePosition(startLinePosition,
+                startPosition.getColumnPosition() + firstLine.length());
 
         Source childSource = new Source(firstLine, startPosition, endPosition);
         Sourceable child = () -> childSource;
@@ -168,321 +723,330 @@ public class Parser {
         return null;
     }
 
+    // Creates the program from its parsed elements
+    private Program newProgram(List<StructDef> structDefs, List<FunctionDef> functionDefs,
+                               List<Statement> statements) {
+        Program program = new Program(structDefs, functionDefs, statements);
+
+        // The released tokens are gone, but the top-level nodes span them all
+        List<Source> topLevelSources = new ArrayList<>();
+        structDefs.forEach(structDef -> topLevelSources.add(structDef.getSource()));
+        functionDefs.forEach(functionDef -> topLevelSources.add(functionDef.getSource()));
+        statements.forEach(statement -> topLevelSources.add(statement.getSource()));
+
+        // A program recovered from its errors may have nothing left in it to give it a source
+        if (recoveredErrors == null || !topLevelSources.isEmpty()) {
+            program.setSource(Source.fromSources(topLevelSources));
+        }
+
+        return program;
+    }
+
     /**
-     * Parses zero or more of type T. Returns the next position for the parser.
+     * Parses zero or more of type T from the cursor, leaving the cursor after the last one parsed.
      *
-     * @param parseFunction the parsing function to parse a T, starting at the specified position
-     * @param parsedValueConsumer what to do with T, if one is parsed
-     * @param position the initial parsing position
-     * @return the next position for the parser to go to
+     * @param parseFunction the parsing function to parse a T at the cursor
+     * @param parsedValues the list to add each parsed T to
+     * @param releaseParsedTokens whether to release the tokens of each T from the token stream once it's parsed
      * @param <T> a type that can be parsed
      */
-    private <T> int parseZeroOrMore(ParsingFunction<Integer, Optional<ParseResult<T>>> parseFunction,
-                                    Consumer<T> parsedValueConsumer, int position) throws ParserException {
-        int currentPosition = position;
-
+    private <T> void parseZeroOrMore(ParsingFunction<Parser, T> parseFunction, List<? super T> parsedValues,
+                                     boolean releaseParsedTokens) throws ParserException {
         while (true) {
-            Optional<ParseResult<T>> optionalParseResult;
+            final int elementStart = cursor;
+            T parsedValue;
 
             try {
-                optionalParseResult = parseFunction.apply(currentPosition);
-            } catch (ParserMalformedException ex) {
-                // Rethrow a malformed parse
-                throw ex;
+                parsedValue = parseFunction.apply(this);
             } catch (ParserNoElementFoundException ex) {
                 // If we didn't find an element, this is completely okay - we are parsing zero or more
+                cursor = elementStart;
                 break;
+            } catch (ParserMalformedException ex) {
+                if (recoveredErrors == null) {
+                    throw ex;
+                }
+
+                // Leave the malformed element out, and carry on with whatever comes after it
+                recoverFrom(ex, elementStart, releaseParsedTokens);
+                continue;
             }
 
-            if (optionalParseResult.isEmpty()) {
+            if (parsedValue == null) {
                 break;
             }
 
-            ParseResult<T> parseResult = optionalParseResult.get();
+            parsedValues.add(parsedValue);
+
+            if (releaseParsedTokens) {
+                tokens.release(cursor);
+            }
+        }
+    }
+
+    // Records the error in the element starting at the position, and moves the cursor to where parsing can pick up again
+    private void recoverFrom(ParserMalformedException error, int elementStart,
+                             boolean releaseParsedTokens) throws ParserException {
+        recoveredErrors.add(error);
 
-            parsedValueConsumer.accept(parseResult.result);
-            currentPosition = parseResult.nextPosition;
+        if (recoveredErrors.size() >= maxErrors) {
+            throw new ErrorLimitReachedException(maxErrors);
         }
 
-        return currentPosition;
+        // Always skip at least one token, so the same error is never found twice
+        cursor = findRecoveryPosition(elementStart, Math.max(cursor, elementStart + 1));
+
+        if (releaseParsedTokens) {
+            tokens.release(cursor);
+        }
+    }
+
+    /*
+     * Finds the first position from the given one that an element could start at after the malformed element starting
+     * at the element start, which is after a `;` outside any braces the element opened, after the `}` (and any `;`
+     * after it) that closes the braces the element opened, or at a `}` closing a block around the element or a `func`
+     * or `struct` starting a new definition.
+     */
+    private int findRecoveryPosition(final int elementStart, final int from) {
+        // A stray `}` can't start anything, so only it needs skipping
+        if (from == elementStart + 1 && tokens.getKind(elementStart) == TokenKind.RIGHT_BRACE) {
+            return from;
+        }
+
+        // The element may have opened braces before the error was found, which still need closing
+        int depth = 0;
+        for (int position = elementStart; position < from && tokens.hasToken(position); position++) {
+            switch (tokens.getKind(position)) {
+                case LEFT_BRACE -> depth++;
+                case RIGHT_BRACE -> depth = Math.max(depth - 1, 0);
+                default -> {
+                    // Nothing else opens or closes braces
+                }
+            }
+        }
+
+        int position = from;
+        for (; tokens.hasToken(position); position++) {
+            switch (tokens.getKind(position)) {
+                case FUNC, STRUCT -> {
+                    return position;
+                }
+                case SEMICOLON -> {
+                    if (depth == 0) {
+                        return position + 1;
+                    }
+                }
+                case LEFT_BRACE -> depth++;
+                case RIGHT_BRACE -> {
+                    if (depth == 0) {
+                        return position;
+                    }
+
+                    if (--depth == 0) {
+                        return isExpectedToken(position + 1, SemicolonToken.class) ? position + 2 : position + 1;
+                    }
+                }
+                default -> {
+                    // Everything else is skipped over
+                }
+            }
+        }
+
+        return position;
+    }
+
+    // Thrown once the error limit is reached, to stop parsing without recovering from it
+    private static final class ErrorLimitReachedException extends ParserException {
+
+        private ErrorLimitReachedException(int maxErrors) {
+            super(String.format("Stopped parsing after %d syntax errors", maxErrors), false);
+        }
+
+    }
+
+    private <T> void parseZeroOrMore(ParsingFunction<Parser, T> parseFunction,
+                                     List<? super T> parsedValues) throws ParserException {
+        parseZeroOrMore(parseFunction, parsedValues, false);
+    }
+
+    // Parses zero or more top-level elements, releasing each one's tokens once it's parsed if this parser may
+    private <T> void parseTopLevelZeroOrMore(ParsingFunction<Parser, T> parseFunction,
+                                             List<? super T> parsedValues) throws ParserException {
+        parseZeroOrMore(parseFunction, parsedValues, releasesParsedTokens);
     }
 
     // structdef ::= `struct` structname `{` (param `;`)* `}`
-    public Optional<ParseResult<StructDef>> parseStructDef(final int position) throws ParserException {
+    private StructDef parseStructDef() throws ParserException {
         final String structDefinition = "struct definition";
-        int currentPosition = position;
+        final int start = cursor;
 
         // Check that there's a struct token here
-        if (!isExpectedToken(currentPosition, StructToken.class)) {
-            return Optional.empty();
+        if (!isExpectedToken(cursor, StructToken.class)) {
+            return null;
         }
 
         // We are absolutely trying to parse a struct definition now, we should throw exceptions
-        currentPosition += 1;
+        cursor += 1;
 
         // Try to parse the struct name
-        Optional<ParseResult<Type>> opStructName = parseType(currentPosition);
-        if (opStructName.isEmpty() || !(opStructName.get().result instanceof StructType)) {
-            throwParserException(structDefinition, "struct name", position, currentPosition);
+        final int structNameStart = cursor;
+        Type parsedType = parseType();
+        if (!(parsedType instanceof StructType)) {
+            throwParserException(structDefinition, "struct name", start, structNameStart);
         }
 
-        ParseResult<Type> parsedTypeResult = opStructName.get();
-        StructName structName = ((StructType) parsedTypeResult.result).getStructName()
+        StructName structName = ((StructType) parsedType).getStructName()
                 .orElseThrow(() -> new IllegalStateException("Name of struct is somehow not defined from valid identifier."));
 
-        currentPosition = parsedTypeResult.nextPosition;
-
         // Ensure that there's a left brace here
-        throwParserExceptionOnUnexpected(structDefinition, LeftBraceToken.class, "{", position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(structDefinition, LeftBraceToken.class, "{", start, cursor);
+        cursor += 1;
 
         List<Param> params = new ArrayList<>();
 
         // Check for (param `;`)*
         while (true) {
             // Get the param
-            Optional<ParseResult<Param>> paramResult = parseParam(currentPosition);
-            if (paramResult.isEmpty())
+            Param param = parseParam();
+            if (param == null)
                 break; // Exit if no more statements
 
-            ParseResult<Param> param = paramResult.get();
-            currentPosition = param.nextPosition;
-
             // Ensure that if we do have a param, we have a semicolon here
-            throwParserExceptionOnNoSemicolon(structDefinition + " variable declaration", position, currentPosition);
-            currentPosition += 1;
+            throwParserExceptionOnNoSemicolon(structDefinition + " variable declaration", start, cursor);
+            cursor += 1;
 
-            params.add(param.result);
+            params.add(param);
         }
 
         // Ensure that there's a right brace here
-        throwParserExceptionOnUnexpected(structDefinition, RightBraceToken.class, "}",  position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(structDefinition, RightBraceToken.class, "}",  start, cursor);
+        cursor += 1;
 
         // Return the variable declaration
-        return getOptionalSourcedParseResult(
-                new StructDef(structName, params),
-                position,
-                currentPosition
-        );
+        return setSource(new StructDef(structName, params), start);
     }
 
     // param :: = type var
-    public Optional<ParseResult<Param>> parseParam(final int position) throws ParserException {
-        int currentPosition = position;
+    private Param parseParam() throws ParserException {
+        final int start = cursor;
 
         // Try to parse the type
-        Optional<ParseResult<Type>> optionalType = parseType(currentPosition);
-        if (optionalType.isEmpty()) {
-            return Optional.empty();
+        Type type = parseType();
+        if (type == null) {
+            return null;
         }
 
-        ParseResult<Type> type = optionalType.get();
-        currentPosition = type.nextPosition;
-
         // Try to parse the variable
-        Optional<ParseResult<Variable>> optionalVar = parseVar(currentPosition);
-        if (optionalVar.isEmpty()) {
-            return Optional.empty();
+        Variable variable = parseVar();
+        if (variable == null) {
+            cursor = start;
+            return null;
         }
 
-        ParseResult<Variable> var = optionalVar.get();
-        currentPosition = var.nextPosition;
-
         // Return the variable declaration
-        return getOptionalSourcedParseResult(
-                new Param(type.result, var.result),
-                position,
-                currentPosition
-        );
+        return setSource(new Param(type, variable), start);
     }
 
     // fdef ::= `func` funcname `(` comma_param `)` `:` type
     //         `{` stmt* `}`
-    public Optional<ParseResult<FunctionDef>> parseFunctionDef(final int position) throws ParserException {
-        if (!isExpectedToken(position, FuncToken.class)) {
-            return Optional.empty();
+    private FunctionDef parseFunctionDef() throws ParserException {
+        if (!isExpectedToken(cursor, FuncToken.class)) {
+            return null;
         }
 
-        int currentPosition = position + 1;
+        final int start = cursor;
+        cursor += 1;
 
         // We are definitely parsing a function definition now, we must throw moving forward
         final String functionDefinition = "function definition";
 
         // Throw an exception if no function name identifier
-        throwParserExceptionOnUnexpected(functionDefinition, IdentifierToken.class, "a function name",  position, currentPosition);
-        FunctionName functionName = getSourcedNode(currentPosition, (token) -> new FunctionName(token.getTokenizedValue()));
-
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(functionDefinition, IdentifierToken.class, "a function name",  start, cursor);
+        FunctionName functionName = parseFuncName();
 
         // Create the function name, update error message for this function
         final String functionDefinitionWithName = functionDefinition + " for function " + functionName.functionName;
 
         // Ensure we have a left paren (begin function params)
-        throwParserExceptionOnUnexpected(functionDefinitionWithName, LeftParenToken.class, "(",  position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(functionDefinitionWithName, LeftParenToken.class, "(",  start, cursor);
+        cursor += 1;
 
         // Ensure we have the comma params (the function params)
-        ParseResult<List<Param>> parsedFunctionParams = parseCommaParam(functionDefinitionWithName, currentPosition);
-        List<Param> functionParams = parsedFunctionParams.result;
-        currentPosition = parsedFunctionParams.nextPosition;
+        List<Param> functionParams = parseCommaParam(functionDefinitionWithName);
 
         // Ensure we have a right paren (end function params)
-        throwParserExceptionOnUnexpected(functionDefinitionWithName, RightParenToken.class, ")",  position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(functionDefinitionWithName, RightParenToken.class, ")",  start, cursor);
+        cursor += 1;
 
         // Ensure we have the colon separator for the return type of the function
-        throwParserExceptionOnUnexpected(functionDefinitionWithName, ColonToken.class, ":",  position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(functionDefinitionWithName, ColonToken.class, ":",  start, cursor);
+        cursor += 1;
 
         // Ensure we have a valid return type
-        Optional<ParseResult<Type>> optionalReturnType = parseType(currentPosition);
-        throwParserExceptionOnEmptyOptional(functionDefinitionWithName, optionalReturnType, "a valid return type",
-                position, currentPosition);
-
-        ParseResult<Type> parsedTypeResult = optionalReturnType.get();
-
-        Type functionReturnType = parsedTypeResult.result;
-        currentPosition = parsedTypeResult.nextPosition;
+        Type functionReturnType = parseType();
+        throwParserExceptionOnNoMatch(functionDefinitionWithName, functionReturnType, "a valid return type",
+                start, cursor);
 
         // Ensure we have a statement block at the end
-        Optional<ParseResult<StmtBlock>> optionalStatementBlock = parseStatementBlock(currentPosition);
-        throwParserExceptionOnEmptyOptional(functionDefinitionWithName, optionalStatementBlock, "a function body",
-                position, currentPosition);
-
-        ParseResult<StmtBlock> parsedStatementBlock = optionalStatementBlock.get();
-        StmtBlock functionBody = parsedStatementBlock.result;
-        currentPosition = parsedStatementBlock.nextPosition;
+        StmtBlock functionBody = parseStatementBlock();
+        throwParserExceptionOnNoMatch(functionDefinitionWithName, functionBody, "a function body",
+                start, cursor);
 
         FunctionDef functionDef = new FunctionDef(functionName, functionParams, functionReturnType, functionBody);
-        return getOptionalSourcedParseResult(functionDef, position, currentPosition);
+        return setSource(functionDef, start);
     }
 
     // comma_param ::= [param (`,` param)*]
-    private ParseResult<List<Param>> parseCommaParam(String functionDefinitionWithName,
-                                                     final int position) throws ParserException {
-        int currentPosition = position;
-        List<Param> commaParams = new ArrayList<>();
+    private List<Param> parseCommaParam(String functionDefinitionWithName) throws ParserException {
+        final int start = cursor;
 
-        Optional<ParseResult<Param>> optionalFirstParsedParam = parseParam(currentPosition);
+        Param firstParam = parseParam();
 
         // If our first param is empty, then we have no parameters
-        if (optionalFirstParsedParam.isEmpty()) {
-            return new ParseResult<>(List.of(), currentPosition);
+        if (firstParam == null) {
+            return List.of();
         }
 
-        ParseResult<Param> firstParamResult = optionalFirstParsedParam.get();
-
-        commaParams.add(firstParamResult.result);
-        currentPosition = firstParamResult.nextPosition;
+        List<Param> commaParams = new ArrayList<>();
+        commaParams.add(firstParam);
 
         // While we can still parse a comma, try to grab the next parameter
-        while (isExpectedToken(currentPosition, CommaToken.class)) {
-            currentPosition += 1;
-
-            Optional<ParseResult<Param>> optionalParsedParam = parseParam(currentPosition);
-            throwParserExceptionOnEmptyOptional(functionDefinitionWithName, optionalParsedParam,
-                    "an additional function parameter after comma",  position, currentPosition);
+        while (isExpectedToken(cursor, CommaToken.class)) {
+            cursor += 1;
 
-            ParseResult<Param> paramResult = optionalParsedParam.get();
+            Param param = parseParam();
+            throwParserExceptionOnNoMatch(functionDefinitionWithName, param,
+                    "an additional function parameter after comma",  start, cursor);
 
-            commaParams.add(paramResult.result);
-            currentPosition = paramResult.nextPosition;
+            commaParams.add(param);
         }
 
-        return new ParseResult<>(commaParams, currentPosition);
+        return commaParams;
     }
 
-    // struct_actual_param ::= var `:` exp
-    public Optional<ParseResult<StructActualParam>> parseStructActualParam(final int position) throws ParserException {
-        int currentPosition = position;
-        // Try to parse a variable
-        Optional<ParseResult<Variable>> optionalVar = parseVar(currentPosition);
-        if (optionalVar.isEmpty()) {
-            return Optional.empty();
-        }
-        currentPosition = optionalVar.get().nextPosition;
-
-        // Make sure there's a colon here - throw exceptions from this point
-        throwParserExceptionOnUnexpected("struct actual param", ColonToken.class, "a colon :",  position, currentPosition);
-        currentPosition += 1;
-
-        // parse expression
-        Optional<ParseResult<Expression>> optionalExp = parseExp(currentPosition);
-        throwParserExceptionOnEmptyOptional("struct actual param", optionalExp, "an expression",  position, currentPosition);
-
-        // Create struct actual param and return
-        return getOptionalSourcedParseResult(
-                new StructActualParam(optionalVar.get().result, optionalExp.get().result),
-                position,
-                optionalExp.get().nextPosition
-        );
+    private Statement parseMandatoryStatement(String beingParsed) throws ParserException {
+        return parseMandatory(beingParsed, "a statement", Parser::parseStatement);
     }
 
-    // struct_actual_params ::= [struct_actual_param (`,` struct_actual_param)*]
-    public ParseResult<StructActualParams> parseStructActualParams(final int position) throws ParserException {
-        final String structParamString = "struct actual params";
-        int currentPosition = position;
-
-        // Create a Struct Actual Param list
-        List<StructActualParam> listOfActualParams = new ArrayList<>();
-
-        // Try to parse an actual param - there doesn't have to be one
-        Optional<ParseResult<StructActualParam>> optionalStructActParam = parseStructActualParam(currentPosition);
-        if (optionalStructActParam.isEmpty()) {
-            // If we have no params, then we don't need to source this result (nothing to source)
-            return new ParseResult<>(new StructActualParams(listOfActualParams), currentPosition);
-        }
-
-        // If there is one, add it to the list
-        listOfActualParams.add(optionalStructActParam.get().result);
-        currentPosition = optionalStructActParam.get().nextPosition;
-
-        // While there's a comma next
-        while (isExpectedToken(currentPosition, CommaToken.class)) {
-            currentPosition += 1;
-
-            // Parse another param, add it to the param list - there has to be one now
-            optionalStructActParam = parseStructActualParam(currentPosition);
-            throwParserExceptionOnEmptyOptional(structParamString, optionalStructActParam,
-                    "struct actual param",  position, currentPosition);
-
-            listOfActualParams.add(optionalStructActParam.get().result);
-            currentPosition = optionalStructActParam.get().nextPosition;
-        }
-        
-        // Create struct actual params with list and return
-        return getSourcedParseResult(
-                new StructActualParams(listOfActualParams),
-                position,
-                currentPosition
-        );
-    }
-
-    public ParseResult<Statement> parseMandatoryStatement(String beingParsed,
-                                                          final int position) throws ParserException {
-        return parseMandatory(beingParsed, "a statement", this::parseStatement, position);
+    private <T> T parseMandatory(String beingParsed,
+                                 final ParsingFunction<Parser, T> parsingFunction) throws ParserException {
+        return parseMandatory(beingParsed, beingParsed, parsingFunction);
     }
 
-    private <T> ParseResult<T> parseMandatory(String beingParsed,
-                                              final ParsingFunction<Integer, Optional<ParseResult<T>>> parsingFunction,
-                                              final int position) throws ParserException {
-        return parseMandatory(beingParsed, beingParsed, parsingFunction, position);
-    }
+    private <T> T parseMandatory(String beingParsed, String expected,
+                                 final ParsingFunction<Parser, T> parsingFunction) throws ParserException {
+        final int start = cursor;
 
-    private <T> ParseResult<T> parseMandatory(String beingParsed, String expected,
-                                              final ParsingFunction<Integer, Optional<ParseResult<T>>> parsingFunction,
-                                              final int position) throws ParserException {
         try {
-            Optional<ParseResult<T>> optionalParseResult = parsingFunction.apply(position);
+            T parsedValue = parsingFunction.apply(this);
 
-            if (optionalParseResult.isEmpty()) {
-                throwParserException(beingParsed, beingParsed, position, position);
+            if (parsedValue == null) {
+                throwParserException(beingParsed, beingParsed, start, start);
             }
 
-            return optionalParseResult.get();
+            return parsedValue;
         } catch (ParserNoElementFoundException ex) {
-            throwParserException(beingParsed, beingParsed, position, position);
+            throwParserException(beingParsed, beingParsed, start, start);
         }
 
         throw new IllegalStateException("Cannot occur.");
@@ -499,802 +1063,824 @@ public class Parser {
              `return` [exp] `;` |
              exp `;`
     */
-    public Optional<ParseResult<Statement>> parseStatement(final int position) throws ParserException {
-        // (Makes it easier to add more in the future without code repeat)
-        return parseStatement(List.of(
-                this::parseAssign,
-                this::parseVardec,
-                this::parseIfElse,
-                this::parseWhile,
-                this::parseBreak,
-                this::parsePrintln,
-                this::parseReturn,
-                this::parseStatementBlock,
-                this::parseExpressionStatement
-        ), position);
-    }
-
-    // This method is extremely gross and horrible and I hate it - but what can you do with Java?
-    private Optional<ParseResult<Statement>> parseStatement(List<ParsingFunction<Integer,
-            Optional<? extends ParseResult<? extends Statement>>>> parseResults, int position) throws ParserException {
-        // Iterate over all the parsing functions
-        for (ParsingFunction<Integer, Optional<? extends ParseResult<? extends Statement>>> parseResult : parseResults) {
-            // Try to apply the parsing function the current position
-            Optional<? extends ParseResult<? extends Statement>> optionalParseResult = parseResult.apply(position);
-
-            // If we don't parse with the current function, move to the next
-            if (optionalParseResult.isEmpty()) {
-                continue;
-            }
+    private Statement parseStatement() throws ParserException {
+        Statement statement = parsePredictedStatement();
 
-            ParseResult<? extends Statement> realResult = optionalParseResult.get();
+        // Anything else can only be an expression statement, including a type that didn't start a vardec
+        if (statement == null) {
+            statement = parseExpressionStatement();
+        }
 
-            // Downcast the parsed statement result to just being a statement (and our statement is already sourced)
-            ParseResult<Statement> statementResult = new ParseResult<>(realResult.result, realResult.nextPosition);
+        // If we couldn't parse any statement here, this is returned as null for the caller to handle
+        return statement;
+    }
 
-            // Return the downcasted version
-            return Optional.of(statementResult);
+    /*
+     * Picks the one statement that can start with the token at the cursor, so only that statement is parsed. An
+     * identifier needs the token after it too: `=` means an assignment, and another identifier means a vardec of a
+     * struct type. Returns null if the statement is not predicted by its first tokens.
+     */
+    private Statement parsePredictedStatement() throws ParserException {
+        if (!tokens.hasToken(cursor)) {
+            return null;
         }
 
-        // If we couldn't parse any of the statements with supplied parsers, we should throw an exception
-        throw new ParserNoElementFoundException("statement");
+        return switch (tokens.getKind(cursor)) {
+            case IF -> parseIfElse();
+            case WHILE -> parseWhile();
+            case BREAK -> parseBreak();
+            case PRINTLN -> parsePrintln();
+            case RETURN -> parseReturn();
+            case LEFT_BRACE -> parseStatementBlock();
+            case INT, BOOL, VOID -> parseVardec();
+            case IDENTIFIER -> {
+                if (isExpectedToken(cursor + 1, AssignmentToken.class)) {
+                    yield parseAssign();
+                }
+
+                yield isExpectedToken(cursor + 1, IdentifierToken.class) ? parseVardec() : null;
+            }
+            default -> null;
+        };
     }
 
     // vardec ::= type var '=' exp ';'
-    public Optional<ParseResult<VardecStmt>> parseVardec(final int position) throws ParserException {
-        int currentPosition = position;
+    private VardecStmt parseVardec() throws ParserException {
+        final int start = cursor;
 
         // Try to parse the type
-        Optional<ParseResult<Type>> optionalType = parseType(currentPosition);
-        if (optionalType.isEmpty()) {
-            return Optional.empty();
+        Type type = parseType();
+        if (type == null) {
+            return null;
         }
 
-        // If we have a type, we must be trying to parse a vardec
-        ParseResult<Type> type = optionalType.get();
-        currentPosition = type.nextPosition;
-
         // Try to parse assignment statement, throwing if we do not have an identifier or if variable assignment fails
         // We can only throw an exception if it's an int, bool, or void
         // If we got an identifier, it may be a type or variable (which is a legal expression by itself), 
         // so we can't throw an exception on that. I may be misunderstanding something here, though.
-        Optional<ParseResult<AssignStmt>> optionalAssign = parseAssign(currentPosition, type.result.shouldThrowOnAssignment());
+        AssignStmt assign = parseUnsourcedAssign(type.shouldThrowOnAssignment());
 
         // We still have to check if this was a vardec
-        if (optionalAssign.isEmpty()) {
-            return Optional.empty();
+        if (assign == null) {
+            cursor = start;
+            return null;
         }
-        // Safe unwrap since we know we throw if we didn't successfully parse a variable assignment
-        ParseResult<AssignStmt> assign = optionalAssign.get();
-        currentPosition = assign.nextPosition;
 
         // Return the variable declaration
-        return getOptionalSourcedParseResult(
-                new VardecStmt(type.result, assign.result.variable, assign.result.expression),
-                position,
-                currentPosition
-        );
+        return setSource(new VardecStmt(type, assign.variable, assign.expression), start);
     }
 
-    public Optional<ParseResult<AssignStmt>> parseAssign(final int position) throws ParserException {
-        return parseAssign(position, false);
+    // assignment is var '=' exp ';'
+    private AssignStmt parseAssign() throws ParserException {
+        final int start = cursor;
+
+        AssignStmt assign = parseUnsourcedAssign(false);
+        return assign == null ? null : setSource(assign, start);
     }
 
-    // assignment is var '=' exp ';'
-    public Optional<ParseResult<AssignStmt>> parseAssign(final int position, final boolean shouldThrowIfNoIdentifier)
-            throws ParserException {
+    // Parses an assignment without sourcing it, for when only its variable and expression are needed
+    private AssignStmt parseUnsourcedAssign(final boolean shouldThrowIfNoIdentifier) throws ParserException {
         final String variableAssignment = "variable assignment";
-        int currentPosition = position;
+        final int start = cursor;
 
         // Try to parse the variable
-        Optional<ParseResult<Variable>> optionalVariable = parseVar(currentPosition);
-        if (optionalVariable.isEmpty()) {
+        Variable variable = parseVar();
+        if (variable == null) {
             if (shouldThrowIfNoIdentifier) {
-                throwParserException(variableAssignment, "a variable name",  position, currentPosition);
+                throwParserException(variableAssignment, "a variable name",  start, cursor);
             }
-            return Optional.empty();
+            return null;
         }
-        
-        ParseResult<Variable> var = optionalVariable.get();
-        currentPosition = var.nextPosition;
 
         // If there's not an assignment operator, return empty (this may be struct vardec or exp)
-        if (!isExpectedToken(currentPosition, AssignmentToken.class)) {
-            return Optional.empty();
+        if (!isExpectedToken(cursor, AssignmentToken.class)) {
+            cursor = start;
+            return null;
         }
-        currentPosition += 1;
+        cursor += 1;
 
         // Ensure that there's an expression
-        Optional<ParseResult<Expression>> opExp = parseExp(currentPosition);
-        throwParserExceptionOnEmptyOptional(variableAssignment, opExp, "an expression", position, currentPosition);
-
-        ParseResult<Expression> exp = opExp.get();
-        currentPosition = exp.nextPosition;
+        Expression expression = parseExp();
+        throwParserExceptionOnNoMatch(variableAssignment, expression, "an expression", start, cursor);
 
         // Ensure that there's a semicolon
-        throwParserExceptionOnNoSemicolon(variableAssignment, position, currentPosition);
-        currentPosition += 1;
-
-        // Return the assignment statement
-        return getOptionalSourcedParseResult(
-                new AssignStmt(var.result, exp.result),
-                position,
-                currentPosition
-        );
+        throwParserExceptionOnNoSemicolon(variableAssignment, start, cursor);
+        cursor += 1;
+
+        return new AssignStmt(variable, expression);
     }
 
     // `if` `(` exp `)` stmt [`else` stmt]
-    private Optional<ParseResult<IfElseStmt>> parseIfElse(final int position) throws ParserException {
-        if (!isExpectedToken(position, IfToken.class)) {
-            return Optional.empty();
+    private IfElseStmt parseIfElse() throws ParserException {
+        if (!isExpectedToken(cursor, IfToken.class)) {
+            return null;
         }
 
         // We know we're parsing an if/else now
         final String ifStatement = "if statement";
-        int currentPosition = position + 1;
+        final int start = cursor;
+        cursor += 1;
 
         // Parse the if statement condition
-        ParseResult<Expression> parsedCondition = parseExpWithParensAroundItOrThrow(ifStatement + " condition",
-                currentPosition);
-
-        Expression condition = parsedCondition.result;
-        currentPosition = parsedCondition.nextPosition;
+        Expression condition = parseExpWithParensAroundItOrThrow(ifStatement + " condition");
 
-        ParseResult<Statement> parsedIfBody = parseMandatoryStatement("if statement body", currentPosition);
-
-        Statement ifBody = parsedIfBody.result;
-        currentPosition = parsedIfBody.nextPosition;
+        Statement ifBody = parseMandatoryStatement("if statement body");
 
         // [`else` stmt]: if we don't hit an else, then just return the if statement so far
-        if (!isExpectedToken(currentPosition, ElseToken.class)) {
-            return getOptionalSourcedParseResult(new IfElseStmt(condition, ifBody), position, currentPosition);
+        if (!isExpectedToken(cursor, ElseToken.class)) {
+            return setSource(new IfElseStmt(condition, ifBody), start);
         }
 
-        currentPosition += 1;
+        cursor += 1;
 
         // If we did hit an else, the stmt becomes mandatory
-        ParseResult<Statement> parsedElseBody = parseMandatoryStatement("else statement body", currentPosition);
-
-        Statement elseBody = parsedElseBody.result;
-        currentPosition = parsedElseBody.nextPosition;
+        Statement elseBody = parseMandatoryStatement("else statement body");
 
-        return getOptionalSourcedParseResult(new IfElseStmt(condition, ifBody, elseBody), position, currentPosition);
+        return setSource(new IfElseStmt(condition, ifBody, elseBody), start);
     }
 
     // Parses `(` exp `)` in the context of a statement: so this is NOT a paren expression
-    private ParseResult<Expression> parseExpWithParensAroundItOrThrow(final String where,
-                                                                      final int position) throws ParserException {
-        throwParserExceptionOnUnexpected(where, LeftParenToken.class, "(", position, position);
-        int currentPosition = position + 1;
+    private Expression parseExpWithParensAroundItOrThrow(final String where) throws ParserException {
+        final int start = cursor;
 
-        ParseResult<Expression> parsedExpressionResult = parseMandatoryExp(currentPosition);
+        throwParserExceptionOnUnexpected(where, LeftParenToken.class, "(", start, start);
+        cursor += 1;
 
-        Expression expression = parsedExpressionResult.result;
-        currentPosition = parsedExpressionResult.nextPosition;
+        Expression expression = parseMandatoryExp();
 
-        throwParserExceptionOnUnexpected(where, RightParenToken.class, ")", position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected(where, RightParenToken.class, ")", start, cursor);
+        cursor += 1;
 
         // Expression has already been sourced by now
-        return new ParseResult<>(expression, currentPosition);
+        return expression;
     }
 
     // `while` `(` exp `)` stmt
-    private Optional<ParseResult<WhileStmt>> parseWhile(final int position) throws ParserException {
-        if (!isExpectedToken(position, WhileToken.class)) {
-            return Optional.empty();
+    private WhileStmt parseWhile() throws ParserException {
+        if (!isExpectedToken(cursor, WhileToken.class)) {
+            return null;
         }
 
         // We are now definitely parsing a while block
         final String whileStatement = "while statement";
-        int currentPosition = position + 1;
+        final int start = cursor;
+        cursor += 1;
 
         // Parse the while condition
-        ParseResult<Expression> parsedConditionResult = parseExpWithParensAroundItOrThrow(whileStatement + " condition",
-                currentPosition);
+        Expression condition = parseExpWithParensAroundItOrThrow(whileStatement + " condition");
 
-        Expression condition = parsedConditionResult.result;
-        currentPosition = parsedConditionResult.nextPosition;
+        Statement body = parseMandatoryStatement(whileStatement + " body");
 
-        ParseResult<Statement> parsedBodyResult = parseMandatoryStatement(whileStatement + " body", currentPosition);
-
-        Statement body = parsedBodyResult.result;
-        currentPosition = parsedBodyResult.nextPosition;
-
-        WhileStmt whileStmt = new WhileStmt(condition, body);
-        return getOptionalSourcedParseResult(whileStmt, position, currentPosition);
+        return setSource(new WhileStmt(condition, body), start);
     }
 
     // `break` `;`
-    private Optional<ParseResult<BreakStmt>> parseBreak(final int position) throws ParserException {
-        if (!isExpectedToken(position, BreakToken.class)) {
-            return Optional.empty();
+    private BreakStmt parseBreak() throws ParserException {
+        if (!isExpectedToken(cursor, BreakToken.class)) {
+            return null;
         }
 
         // We are definitely parsing a break statement
-        int currentPosition = position + 1;
+        final int start = cursor;
+        cursor += 1;
 
-        throwParserExceptionOnNoSemicolon("break statement", position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnNoSemicolon("break statement", start, cursor);
+        cursor += 1;
 
-        return getOptionalSourcedParseResult(new BreakStmt(), position, currentPosition);
+        return setSource(new BreakStmt(), start);
     }
 
     // `println` `(` exp `)` `;`
-    private Optional<ParseResult<PrintlnStmt>> parsePrintln(final int position) throws ParserException {
-        if (!isExpectedToken(position, PrintlnToken.class)) {
-            return Optional.empty();
+    private PrintlnStmt parsePrintln() throws ParserException {
+        if (!isExpectedToken(cursor, PrintlnToken.class)) {
+            return null;
         }
 
-        int currentPosition = position + 1;
+        final int start = cursor;
+        cursor += 1;
 
         final String printlnStatement = "println statement";
-        ParseResult<Expression> parsedPrintlnExpression = parseExpWithParensAroundItOrThrow(printlnStatement,
-                currentPosition);
+        Expression expression = parseExpWithParensAroundItOrThrow(printlnStatement);
 
-        Expression expression = parsedPrintlnExpression.result;
-        currentPosition = parsedPrintlnExpression.nextPosition;
+        throwParserExceptionOnNoSemicolon(printlnStatement, start, cursor);
+        cursor += 1;
 
-        throwParserExceptionOnNoSemicolon(printlnStatement, position, currentPosition);
-        currentPosition += 1;
-
-        return getOptionalSourcedParseResult(new PrintlnStmt(expression), position, currentPosition);
+        return setSource(new PrintlnStmt(expression), start);
     }
 
     // `return` [exp] `;`
-    private Optional<ParseResult<ReturnStmt>> parseReturn(final int position) throws ParserException {
-        if (!isExpectedToken(position, ReturnToken.class)) {
-            return Optional.empty();
+    private ReturnStmt parseReturn() throws ParserException {
+        if (!isExpectedToken(cursor, ReturnToken.class)) {
+            return null;
         }
 
         // We are now definitely parsing a return statement
-        int currentPosition = position + 1;
-        Expression returnValue = null;
+        final int start = cursor;
+        cursor += 1;
 
-        try {
-            Optional<ParseResult<Expression>> optionalParsedReturnValue = parseExp(currentPosition);
-            ParseResult<Expression> parsedReturnValue = optionalParsedReturnValue.get();
+        final int returnValueStart = cursor;
+        Expression returnValue = null;
 
-            returnValue = parsedReturnValue.result;
-            currentPosition = parsedReturnValue.nextPosition;
-        } catch (ParserNoElementFoundException ex) {
-            // If we have a parser no element found, we couldn't parse the exp that was optional (this is okay)
+        if (canStartExpression(cursor)) {
+            try {
+                returnValue = parseExp();
+            } catch (ParserNoElementFoundException ex) {
+                // If we have a parser no element found, we couldn't parse the exp that was optional (this is okay)
+                cursor = returnValueStart;
+            }
         }
 
-        throwParserExceptionOnNoSemicolon("return statement", position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnNoSemicolon("return statement", start, cursor);
+        cursor += 1;
 
-        return getOptionalSourcedParseResult(new ReturnStmt(returnValue), position, currentPosition);
+        return setSource(new ReturnStmt(returnValue), start);
     }
 
     // `{` stmt* `}`
-    private Optional<ParseResult<StmtBlock>> parseStatementBlock(final int position) throws ParserException {
-        if (!isExpectedToken(position, LeftBraceToken.class)) {
-            return Optional.empty();
+    private StmtBlock parseStatementBlock() throws ParserException {
+        if (!isExpectedToken(cursor, LeftBraceToken.class)) {
+            return null;
         }
 
         // We are now definitely parsing a statement block
-        int currentPosition = position + 1;
+        final int start = cursor;
+        cursor += 1;
 
         List<Statement> blockBody = new ArrayList<>();
-        currentPosition = parseZeroOrMore(this::parseStatement, blockBody::add, currentPosition);
+        parseZeroOrMore(Parser::parseStatement, blockBody);
 
-        throwParserExceptionOnUnexpected("statement body", RightBraceToken.class, "}", position, currentPosition);
-        currentPosition += 1;
+        throwParserExceptionOnUnexpected("statement body", RightBraceToken.class, "}", start, cursor);
+        cursor += 1;
 
-        return getOptionalSourcedParseResult(new StmtBlock(blockBody), position, currentPosition);
+        return setSource(new StmtBlock(blockBody), start);
     }
 
     // exp `;`
-    private Optional<ParseResult<ExpressionStmt>> parseExpressionStatement(final int position) throws ParserException {
-        Expression expression;
-        int currentPosition;
+    private ExpressionStmt parseExpressionStatement() throws ParserException {
+        // Most statement lists end here, on a token that can't start any statement, so check that without throwing
+        if (!canStartExpression(cursor)) {
+            return null;
+        }
 
-        Optional<ParseResult<Expression>> optionalParsedExpression;
+        final int start = cursor;
+        Expression expression;
 
         try {
-           optionalParsedExpression = parseExp(position);
-        } catch (ParserMalformedException ex) {
-            // If our result was malformed, we should rethrow the exception
-            throw ex;
+            expression = parseExp();
         } catch (ParserNoElementFoundException ex) {
             // If we could not parse, treat this as okay and let the caller handle it
-            return Optional.empty();
+            cursor = start;
+            return null;
         }
 
-        ParseResult<Expression> parsedExpression = optionalParsedExpression.get();
-
-        expression = parsedExpression.result;
-        currentPosition = parsedExpression.nextPosition;
+        throwParserExceptionOnNoSemicolon("expression statement", start, cursor);
+        cursor += 1;
 
-        throwParserExceptionOnNoSemicolon("expression statement", position, currentPosition);
-        currentPosition += 1;
+        return setSource(new ExpressionStmt(expression), start);
+    }
 
-        return getOptionalSourcedParseResult(new ExpressionStmt(expression), position, currentPosition);
+    // Maps the token kind of each binary operator to its operator
+    private static final Map<TokenKind, OperatorEnum> TOKEN_KIND_TO_BINARY_OP = new EnumMap<>(Map.ofEntries(
+        Map.entry(TokenKind.OR, OperatorEnum.OR),
+        Map.entry(TokenKind.AND, OperatorEnum.AND),
+        Map.entry(TokenKind.DOUBLE_EQUALS, OperatorEnum.DOUBLE_EQUALS),
+        Map.entry(TokenKind.NOT_EQUALS, OperatorEnum.NOT_EQUALS),
+        Map.entry(TokenKind.LESS_THAN_EQUALS, OperatorEnum.LESS_THAN_EQUALS),
+        Map.entry(TokenKind.GREATER_THAN_EQUALS, OperatorEnum.GREATER_THAN_EQUALS),
+        Map.entry(TokenKind.LESS_THAN, OperatorEnum.LESS_THAN),
+        Map.entry(TokenKind.GREATER_THAN, OperatorEnum.GREATER_THAN),
+        Map.entry(TokenKind.PLUS, OperatorEnum.PLUS),
+        Map.entry(TokenKind.MINUS, OperatorEnum.MINUS),
+        Map.entry(TokenKind.MULTIPLY, OperatorEnum.MULTIPLY),
+        Map.entry(TokenKind.DIVISION, OperatorEnum.DIVISION)
+    ));
+
+    // Thrown when an expression is missing its primary expression, to unwind back to where the expression was optional
+    private static final ParserNoElementFoundException NO_PRIMARY_EXPRESSION =
+            new ParserNoElementFoundException("primary expression");
+
+    private static final int LOWEST_BINARY_PRECEDENCE = OperatorEnum.OR.getBinaryPrecedence();
+    private static final int INEQUALITY_PRECEDENCE = OperatorEnum.LESS_THAN.getBinaryPrecedence();
+
+    private Expression parseMandatoryExp() throws ParserException {
+        return parseMandatory("an expression", Parser::parseExp);
     }
 
-    private final static Map<Token, OperatorEnum> TOKEN_TO_OP = Map.ofEntries(
-        new SimpleImmutableEntry<>(new OrToken(), OperatorEnum.OR),
-        new SimpleImmutableEntry<>(new AndToken(), OperatorEnum.AND),
-        new SimpleImmutableEntry<>(new DoubleEqualsToken(), OperatorEnum.DOUBLE_EQUALS),
-        new SimpleImmutableEntry<>(new NotEqualsToken(), OperatorEnum.NOT_EQUALS),
-        new SimpleImmutableEntry<>(new LessThanEqualsToken(), OperatorEnum.LESS_THAN_EQUALS),
-        new SimpleImmutableEntry<>(new GreaterThanEqualsToken(), OperatorEnum.GREATER_THAN_EQUALS),
-        new SimpleImmutableEntry<>(new LessThanToken(), OperatorEnum.LESS_THAN),
-        new SimpleImmutableEntry<>(new GreaterThanToken(), OperatorEnum.GREATER_THAN),
-        new SimpleImmutableEntry<>(new PlusToken(), OperatorEnum.PLUS),
-        new SimpleImmutableEntry<>(new MinusToken(), OperatorEnum.MINUS),
-        new SimpleImmutableEntry<>(new MultiplyToken(), OperatorEnum.MULTIPLY),
-        new SimpleImmutableEntry<>(new DivisionToken(), OperatorEnum.DIVISION),
-        new SimpleImmutableEntry<>(new NotToken(), OperatorEnum.NOT),
-        new SimpleImmutableEntry<>(new DotToken(), OperatorEnum.DOT)
-    );
+    /*
+     * exp ::= or_exp
+     * or_exp ::= and_exp (`||` and_exp)*
+     * and_exp ::= equals_exp (`&&` equals_exp)*
+     * equals_exp ::= lte_gte_exp ((`==` | `!=`) lte_gte_exp)*
+     * lte_gte_exp ::= add_exp [(`<=` | `>=` | `<` | `>`) add_exp]
+     * add_exp ::= mult_exp ((`+` | `-`) mult_exp)*
+     * mult_exp ::= not_exp ((`*` | `/`) not_exp)*
+     *
+     * All of these levels are parsed at once by precedence climbing, so an expression without any operators goes
+     * straight to not_exp.
+     *
+     * Parens, struct allocations and function calls can nest expressions as deep as the program likes, so instead of
+     * recursing into a nested expression, everything partway through being parsed is kept as a frame on our own stack.
+     * The top frame is handed each expression as it's parsed, until the frame at the bottom has the whole expression.
+     */
+    private Expression parseExp() throws ParserException {
+        // Anything left over is from an expression that threw partway through
+        Deque<ExpressionFrame> frames = expressionFrames;
+        frames.clear();
+
+        final int start = cursor;
+        Expression parsed = parseNotExp(frames);
+
+        // Most expressions are a single not_exp, which doesn't need a frame for its binary operators
+        if (frames.isEmpty() && getBinaryOperator(cursor) == null) {
+            return parsed;
+        }
+
+        // Otherwise the outermost frame goes underneath any frames the not_exp pushed
+        frames.addLast(new BinaryOpFrame(LOWEST_BINARY_PRECEDENCE, start));
+
+        while (true) {
+            Expression finished = frames.peek().parsed(parsed, frames);
+
+            if (finished == null) {
+                // The top frame is waiting on a not_exp
+                parsed = parseNotExp(frames);
+                continue;
+            }
+
+            frames.pop();
 
-    public ParseResult<Expression> parseMandatoryExp(final int position) throws ParserException {
-        return parseMandatory("an expression", this::parseExp, position);
+            if (frames.isEmpty()) {
+                return finished;
+            }
+
+            parsed = finished;
+        }
     }
 
-    // exp ::= or_exp
-    public Optional<ParseResult<Expression>> parseExp(final int position) throws ParserException {
-        // Try to parse an or expression - I'm just following the grammar for now, but I dont' think we need this
-        return parseOrExp(position);
+    // An expression partway through being parsed, waiting on the next expression inside it
+    private abstract class ExpressionFrame {
+
+        // Returns the finished expression, or null if this needs another not_exp parsed first, for itself or for a
+        // frame it pushed
+        abstract Expression parsed(Expression expression, Deque<ExpressionFrame> frames) throws ParserException;
+
     }
 
-    // Genericized parser binary operator function (does not work for dot op)
-    public Optional<ParseResult<Expression>> parseBinaryOpExpression(
-            final int position,
-            ParsingFunction<Integer, Optional<ParseResult<Expression>>> parseLowerPrecedence,
-            String subExpressionName,
-            List<Class<? extends Token>> validOperatorClasses) throws ParserException {
-        
-        int currentPosition = position;
-        // Try to parse a lower precedence expression
-        Optional<ParseResult<Expression>> returnValue = parseLowerPrecedence.apply(currentPosition);
-        throwParserExceptionOnEmptyOptional(subExpressionName, returnValue, "an expression", position, currentPosition);
+    // Parses a not_exp followed by any binary operators with at least the minimum precedence
+    private class BinaryOpFrame extends ExpressionFrame {
+
+        private final int minimumPrecedence;
+        private final int start;
 
-        currentPosition = returnValue.get().nextPosition;
+        private Expression leftExp;
+        // The operator waiting on its right hand side, or null if we're waiting on the first not_exp
+        private OperatorEnum op;
+        private int rightStart;
+        // Whether the right hand side is being parsed by a frame of its own, rather than being a single not_exp
+        private boolean hasRightFrame;
 
-        // See if there is an expected operator for this level
-        while (isValidOperatorToken(currentPosition, validOperatorClasses)) {
-            // Get the operator
-            OperatorEnum op = TOKEN_TO_OP.get(getToken(currentPosition).get());
-            currentPosition += 1;
-            
-            // Parse the right hand side of the binary op expression
-            Optional<ParseResult<Expression>> rightExp = parseLowerPrecedence.apply(currentPosition);
-            throwParserExceptionOnEmptyOptional(subExpressionName, rightExp, "an expression", position, currentPosition);
+        // Inequalities don't chain, so once we've parsed one, only lower precedence operators can follow it
+        private int maximumPrecedence = Integer.MAX_VALUE;
 
-            // Create binary op expression
-            Expression binOpExp = new BinaryOpExp(returnValue.get().result, op, rightExp.get().result);
-            returnValue = getOptionalSourcedParseResult(binOpExp, position, rightExp.get().nextPosition);
-            currentPosition = returnValue.get().nextPosition;
+        private BinaryOpFrame(final int minimumPrecedence) {
+            this(minimumPrecedence, cursor);
         }
 
-        return returnValue;
-    }
+        private BinaryOpFrame(final int minimumPrecedence, final int start) {
+            this.minimumPrecedence = minimumPrecedence;
+            this.start = start;
+        }
+
+        @Override
+        Expression parsed(Expression expression, Deque<ExpressionFrame> frames) {
+            if (op == null) {
+                leftExp = expression;
+            } else {
+                int precedence = op.getBinaryPrecedence();
+                OperatorEnum nextOp = getBinaryOperator(cursor);
+
+                // Every binary operator is left associative, so the right hand side only takes tighter operators.
+                // The right hand side only needs its own frame once one follows its first not_exp
+                if (!hasRightFrame && nextOp != null && nextOp.getBinaryPrecedence() > precedence) {
+                    BinaryOpFrame rightFrame = new BinaryOpFrame(precedence + 1, rightStart);
+                    frames.push(rightFrame);
+                    hasRightFrame = true;
+
+                    return rightFrame.parsed(expression, frames);
+                }
+
+                // Create binary op expression
+                leftExp = setSource(new BinaryOpExp(leftExp, op, expression), start);
+                hasRightFrame = false;
+
+                // The right hand side only stops before a tighter operator when it ended on an inequality, and an
+                // inequality can't be followed by another one here either, or in any frame around this one
+                if (precedence == INEQUALITY_PRECEDENCE
+                        || (nextOp != null && nextOp.getBinaryPrecedence() > precedence)) {
+                    maximumPrecedence = INEQUALITY_PRECEDENCE - 1;
+                }
+            }
+
+            op = getBinaryOperator(cursor);
+            if (op == null) {
+                return leftExp;
+            }
 
-    // Returns true if token is in list - Putting a lambda in the while guard wasn't working :(
-    public boolean isValidOperatorToken(final int position, List<Class<? extends Token>> operatorClasses) {
-        for (Class<? extends Token> tokenClass : operatorClasses) {
-            if (isExpectedToken(position, tokenClass)) {
-                return true;
+            int precedence = op.getBinaryPrecedence();
+            if (precedence < minimumPrecedence || precedence > maximumPrecedence) {
+                return leftExp;
             }
+
+            cursor += 1;
+            rightStart = cursor;
+
+            return null;
         }
 
-        return false;
     }
 
-    // or_exp ::= and_exp (`||` and_exp)*
-    public Optional<ParseResult<Expression>> parseOrExp(final int position) throws ParserException {
-        return parseBinaryOpExpression(position, this::parseAndExp, "and expression", Arrays.asList(OrToken.class));
+    // Returns the binary operator at the position, or null if there isn't one
+    private OperatorEnum getBinaryOperator(final int position) {
+        return tokens.hasToken(position) ? TOKEN_KIND_TO_BINARY_OP.get(tokens.getKind(position)) : null;
     }
 
-    // and_exp ::= equals_exp (`&&` equals_exp)*
-    public Optional<ParseResult<Expression>> parseAndExp(final int position) throws ParserException {
-        return parseBinaryOpExpression(position, this::parseEqualsExp, "equals expression", Arrays.asList(AndToken.class));
-    }
+    // The not_exp start of a primary expression that isn't negated
+    private static final int NOT_NEGATED = -1;
 
-    // equals_exp ::= lte_gte_exp ((`==` | `!=`) lte_gte_exp)*
-    public Optional<ParseResult<Expression>> parseEqualsExp(final int position) throws ParserException {
-        return parseBinaryOpExpression(
-            position, this::parseInequalityExp, "inequality expression",
-            Arrays.asList(DoubleEqualsToken.class, NotEqualsToken.class));
-    }
+    // not_exp ::= [`!`]dot_exp
+    // Primary expressions that nest another expression push a frame for it and a frame to parse it, until we reach
+    // one that doesn't. Its not_exp is returned, and the rest are finished by their frames
+    private Expression parseNotExp(Deque<ExpressionFrame> frames) throws ParserException {
+        while (true) {
+            final int notStart;
+
+            // If next token is a not token
+            if (isExpectedToken(cursor, NotToken.class)) {
+                notStart = cursor;
+                cursor += 1;
+            } else {
+                notStart = NOT_NEGATED;
+            }
 
-    // lte_gte_exp ::= add_exp [(`<=` | `>=` | `<` | `>`) add_exp]
-    // Because the inequalities, I didn't try to genericize it, but maybe it can be done?
-    public Optional<ParseResult<Expression>> parseInequalityExp(final int position) throws ParserException {
-        int currentPosition = position;
-        // Try to parse an add expression
-        Optional<ParseResult<Expression>> returnValue = parseAddExp(currentPosition);
-        throwParserExceptionOnEmptyOptional("add expression", returnValue, "an expression", position, currentPosition);
-        currentPosition = returnValue.get().nextPosition;
+            final int start = cursor;
+            Expression primaryExp = parsePrimaryExp(notStart, frames);
 
-        // If there is another expression to parse
-        if (isExpectedToken(currentPosition, LessThanEqualsToken.class)
-                || isExpectedToken(currentPosition, GreaterThanEqualsToken.class)
-                || isExpectedToken(currentPosition, LessThanToken.class)
-                || isExpectedToken(currentPosition, GreaterThanToken.class)) {
-            // Get the operator (it's definitely here, we just checked)
-            OperatorEnum op = TOKEN_TO_OP.get(getToken(currentPosition).get());
-            currentPosition += 1;
-            // Try to parse an add expression
-            Optional<ParseResult<Expression>> rightAddExp = parseAddExp(currentPosition);
-            throwParserExceptionOnEmptyOptional("add expression", rightAddExp, "an expression", position, currentPosition);
-            // Create binary operator, wrap in expression parse result
-            BinaryOpExp binOpExp = new BinaryOpExp(returnValue.get().result, op, rightAddExp.get().result);
-            returnValue = getOptionalSourcedParseResult(binOpExp, position, rightAddExp.get().nextPosition);
-            currentPosition = returnValue.get().nextPosition;
-        }
-        return returnValue;
-    }
+            if (primaryExp != null) {
+                return parseNotExp(notStart, start, primaryExp);
+            }
 
-    // add_exp ::= mult_exp ((`+` | `-`) mult_exp)*
-    public Optional<ParseResult<Expression>> parseAddExp(final int position) throws ParserException {
-        return parseBinaryOpExpression(
-            position, this::parseMultExp, "multiplication expression",
-            Arrays.asList(PlusToken.class, MinusToken.class));
+            frames.push(new BinaryOpFrame(LOWEST_BINARY_PRECEDENCE));
+        }
     }
 
-    // mult_exp ::= not_exp ((`*` | `/`) not_exp)*
-    public Optional<ParseResult<Expression>> parseMultExp(final int position) throws ParserException {
-        return parseBinaryOpExpression(
-            position, this::parseNotExp, "not expression",
-            Arrays.asList(MultiplyToken.class, DivisionToken.class));
-    }
+    // Parses the rest of a not_exp after its primary expression
+    private Expression parseNotExp(final int notStart, final int start, Expression primaryExp) throws ParserException {
+        Expression dotExp = parseDotExp(start, primaryExp);
 
-    // not_exp ::= [`!`]dot_exp
-    public Optional<ParseResult<Expression>> parseNotExp(final int position) throws ParserException {
-        int currentPosition = position;
-        Optional<ParseResult<Expression>> returnValue;
-
-        // If next token is a not token
-        if (isExpectedToken(currentPosition, NotToken.class)) {
-            currentPosition += 1;
-            // Get dot expresionn
-            Optional<ParseResult<Expression>> dotExp = parseDotExp(currentPosition);
-            throwParserExceptionOnEmptyOptional("dot expression", dotExp, "an expression", position, currentPosition);
-            // Create a not unary expression, wrap in expression optional
-            UnaryOpExp unaryOpExp = new UnaryOpExp(OperatorEnum.NOT, dotExp.get().result);
-            returnValue = getOptionalSourcedParseResult(unaryOpExp, position, dotExp.get().nextPosition);
-        } else {
-            // Return a dot expression as an expression
-            returnValue = parseDotExp(currentPosition);
-            throwParserExceptionOnEmptyOptional("dot expression", returnValue, "an expression", position, currentPosition);
+        if (notStart == NOT_NEGATED) {
+            return dotExp;
         }
-        return returnValue;
+
+        // Create a not unary expression
+        return setSource(new UnaryOpExp(OperatorEnum.NOT, dotExp), notStart);
     }
 
     // dot_exp ::= primary_exp (`.` var)*
     // I restricted the right hand side to variables, but if we want to use parseBinaryOpExpression,
     // We can use expression instead of variable on the right
-    public Optional<ParseResult<Expression>> parseDotExp(final int position) throws ParserException {
+    private Expression parseDotExp(final int start, Expression primaryExp) throws ParserException {
         final String dotExpString = "dot expression";
-        int currentPosition = position;
-        // Make sure there's a primary expression here
-        Optional<ParseResult<Expression>> returnValue = parsePrimaryExp(currentPosition);
-        throwParserExceptionOnEmptyOptional(dotExpString, returnValue, "an expression", position, currentPosition);
-        currentPosition = returnValue.get().nextPosition;
+        Expression returnValue = primaryExp;
 
         // While there are other variables to parse
-        while (isExpectedToken(currentPosition, DotToken.class)) {
-            currentPosition += 1;
+        while (isExpectedToken(cursor, DotToken.class)) {
+            cursor += 1;
             // Try to parse a variable
-            Optional<ParseResult<Variable>> variable = parseVar(currentPosition);
-            throwParserExceptionOnEmptyOptional(dotExpString, variable, "a variable", position, currentPosition);
-            // Create dot operator, wrap in expression parse result
-            DotExp dotExp = new DotExp(returnValue.get().result, variable.get().result);
-            returnValue = getOptionalSourcedParseResult(dotExp, position, variable.get().nextPosition);
-            currentPosition = returnValue.get().nextPosition;
+            Variable variable = parseVar();
+            throwParserExceptionOnNoMatch(dotExpString, variable, "a variable", start, cursor);
+            // Create dot operator
+            returnValue = setSource(new DotExp(returnValue, variable), start);
         }
+
         return returnValue;
     }
 
-    // Create a mapping from the token's class to its type
-    private static final Map<Class<? extends Token>, Function<Token, PrimaryExpression>> TOKEN_TO_PRIMARY = Map.of(
-            IntLiteralToken.class, (token) -> new IntLiteralExp(Integer.parseInt(token.getTokenizedValue())),
-            TrueToken.class, (token) -> new BoolLiteralExp(true),
-            FalseToken.class, (token) -> new BoolLiteralExp(false),
-            NullToken.class, (token) -> new NullExp()
-    );
-
     /*
      * Try to parse primary expression
      * primary_exp ::= i | `true` | `false` | var |
      * `null` | `(` exp `)`
      * `new` structname `{` struct_actual_params `}` |
      * funcname `(` comma_exp `)`
+     *
+     * Returns null if the primary expression pushed a frame to finish it once its nested expression is parsed.
      */
-    public Optional<ParseResult<Expression>> parsePrimaryExp(final int position) throws ParserException {
-        // Try to parse a function call first (because otherwise it could be a variable)
-        Optional<ParseResult<Expression>> optionalPrimaryExp = parseFuncCall(position);
-        if (!optionalPrimaryExp.isEmpty()) {
-            return optionalPrimaryExp;
+    private Expression parsePrimaryExp(final int notStart, Deque<ExpressionFrame> frames) throws ParserException {
+        if (!tokens.hasToken(cursor)) {
+            throw NO_PRIMARY_EXPRESSION;
         }
 
-        // Get the token
-        final Optional<Token> maybeToken = getToken(position);
-        if (maybeToken.isEmpty()) {
-            throw new ParserNoElementFoundException("primary expression");
+        return switch (tokens.getKind(cursor)) {
+            // A function call if there's a left paren next, otherwise a variable
+            case IDENTIFIER -> isExpectedToken(cursor + 1, LeftParenToken.class)
+                    ? parseFuncCall(notStart, frames)
+                    : parseVariableExpression();
+            case INT_LITERAL -> parseSingleToken(new IntLiteralExp(Integer.parseInt(tokens.getTokenizedValue(cursor))));
+            case TRUE -> parseSingleToken(new BoolLiteralExp(true));
+            case FALSE -> parseSingleToken(new BoolLiteralExp(false));
+            case NULL -> parseSingleToken(new NullExp());
+            case NEW -> parseStructAlloc(notStart, frames);
+            case LEFT_PAREN -> parseParenExp(notStart, frames);
+            // We could not find a matching primary expression, and what even could it be?
+            default -> throw NO_PRIMARY_EXPRESSION;
+        };
+    }
+
+    // Checks if the token at the position can start an expression: a not, or the first token of a primary expression
+    private boolean canStartExpression(final int position) {
+        if (!tokens.hasToken(position)) {
+            return false;
         }
 
-        Token token = maybeToken.get();
-        Class<? extends Token> tokenClass = token.getClass();
+        return switch (tokens.getKind(position)) {
+            case NOT, IDENTIFIER, INT_LITERAL, TRUE, FALSE, NULL, NEW, LEFT_PAREN -> true;
+            default -> false;
+        };
+    }
+
+    private Expression parseVariableExpression() throws ParserException {
+        Variable variable = parseVar();
+
+        Expression expression = new VariableExp(variable);
+        expression.setSource(variable.getSource());
+
+        return expression;
+    }
+
+    // A primary expression waiting on an expression nested inside it, which finishes its not_exp once it's parsed
+    private abstract class PrimaryExpFrame extends ExpressionFrame {
 
-        // Then try to parse int, bool, var or null
-        if (TOKEN_TO_PRIMARY.containsKey(tokenClass)) {
-            Expression exp = TOKEN_TO_PRIMARY.get(tokenClass).apply(token);
-            return getOptionalSourcedParseResult(exp, position, position + 1);
+        private final int notStart;
+        protected final int start;
+
+        private PrimaryExpFrame(final int notStart) {
+            this.notStart = notStart;
+            this.start = cursor;
         }
 
-        if (isExpectedToken(position, IdentifierToken.class)) {
-            return parseVariableExpression(position);
+        @Override
+        Expression parsed(Expression expression, Deque<ExpressionFrame> frames) throws ParserException {
+            Expression primaryExp = parsedPrimary(expression, frames);
+
+            return primaryExp == null ? null : parseNotExp(notStart, start, primaryExp);
         }
 
-        // Then try to parse struct allocation
-        optionalPrimaryExp = parseStructAlloc(position);
-        if (!optionalPrimaryExp.isEmpty()) {
-            return optionalPrimaryExp;
+        // Returns the finished primary expression, or null if this needs another expression parsed first
+        abstract Expression parsedPrimary(Expression expression, Deque<ExpressionFrame> frames) throws ParserException;
+
+    }
+
+    // `new` structname `{` struct_actual_params `}`
+    private Expression parseStructAlloc(final int notStart, Deque<ExpressionFrame> frames) throws ParserException {
+        final String structAllocString = "struct allocation";
+        final int start = cursor;
+        StructAllocFrame structAllocFrame = new StructAllocFrame(notStart);
+
+        // Skip the new token, then get the structName - throw exceptions after this point
+        cursor += 1;
+        Type parsedType = parseType();
+        throwParserExceptionOnNoMatch(structAllocString, parsedType, "struct name", start, cursor);
+
+        if (!(parsedType instanceof StructType)) {
+            throwParserException("struct allocation", "a struct name for initialization", start, start);
         }
 
-        // Then try a parenthesitized expression
-        optionalPrimaryExp = parseParenExp(position);
-        if (optionalPrimaryExp.isPresent()) {
-            return optionalPrimaryExp;
+        structAllocFrame.structType = (StructType) parsedType;
+
+        // Skip the left brace
+        throwParserExceptionOnUnexpected(structAllocString, LeftBraceToken.class, "left brace {", start, cursor);
+        cursor += 1;
+
+        // Try to parse a struct actual param - there doesn't have to be one
+        structAllocFrame.structActualParamsStart = cursor;
+        if (structAllocFrame.parseStructActualParamUpToExp()) {
+            frames.push(structAllocFrame);
+            return null;
         }
 
-        // We could not find a matching primary expression, and what even could it be?
-        throw new ParserNoElementFoundException("primary expression");
+        // If we have no params, then we don't need to source them (nothing to source)
+        return structAllocFrame.parseRightBrace(new StructActualParams(new ArrayList<>()));
     }
 
-    private Optional<ParseResult<Expression>> parseVariableExpression(final int position) throws ParserException {
-        Optional<ParseResult<Variable>> optionalParsedVar = parseVar(position);
-        ParseResult<Variable> parsedVarResult = optionalParsedVar.get();
+    private class StructAllocFrame extends PrimaryExpFrame {
 
-        Expression expression = new VariableExp(parsedVarResult.result);
-        expression.setSource(parsedVarResult.result.getSource());
+        private StructType structType;
 
-        return Optional.of(new ParseResult<>(expression, parsedVarResult.nextPosition));
-    }
+        private int structActualParamsStart;
+        private final List<StructActualParam> listOfActualParams = new ArrayList<>();
 
-    // `new` structname `{` struct_actual_params `}`
-    public Optional<ParseResult<Expression>> parseStructAlloc(final int position) throws ParserException {
-        final String structAllocString = "struct allocation";
-        int currentPosition = position;
+        // The struct actual param waiting on its expression
+        private int structActualParamStart;
+        private Variable structActualParamVariable;
 
-        // Try to parse a new token
-        if (isExpectedToken(currentPosition, NewToken.class)) {
-            currentPosition += 1;
-            // Get the structName - throw exceptions after this point
-            Optional<ParseResult<Type>> optionalParsedType = parseType(currentPosition);
-            throwParserExceptionOnEmptyOptional(structAllocString, optionalParsedType, "struct name", position, currentPosition);
+        private StructAllocFrame(final int notStart) {
+            super(notStart);
+        }
 
-            ParseResult<Type> parsedTypeResult = optionalParsedType.get();
-            Type parsedType = parsedTypeResult.result;
+        // struct_actual_param ::= var `:` exp
+        // Returns false if there isn't a variable for a struct actual param here
+        private boolean parseStructActualParamUpToExp() throws ParserException {
+            structActualParamStart = cursor;
 
-            if (!(parsedType instanceof StructType)) {
-                throwParserException("struct allocation", "a struct name for initialization", position, position);
+            // Try to parse a variable
+            structActualParamVariable = parseVar();
+            if (structActualParamVariable == null) {
+                return false;
             }
 
-            StructType structType = (StructType) parsedType;
-            currentPosition = optionalParsedType.get().nextPosition;
+            // Make sure there's a colon here - throw exceptions from this point
+            throwParserExceptionOnUnexpected("struct actual param", ColonToken.class, "a colon :",
+                    structActualParamStart, cursor);
+            cursor += 1;
+
+            return true;
+        }
+
+        // struct_actual_params ::= [struct_actual_param (`,` struct_actual_param)*]
+        @Override
+        Expression parsedPrimary(Expression expression, Deque<ExpressionFrame> frames) throws ParserException {
+            // Create struct actual param and add it to the list
+            listOfActualParams.add(setSource(new StructActualParam(structActualParamVariable, expression),
+                    structActualParamStart));
 
-            // Skip the left brace
-            throwParserExceptionOnUnexpected(structAllocString, LeftBraceToken.class, "left brace {", position, currentPosition);
-            currentPosition += 1;
+            // If there's a comma next, parse another param - there has to be one now
+            if (isExpectedToken(cursor, CommaToken.class)) {
+                cursor += 1;
 
-            // Parse struct actual params
-            ParseResult<StructActualParams> structActParams = parseStructActualParams(currentPosition);
-            currentPosition = structActParams.nextPosition;
+                if (!parseStructActualParamUpToExp()) {
+                    throwParserException("struct actual params", "struct actual param", structActualParamsStart,
+                            cursor);
+                }
+
+                frames.push(new BinaryOpFrame(LOWEST_BINARY_PRECEDENCE));
+                return null;
+            }
 
+            // Create struct actual params with list
+            return parseRightBrace(setSource(new StructActualParams(listOfActualParams), structActualParamsStart));
+        }
+
+        private Expression parseRightBrace(StructActualParams structActualParams) throws ParserException {
             // Skip right brace
-            throwParserExceptionOnUnexpected(structAllocString, RightBraceToken.class, "right brace }", position, currentPosition);
-            currentPosition += 1;
+            throwParserExceptionOnUnexpected("struct allocation", RightBraceToken.class, "right brace }", start, cursor);
+            cursor += 1;
 
             // Create and return struct alloc
-            return getOptionalSourcedParseResult(
-                    new StructAllocExp(structType, structActParams.result),
-                    position,
-                    currentPosition
-            );
-        }
-        // Otherwise, return empty to try something else
-        return Optional.empty();
-    }
-
-    // funcname `(` comma_exp `)
-    public Optional<ParseResult<Expression>> parseFuncCall(final int position) throws ParserException {
-        final String funcCallString = "function call";
-        int currentPosition = position;
-        // Try to parse a function name
-        Optional<ParseResult<FunctionName>> optionalFuncName = parseFuncName(currentPosition);
-        if (optionalFuncName.isEmpty()) {
-            return Optional.empty();
-        }
-        currentPosition = optionalFuncName.get().nextPosition;
-
-        // If this is an left paren
-        if (isExpectedToken(currentPosition, LeftParenToken.class)) {
-            currentPosition += 1;
-            // Parse comma expression
-            ParseResult<CommaExp> commaExp = parseCommaExp(currentPosition);
-            currentPosition = commaExp.nextPosition;
-            // Parse right paren
-            throwParserExceptionOnUnexpected(funcCallString, RightParenToken.class, "right paren )", position, currentPosition);
-            currentPosition += 1;
-            // return function call
-            return getOptionalSourcedParseResult(
-                    new FuncCallExp(optionalFuncName.get().result, commaExp.result),
-                    position,
-                    currentPosition
-            );
+            return setSource(new StructAllocExp(structType, structActualParams), start);
         }
-        // return empty if not function call
-        return Optional.empty();
+
+    }
+
+    // funcname `(` comma_exp `)`
+    private Expression parseFuncCall(final int notStart, Deque<ExpressionFrame> frames) {
+        FuncCallFrame funcCallFrame = new FuncCallFrame(notStart);
+
+        // We already know there's a function name and a left paren here
+        funcCallFrame.functionName = parseFuncName();
+        cursor += 1;
+
+        // Parse comma expression
+        funcCallFrame.commaExpStart = cursor;
+        frames.push(funcCallFrame);
+        return null;
     }
 
     // comma_exp ::= [exp (`,` exp)*]
     // Consider genericizing comma_exp, comma_param, struct_actual_params
-    public ParseResult<CommaExp> parseCommaExp(final int position) throws ParserException {
-        final String commaString = "comma expressions (in function call)";
-        int currentPosition = position;
-        // Make a list of expressions
-        List<Expression> listOfExp = new ArrayList<>();
-
-        // Try to parse an expression, return empty if not there
-        Optional<ParseResult<Expression>> optionalExp = parseExp(currentPosition);
-        if (!optionalExp.isEmpty()) {
-            // If there is one, add it to the list
-            currentPosition = optionalExp.get().nextPosition;
-            listOfExp.add(optionalExp.get().result);
-            // While there's a comma next
-            while (isExpectedToken(currentPosition, CommaToken.class)) {
-                currentPosition += 1;
-                // Parse another exp, add it to the list - there has to be one now
-                optionalExp = parseExp(currentPosition);
-                throwParserExceptionOnEmptyOptional(commaString, optionalExp,
-                        "an expression", position, currentPosition);
-                listOfExp.add(optionalExp.get().result);
-                currentPosition = optionalExp.get().nextPosition;
+    private class FuncCallFrame extends PrimaryExpFrame {
+
+        private FunctionName functionName;
+
+        private int commaExpStart;
+        private final List<Expression> listOfExp = new ArrayList<>();
+
+        private FuncCallFrame(final int notStart) {
+            super(notStart);
+        }
+
+        @Override
+        Expression parsedPrimary(Expression expression, Deque<ExpressionFrame> frames) throws ParserException {
+            listOfExp.add(expression);
+
+            // If there's a comma next, parse another exp - there has to be one now
+            if (isExpectedToken(cursor, CommaToken.class)) {
+                cursor += 1;
+                frames.push(new BinaryOpFrame(LOWEST_BINARY_PRECEDENCE));
+                return null;
             }
+
+            CommaExp commaExp = setSource(new CommaExp(listOfExp), commaExpStart);
+
+            // Parse right paren
+            throwParserExceptionOnUnexpected("function call", RightParenToken.class, "right paren )", start, cursor);
+            cursor += 1;
+
+            // return function call
+            return setSource(new FuncCallExp(functionName, commaExp), start);
         }
 
-        // Create struct actual params with list and return
-        return getSourcedParseResult(new CommaExp(listOfExp), position, currentPosition);
     }
 
     // `(` exp `)`
-    public Optional<ParseResult<Expression>> parseParenExp(final int position) throws ParserException {
-        String parenExpString = "primary parenthesized expression";
-
-        if (!isExpectedToken(position, LeftParenToken.class)) {
-            return Optional.empty();
-        }
+    private Expression parseParenExp(final int notStart, Deque<ExpressionFrame> frames) {
+        frames.push(new ParenFrame(notStart));
 
         // There was a left paren here
-        int currentPosition = position + 1;
+        cursor += 1;
+        return null;
+    }
 
-        // Try to parse expression
-        Optional<ParseResult<Expression>> optionalExpression = parseExp(currentPosition);
-        throwParserExceptionOnEmptyOptional("paren expression", optionalExpression, "an expression", position, currentPosition);
-        currentPosition = optionalExpression.get().nextPosition;
+    private class ParenFrame extends PrimaryExpFrame {
 
-        // Make sure there's a right paren here
-        throwParserExceptionOnUnexpected(parenExpString, RightParenToken.class, "right paren )", position, currentPosition);
-        currentPosition += 1;
+        private ParenFrame(final int notStart) {
+            super(notStart);
+        }
 
-        // Return the Expression
-        Expression parenExp = new ParenExp(optionalExpression.get().result);
-        return getOptionalSourcedParseResult(parenExp, position, currentPosition);
-    }
+        @Override
+        Expression parsedPrimary(Expression expression, Deque<ExpressionFrame> frames) throws ParserException {
+            // Make sure there's a right paren here
+            throwParserExceptionOnUnexpected("primary parenthesized expression", RightParenToken.class,
+                    "right paren )", start, cursor);
+            cursor += 1;
 
-    // Try to parse a function name
-    public Optional<ParseResult<FunctionName>> parseFuncName(final int position) throws ParserException {
-        final Optional<Token> maybeToken = getToken(position);
-        if (maybeToken.isEmpty()) {
-            return Optional.empty();
+            // Return the Expression
+            return setSource(new ParenExp(expression), start);
         }
 
-        Token token = maybeToken.get();
+    }
+
+    // Try to parse a function name
+    private FunctionName parseFuncName() {
         // If this is an identifier
-        if (token instanceof IdentifierToken) {
-            // Create a new Optional ParseResult for a Function Name
-            return getOptionalSourcedParseResult(
-                            new FunctionName(token.getTokenizedValue()),
-                            position,
-                            position + 1
-            );
+        if (!isExpectedToken(cursor, IdentifierToken.class)) {
+            return null;
         }
 
-        return Optional.empty();
+        return parseSingleToken(new FunctionName(tokens.getTokenizedValue(cursor), tokens.getSymbol(cursor)));
     }
 
     // Tries to parse variable
-    public Optional<ParseResult<Variable>> parseVar(final int position) throws ParserException {
-        final Optional<Token> maybeToken = getToken(position);
-        if (maybeToken.isEmpty()) {
-            return Optional.empty();
-        }
-
-        Token token = maybeToken.get();
+    private Variable parseVar() {
         // If this is an identifier
-        if (token instanceof IdentifierToken) {
-            // Create a new Optional ParseResult for a Variable
-            return getOptionalSourcedParseResult(
-                    new Variable(token.getTokenizedValue()),
-                    position,
-                    position + 1
-            );
+        if (!isExpectedToken(cursor, IdentifierToken.class)) {
+            return null;
         }
 
-        return Optional.empty();
+        return parseSingleToken(new Variable(tokens.getTokenizedValue(cursor), tokens.getSymbol(cursor)));
     }
 
-    // Create a mapping from the token's class to its type
-    private static final Map<Class<? extends Token>, Function<Token, Type>> TOKEN_CLASS_TO_TYPE = Map.of(
-            IntToken.class, (token) -> new IntType(),
-            BoolToken.class, (token) -> new BoolType(),
-            VoidToken.class, (token) -> new VoidType()
-    );
-
     // type ::= 'int' | 'bool' | 'void' | structname
-    public Optional<ParseResult<Type>> parseType(final int position) throws ParserException {
-        final Optional<Token> maybeToken = getToken(position);
-        if (maybeToken.isEmpty()) {
-            return Optional.empty();
-        }
-
-        // Explicitly handle identifiers to source both the struct name and struct type
-        if (isExpectedToken(position, IdentifierToken.class)) {
-            StructName structName = getSourcedNode(position, token -> new StructName(token.getTokenizedValue()));
-            return getOptionalSourcedParseResult(new StructType(structName), position, position + 1);
+    private Type parseType() {
+        if (!tokens.hasToken(cursor)) {
+            return null;
         }
 
-        Token token = maybeToken.get();
-        Class<? extends Token> tokenClass = token.getClass();
-
-        if (!TOKEN_CLASS_TO_TYPE.containsKey(tokenClass)) {
-            return Optional.empty();
-        }
+        return switch (tokens.getKind(cursor)) {
+            case INT -> parseSingleToken(new IntType());
+            case BOOL -> parseSingleToken(new BoolType());
+            case VOID -> parseSingleToken(new VoidType());
+            case IDENTIFIER -> {
+                // Explicitly handle identifiers to source both the struct name and struct type
+                StructName structName = new StructName(tokens.getTokenizedValue(cursor), tokens.getSymbol(cursor));
+                structName.setSource(getSource(cursor, cursor + 1));
 
-        Type type = TOKEN_CLASS_TO_TYPE.get(tokenClass).apply(token);
-        return getOptionalSourcedParseResult(type, position, position + 1);
+                yield parseSingleToken(new StructType(structName));
+            }
+            default -> null;
+        };
     }
 
-    private <T extends AbstractSyntaxTreeNode> T setSource(T t,
-                                                           int inclusiveStartPosition,
-                                                           int exclusiveEndPosition) {
-        List<Source> tokenSources = new ArrayList<>();
-        for (int i = inclusiveStartPosition; i < exclusiveEndPosition; i++) {
-            tokenSources.add(sourcedTokens.get(i).getSource());
-        }
+    // Gets the source of the tokens, in the segment of the top-level element being parsed if there is one
+    private Source getSource(int inclusiveStartPosition, int exclusiveEndPosition) {
+        Source source = tokens.getSource(inclusiveStartPosition, exclusiveEndPosition);
 
-        Source combinedTokenSources = Source.fromSources(tokenSources);
-        t.setSource(combinedTokenSources);
+        if (sourceSegment == null) {
+            return source;
+        }
 
-        return t;
+        return sourceSegment.span(source.getStartOffset(), source.getEndOffset());
     }
 
-    private <T extends AbstractSyntaxTreeNode> ParseResult<T> getSourcedParseResult(T t,
-                                                                                    int inclusiveStartPosition,
-                                                                                    int exclusiveEndPosition) {
-        setSource(t, inclusiveStartPosition, exclusiveEndPosition);
-        return new ParseResult<>(t, exclusiveEndPosition);
-    }
+    // Sources the node from the start position up to the cursor
+    private <T extends AbstractSyntaxTreeNode> T setSource(T node, int inclusiveStartPosition) {
+        node.setSource(getSource(inclusiveStartPosition, cursor));
 
-    private <T extends AbstractSyntaxTreeNode> Optional<ParseResult<T>> 
-            getOptionalSourcedParseResult(T t,
-                                          int inclusiveStartPosition,
-                                          int exclusiveEndPosition) {
-        return Optional.of(getSourcedParseResult(t, inclusiveStartPosition, exclusiveEndPosition));
+        return node;
     }
 
-    private <T extends AbstractSyntaxTreeNode> T getSourcedNode(int position, Function<Token, T> parseFunction) {
-        Sourced<Token> sourcedToken = sourcedTokens.get(position);
-        Token token = sourcedToken.getValue();
-
-        T node = parseFunction.apply(token);
-        node.setSource(sourcedToken.getSource());
+    // Sources the node on the token at the cursor, and moves the cursor past it
+    private <T extends AbstractSyntaxTreeNode> T parseSingleToken(T node) {
+        node.setSource(getSource(cursor, cursor + 1));
+        cursor += 1;
 
         return node;
     }
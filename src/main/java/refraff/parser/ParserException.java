@@ -6,4 +6,8 @@ public class ParserException extends Exception{
         super(message);
     }
 
+    protected ParserException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
 }
@@ -1,10 +1,11 @@
 package refraff.parser;
 
-// Thrown when a parser cannot find the specific type
+// Thrown when a parser cannot find the specific type. This is only used to unwind the parser back to where the missing
+// element was optional, so it is created without a stack trace and may be shared
 public class ParserNoElementFoundException extends ParserException {
 
     public ParserNoElementFoundException(String message) {
-        super("Parser exception: " + message + " could not be parsed");
+        super("Parser exception: " + message + " could not be parsed", false);
     }
 
 }
@@ -0,0 +1,856 @@
+package refraff.parser;
+
+import refraff.LineIndex;
+import refraff.Source;
+import refraff.SourceBuffer;
+import refraff.SourcePosition;
+import refraff.parser.expression.*;
+import refraff.parser.expression.primaryExpression.*;
+import refraff.parser.function.*;
+import refraff.parser.operator.OperatorEnum;
+import refraff.parser.statement.*;
+import refraff.parser.struct.*;
+import refraff.parser.type.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of a typechecked program, so a program whose input hasn't changed can be loaded back
+ * without tokenizing, parsing or typechecking it again. The encoding holds every node of the program with its source,
+ * the type the typechecker gave each expression, the definition it resolved each function call to, and the line index of
+ * the input the program was parsed from.
+ *
+ * Nodes are written in post-order: every node comes after all of its children, so reading them back only takes a stack
+ * of the nodes whose parent hasn't been read yet, and never recurses however deeply the program nests. Each name and
+ * each expression type is written in full once, and by its index after that, and numbers (offsets, counts and indices)
+ * are written in as few bytes as they fit in.
+ */
+public final class ProgramSerializer {
+
+    // Bumped whenever the encoding changes, so an encoding written by an older compiler is never read
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x52524146;
+
+    // The index of an expression type that the typechecker never set
+    private static final int NO_TYPE = -1;
+
+    private enum Tag {
+        PROGRAM,
+        STRUCT_DEF,
+        PARAM,
+        FUNCTION_DEF,
+
+        STRUCT_NAME,
+        FUNCTION_NAME,
+        VARIABLE,
+
+        INT_TYPE,
+        BOOL_TYPE,
+        VOID_TYPE,
+        STRUCT_TYPE,
+        NULL_STRUCT_TYPE,
+
+        VARDEC_STMT,
+        ASSIGN_STMT,
+        IF_STMT,
+        IF_ELSE_STMT,
+        WHILE_STMT,
+        BREAK_STMT,
+        PRINTLN_STMT,
+        RETURN_STMT,
+        RETURN_VALUE_STMT,
+        STMT_BLOCK,
+        EXPRESSION_STMT,
+
+        BINARY_OP_EXP,
+        UNARY_OP_EXP,
+        DOT_EXP,
+        INT_LITERAL_EXP,
+        BOOL_LITERAL_EXP,
+        NULL_EXP,
+        VARIABLE_EXP,
+        PAREN_EXP,
+        STRUCT_ALLOC_EXP,
+        STRUCT_ACTUAL_PARAMS,
+        STRUCT_ACTUAL_PARAM,
+        FUNC_CALL_EXP,
+        COMMA_EXP
+    }
+
+    private static final Tag[] TAGS = Tag.values();
+    private static final OperatorEnum[] OPERATORS = OperatorEnum.values();
+
+    // How each source is written: not at all if it was never set, as a span of the input, or as its text and positions
+    private static final byte UNSET_SOURCE = 0;
+    private static final byte SPAN_SOURCE = 1;
+    private static final byte TEXT_SOURCE = 2;
+
+    private ProgramSerializer() {
+    }
+
+    /**
+     * Encodes the program, which must have been parsed from a source buffer.
+     *
+     * @param program the program to encode
+     * @return the bytes of the encoding
+     * @throws IllegalArgumentException if the program was not parsed from a source buffer, or spans more than one
+     */
+    public static byte[] serialize(Program program) {
+        SourceBuffer sourceBuffer = program.getSource().getSourceBuffer();
+        if (sourceBuffer == null) {
+            throw new IllegalArgumentException("Only a program parsed from a source buffer can be serialized.");
+        }
+
+        Writer writer = new Writer(sourceBuffer, program.getFunctionDefs());
+        writer.writeHeader();
+        writer.writeTree(program);
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a program encoded by {@link #serialize(Program)}, with every span in it over a new source buffer of the
+     * input the program was parsed from.
+     *
+     * @param bytes the bytes of the encoding, read from their position onwards
+     * @param input the input the program was parsed from
+     * @return the decoded program, equal to the one that was encoded
+     * @throws IllegalArgumentException if the bytes are not an encoding of a program parsed from an input this long
+     */
+    public static Program deserialize(ByteBuffer bytes, CharSequence input) {
+        Reader reader = new Reader(bytes, new SourceBuffer(input));
+        reader.readHeader();
+
+        Program program = reader.readTree(Program.class);
+        reader.resolveFunctionCalls(program);
+        if (bytes.hasRemaining()) {
+            throw new IllegalArgumentException("The encoding continues past the end of its program.");
+        }
+
+        return program;
+    }
+
+    private static List<Node> getChildren(Node node) {
+        List<Node> children = new ArrayList<>();
+
+        if (node instanceof Program program) {
+            children.addAll(program.getStructDefs());
+            children.addAll(program.getFunctionDefs());
+            children.addAll(program.getStatements());
+        } else if (node instanceof StructDef structDef) {
+            children.add(structDef.getStructName());
+            children.addAll(structDef.getParams());
+        } else if (node instanceof Param param) {
+            children.add(param.getType());
+            children.add(param.getVariable());
+        } else if (node instanceof FunctionDef functionDef) {
+            children.add(functionDef.getFunctionName());
+            children.addAll(functionDef.getParams());
+            children.add(functionDef.getReturnType());
+            children.add(functionDef.getFunctionBody());
+        } else if (node instanceof StructType structType) {
+            structType.getStructName().ifPresent(children::add);
+        } else if (node instanceof VardecStmt vardec) {
+            children.add(vardec.getType());
+            children.add(vardec.getVariable());
+            children.add(vardec.getExpression());
+        } else if (node instanceof AssignStmt assign) {
+            children.add(assign.getVariable());
+            children.add(assign.getExpression());
+        } else if (node instanceof IfElseStmt ifElse) {
+            children.add(ifElse.getCondition());
+            children.add(ifElse.getIfBody());
+            ifElse.getElseBody().ifPresent(children::add);
+        } else if (node instanceof WhileStmt whileStmt) {
+            children.add(whileStmt.getCondition());
+            children.add(whileStmt.getBody());
+        } else if (node instanceof PrintlnStmt println) {
+            children.add(println.getExpression());
+        } else if (node instanceof ReturnStmt returnStmt) {
+            returnStmt.getReturnValue().ifPresent(children::add);
+        } else if (node instanceof StmtBlock stmtBlock) {
+            children.addAll(stmtBlock.getBlockBody());
+        } else if (node instanceof ExpressionStmt expressionStmt) {
+            children.add(expressionStmt.getExpression());
+        } else if (node instanceof BinaryOpExp binaryOpExp) {
+            children.add(binaryOpExp.getLeftExp());
+            children.add(binaryOpExp.getRightExp());
+        } else if (node instanceof UnaryOpExp unaryOpExp) {
+            children.add(unaryOpExp.getExp());
+        } else if (node instanceof DotExp dotExp) {
+            children.add(dotExp.getLeftExp());
+            children.add(dotExp.getRightVar());
+        } else if (node instanceof VariableExp variableExp) {
+            children.add(variableExp.getVar());
+        } else if (node instanceof ParenExp parenExp) {
+            children.add(parenExp.getExp());
+        } else if (node instanceof StructAllocExp structAllocExp) {
+            children.add(structAllocExp.getStructType());
+            children.add(structAllocExp.getParams());
+        } else if (node instanceof StructActualParams structActualParams) {
+            children.addAll(structActualParams.getStructActualParams());
+        } else if (node instanceof StructActualParam structActualParam) {
+            children.add(structActualParam.getVariable());
+            children.add(structActualParam.getExpression());
+        } else if (node instanceof FuncCallExp funcCallExp) {
+            children.add(funcCallExp.getFuncName());
+            children.add(funcCallExp.getCommaExp());
+        } else if (node instanceof CommaExp commaExp) {
+            children.addAll(commaExp.getExpressions());
+        }
+
+        return children;
+    }
+
+    private static final class Writer {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final SourceBuffer sourceBuffer;
+
+        private byte[] bytes;
+        private int size;
+
+        private final Map<String, Integer> nameIndices;
+        // Expression types are shared between expressions (e.g. the typechecker's own bool type), so each is only
+        // written once
+        private final Map<Type, Integer> typeIndices;
+
+        // Function calls refer to the definition they resolved to by its index in the program
+        private final Map<FunctionDef, Integer> functionDefIndices;
+
+        private Writer(SourceBuffer sourceBuffer, List<FunctionDef> functionDefs) {
+            this.sourceBuffer = sourceBuffer;
+
+            this.bytes = new byte[INITIAL_CAPACITY];
+            this.size = 0;
+
+            this.nameIndices = new HashMap<>();
+            this.typeIndices = new IdentityHashMap<>();
+
+            this.functionDefIndices = new IdentityHashMap<>();
+            for (int i = 0; i < functionDefs.size(); i++) {
+                functionDefIndices.put(functionDefs.get(i), i);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void writeHeader() {
+            writeInt(MAGIC);
+            writeInt(FORMAT_VERSION);
+            writeVarInt(sourceBuffer.getInput().length());
+
+            // The first line always starts at zero, so only the lengths of the lines before each other line are written
+            LineIndex lineIndex = sourceBuffer.getLineIndex();
+            writeVarInt(lineIndex.getLineCount());
+
+            for (int line = 1; line < lineIndex.getLineCount(); line++) {
+                writeVarInt(lineIndex.getLineStart(line) - lineIndex.getLineStart(line - 1));
+            }
+        }
+
+        private record Visit(Node node, boolean childrenWritten) {}
+
+        // Writes the node and everything under it in post-order, without recursing
+        private void writeTree(Node root) {
+            List<Visit> stack = new ArrayList<>();
+            stack.add(new Visit(root, false));
+
+            while (!stack.isEmpty()) {
+                Visit visit = stack.remove(stack.size() - 1);
+
+                if (visit.childrenWritten()) {
+                    writeNode(visit.node());
+                    continue;
+                }
+
+                stack.add(new Visit(visit.node(), true));
+
+                List<Node> children = getChildren(visit.node());
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.add(new Visit(children.get(i), false));
+                }
+            }
+        }
+
+        private void writeNode(Node node) {
+            writeByte(getTag(node).ordinal());
+            writeSource(node);
+
+            if (node instanceof Program program) {
+                writeVarInt(program.getStructDefs().size());
+                writeVarInt(program.getFunctionDefs().size());
+                writeVarInt(program.getStatements().size());
+            } else if (node instanceof StructDef structDef) {
+                writeVarInt(structDef.getParams().size());
+            } else if (node instanceof FunctionDef functionDef) {
+                writeVarInt(functionDef.getParams().size());
+            } else if (node instanceof StructName structName) {
+                writeName(structName.getName());
+            } else if (node instanceof FunctionName functionName) {
+                writeName(functionName.getName());
+            } else if (node instanceof Variable variable) {
+                writeName(variable.getName());
+            } else if (node instanceof StmtBlock stmtBlock) {
+                writeVarInt(stmtBlock.getBlockBody().size());
+            } else if (node instanceof BinaryOpExp binaryOpExp) {
+                writeByte(binaryOpExp.getOp().ordinal());
+            } else if (node instanceof UnaryOpExp unaryOpExp) {
+                writeByte(unaryOpExp.getOp().ordinal());
+            } else if (node instanceof IntLiteralExp intLiteralExp) {
+                writeSignedVarInt(intLiteralExp.getIntLiteral());
+            } else if (node instanceof BoolLiteralExp boolLiteralExp) {
+                writeByte(boolLiteralExp.getValue() ? 1 : 0);
+            } else if (node instanceof StructActualParams structActualParams) {
+                writeVarInt(structActualParams.getStructActualParams().size());
+            } else if (node instanceof CommaExp commaExp) {
+                writeVarInt(commaExp.getExpressions().size());
+            } else if (node instanceof FuncCallExp funcCallExp) {
+                writeFunctionDef(funcCallExp.getFunctionDef());
+            }
+
+            if (node instanceof Expression expression) {
+                writeExpressionType(expression.getExpressionType());
+            }
+        }
+
+        private static Tag getTag(Node node) {
+            if (node instanceof Program) {
+                return Tag.PROGRAM;
+            } else if (node instanceof StructDef) {
+                return Tag.STRUCT_DEF;
+            } else if (node instanceof Param) {
+                return Tag.PARAM;
+            } else if (node instanceof FunctionDef) {
+                return Tag.FUNCTION_DEF;
+            } else if (node instanceof StructName) {
+                return Tag.STRUCT_NAME;
+            } else if (node instanceof FunctionName) {
+                // Function names are types too, so they have to be told apart from the other types first
+                return Tag.FUNCTION_NAME;
+            } else if (node instanceof Variable) {
+                return Tag.VARIABLE;
+            } else if (node instanceof IntType) {
+                return Tag.INT_TYPE;
+            } else if (node instanceof BoolType) {
+                return Tag.BOOL_TYPE;
+            } else if (node instanceof VoidType) {
+                return Tag.VOID_TYPE;
+            } else if (node instanceof StructType structType) {
+                return structType.isNullStruct() ? Tag.NULL_STRUCT_TYPE : Tag.STRUCT_TYPE;
+            } else if (node instanceof VardecStmt) {
+                return Tag.VARDEC_STMT;
+            } else if (node instanceof AssignStmt) {
+                return Tag.ASSIGN_STMT;
+            } else if (node instanceof IfElseStmt ifElse) {
+                return ifElse.getElseBody().isPresent() ? Tag.IF_ELSE_STMT : Tag.IF_STMT;
+            } else if (node instanceof WhileStmt) {
+                return Tag.WHILE_STMT;
+            } else if (node instanceof BreakStmt) {
+                return Tag.BREAK_STMT;
+            } else if (node instanceof PrintlnStmt) {
+                return Tag.PRINTLN_STMT;
+            } else if (node instanceof ReturnStmt returnStmt) {
+                return returnStmt.hasReturnValue() ? Tag.RETURN_VALUE_STMT : Tag.RETURN_STMT;
+            } else if (node instanceof StmtBlock) {
+                return Tag.STMT_BLOCK;
+            } else if (node instanceof ExpressionStmt) {
+                return Tag.EXPRESSION_STMT;
+            } else if (node instanceof BinaryOpExp) {
+                return Tag.BINARY_OP_EXP;
+            } else if (node instanceof UnaryOpExp) {
+                return Tag.UNARY_OP_EXP;
+            } else if (node instanceof DotExp) {
+                return Tag.DOT_EXP;
+            } else if (node instanceof IntLiteralExp) {
+                return Tag.INT_LITERAL_EXP;
+            } else if (node instanceof BoolLiteralExp) {
+                return Tag.BOOL_LITERAL_EXP;
+            } else if (node instanceof NullExp) {
+                return Tag.NULL_EXP;
+            } else if (node instanceof VariableExp) {
+                return Tag.VARIABLE_EXP;
+            } else if (node instanceof ParenExp) {
+                return Tag.PAREN_EXP;
+            } else if (node instanceof StructAllocExp) {
+                return Tag.STRUCT_ALLOC_EXP;
+            } else if (node instanceof StructActualParams) {
+                return Tag.STRUCT_ACTUAL_PARAMS;
+            } else if (node instanceof StructActualParam) {
+                return Tag.STRUCT_ACTUAL_PARAM;
+            } else if (node instanceof FuncCallExp) {
+                return Tag.FUNC_CALL_EXP;
+            } else if (node instanceof CommaExp) {
+                return Tag.COMMA_EXP;
+            }
+
+            throw new IllegalArgumentException("Cannot serialize node " + node + ".");
+        }
+
+        private void writeSource(Node node) {
+            Source source = node.getSource();
+
+            if (source == Source.DEFAULT_TESTING_SOURCE) {
+                writeByte(UNSET_SOURCE);
+                return;
+            }
+
+            if (source.getSourceBuffer() == sourceBuffer) {
+                writeByte(SPAN_SOURCE);
+                writeVarInt(source.getStartOffset());
+                writeVarInt(source.getEndOffset() - source.getStartOffset());
+                return;
+            }
+
+            // Only spans of the program's own input can be read back against it
+            if (source.getSourceBuffer() != null) {
+                throw new IllegalArgumentException("Cannot serialize node " + node + " spanning another input.");
+            }
+
+            writeByte(TEXT_SOURCE);
+            writeString(source.getSourceString());
+            writePosition(source.getStartPosition());
+            writePosition(source.getEndPosition());
+        }
+
+        private void writePosition(SourcePosition position) {
+            writeVarInt(position.getLinePosition());
+            writeVarInt(position.getColumnPosition());
+        }
+
+        // Symbols are only meaningful to the process that interned them, so names are written out as text
+        private void writeName(String name) {
+            Integer index = nameIndices.get(name);
+
+            if (index != null) {
+                writeVarInt(index);
+                return;
+            }
+
+            index = nameIndices.size();
+            nameIndices.put(name, index);
+
+            writeVarInt(index);
+            writeString(name);
+        }
+
+        // Writes the index of the definition plus one, or zero if the call was never resolved
+        private void writeFunctionDef(FunctionDef functionDef) {
+            Integer index = functionDef == null ? null : functionDefIndices.get(functionDef);
+
+            if (functionDef != null && index == null) {
+                throw new IllegalArgumentException("Cannot serialize a call to a definition outside of the program.");
+            }
+
+            writeVarInt(index == null ? 0 : index + 1);
+        }
+
+        private void writeExpressionType(Type type) {
+            if (type == null) {
+                writeSignedVarInt(NO_TYPE);
+                return;
+            }
+
+            Integer index = typeIndices.get(type);
+
+            if (index != null) {
+                writeSignedVarInt(index);
+                return;
+            }
+
+            index = typeIndices.size();
+            typeIndices.put(type, index);
+
+            writeSignedVarInt(index);
+            writeTree(type);
+        }
+
+        private void writeString(String string) {
+            byte[] stringBytes = string.getBytes(StandardCharsets.UTF_8);
+
+            writeVarInt(stringBytes.length);
+            ensureCapacity(stringBytes.length);
+            System.arraycopy(stringBytes, 0, bytes, size, stringBytes.length);
+            size += stringBytes.length;
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(Integer.BYTES);
+
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        // Writes seven bits at a time from the lowest, with the high bit of each byte set if more bytes follow
+        private void writeVarInt(int value) {
+            ensureCapacity(5);
+
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            bytes[size++] = (byte) value;
+        }
+
+        // Zigzags the sign into the lowest bit first, so numbers near zero stay short whatever their sign
+        private void writeSignedVarInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(Byte.BYTES);
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int additionalBytes) {
+            if (size + additionalBytes > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additionalBytes));
+            }
+        }
+
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer bytes;
+        private final SourceBuffer sourceBuffer;
+
+        private final List<String> names;
+        private final List<Type> types;
+
+        // The calls read so far and the index plus one of the definition each resolved to, which can't be looked up
+        // until every definition has been read
+        private final List<FuncCallExp> funcCallExps;
+        private final List<Integer> functionDefIndices;
+
+        private Reader(ByteBuffer bytes, SourceBuffer sourceBuffer) {
+            this.bytes = bytes;
+            this.sourceBuffer = sourceBuffer;
+
+            this.names = new ArrayList<>();
+            this.types = new ArrayList<>();
+
+            this.funcCallExps = new ArrayList<>();
+            this.functionDefIndices = new ArrayList<>();
+        }
+
+        private void readHeader() {
+            if (bytes.remaining() < 2 * Integer.BYTES || bytes.getInt() != MAGIC) {
+                throw new IllegalArgumentException("The bytes are not an encoding of a program.");
+            }
+
+            if (bytes.getInt() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("The program was encoded in another format version.");
+            }
+
+            if (readVarInt() != sourceBuffer.getInput().length()) {
+                throw new IllegalArgumentException("The program was parsed from another input.");
+            }
+
+            LineIndex lineIndex = sourceBuffer.getLineIndex();
+            int lineCount = readVarInt();
+            int lineStart = 0;
+
+            for (int line = 1; line < lineCount; line++) {
+                lineStart += readVarInt();
+                lineIndex.addLineStart(lineStart);
+            }
+        }
+
+        // Reads nodes until they've all been gathered under one node of the root class, which is the node returned
+        private <T extends Node> T readTree(Class<T> rootClass) {
+            List<Node> stack = new ArrayList<>();
+
+            while (true) {
+                Node node = readNode(stack);
+                stack.add(node);
+
+                if (stack.size() == 1 && rootClass.isInstance(node)) {
+                    return rootClass.cast(node);
+                }
+            }
+        }
+
+        private Node readNode(List<Node> stack) {
+            int tagOrdinal = bytes.get();
+            if (tagOrdinal < 0 || tagOrdinal >= TAGS.length) {
+                throw new IllegalArgumentException("Unknown node tag " + tagOrdinal + ".");
+            }
+
+            Tag tag = TAGS[tagOrdinal];
+            Source source = readSource();
+
+            // Children were written first, so they're popped off the stack last child first
+            Node node = switch (tag) {
+                case PROGRAM -> {
+                    int structDefCount = readVarInt();
+                    int functionDefCount = readVarInt();
+                    int statementCount = readVarInt();
+
+                    List<Statement> statements = pop(stack, statementCount, Statement.class);
+                    List<FunctionDef> functionDefs = pop(stack, functionDefCount, FunctionDef.class);
+                    List<StructDef> structDefs = pop(stack, structDefCount, StructDef.class);
+                    yield new Program(structDefs, functionDefs, statements);
+                }
+                case STRUCT_DEF -> {
+                    List<Param> params = pop(stack, readVarInt(), Param.class);
+                    yield new StructDef(pop(stack, StructName.class), params);
+                }
+                case PARAM -> {
+                    Variable variable = pop(stack, Variable.class);
+                    yield new Param(pop(stack, Type.class), variable);
+                }
+                case FUNCTION_DEF -> {
+                    int paramCount = readVarInt();
+
+                    StmtBlock functionBody = pop(stack, StmtBlock.class);
+                    Type returnType = pop(stack, Type.class);
+                    List<Param> params = pop(stack, paramCount, Param.class);
+                    yield new FunctionDef(pop(stack, FunctionName.class), params, returnType, functionBody);
+                }
+                case STRUCT_NAME -> new StructName(readName());
+                case FUNCTION_NAME -> new FunctionName(readName());
+                case VARIABLE -> new Variable(readName());
+                case INT_TYPE -> new IntType();
+                case BOOL_TYPE -> new BoolType();
+                case VOID_TYPE -> new VoidType();
+                case STRUCT_TYPE -> new StructType(pop(stack, StructName.class));
+                case NULL_STRUCT_TYPE -> new StructType(null);
+                case VARDEC_STMT -> {
+                    Expression expression = pop(stack, Expression.class);
+                    Variable variable = pop(stack, Variable.class);
+                    yield new VardecStmt(pop(stack, Type.class), variable, expression);
+                }
+                case ASSIGN_STMT -> {
+                    Expression expression = pop(stack, Expression.class);
+                    yield new AssignStmt(pop(stack, Variable.class), expression);
+                }
+                case IF_STMT -> {
+                    Statement ifBody = pop(stack, Statement.class);
+                    yield new IfElseStmt(pop(stack, Expression.class), ifBody);
+                }
+                case IF_ELSE_STMT -> {
+                    Statement elseBody = pop(stack, Statement.class);
+                    Statement ifBody = pop(stack, Statement.class);
+                    yield new IfElseStmt(pop(stack, Expression.class), ifBody, elseBody);
+                }
+                case WHILE_STMT -> {
+                    Statement body = pop(stack, Statement.class);
+                    yield new WhileStmt(pop(stack, Expression.class), body);
+                }
+                case BREAK_STMT -> new BreakStmt();
+                case PRINTLN_STMT -> new PrintlnStmt(pop(stack, Expression.class));
+                case RETURN_STMT -> new ReturnStmt();
+                case RETURN_VALUE_STMT -> new ReturnStmt(pop(stack, Expression.class));
+                case STMT_BLOCK -> new StmtBlock(pop(stack, readVarInt(), Statement.class));
+                case EXPRESSION_STMT -> new ExpressionStmt(pop(stack, Expression.class));
+                case BINARY_OP_EXP -> {
+                    OperatorEnum op = readOperator();
+                    Expression rightExp = pop(stack, Expression.class);
+                    yield new BinaryOpExp(pop(stack, Expression.class), op, rightExp);
+                }
+                case UNARY_OP_EXP -> new UnaryOpExp(readOperator(), pop(stack, Expression.class));
+                case DOT_EXP -> {
+                    Variable rightVar = pop(stack, Variable.class);
+                    yield new DotExp(pop(stack, Expression.class), rightVar);
+                }
+                case INT_LITERAL_EXP -> new IntLiteralExp(readSignedVarInt());
+                case BOOL_LITERAL_EXP -> new BoolLiteralExp(bytes.get() != 0);
+                case NULL_EXP -> new NullExp();
+                case VARIABLE_EXP -> new VariableExp(pop(stack, Variable.class));
+                case PAREN_EXP -> new ParenExp(pop(stack, Expression.class));
+                case STRUCT_ALLOC_EXP -> {
+                    StructActualParams params = pop(stack, StructActualParams.class);
+                    yield new StructAllocExp(pop(stack, StructType.class), params);
+                }
+                case STRUCT_ACTUAL_PARAMS ->
+                        new StructActualParams(pop(stack, readVarInt(), StructActualParam.class));
+                case STRUCT_ACTUAL_PARAM -> {
+                    Expression expression = pop(stack, Expression.class);
+                    yield new StructActualParam(pop(stack, Variable.class), expression);
+                }
+                case FUNC_CALL_EXP -> {
+                    CommaExp commaExp = pop(stack, CommaExp.class);
+                    FuncCallExp funcCallExp = new FuncCallExp(pop(stack, FunctionName.class), commaExp);
+
+                    int functionDefIndex = readVarInt();
+                    if (functionDefIndex != 0) {
+                        funcCallExps.add(funcCallExp);
+                        functionDefIndices.add(functionDefIndex - 1);
+                    }
+
+                    yield funcCallExp;
+                }
+                case COMMA_EXP -> new CommaExp(pop(stack, readVarInt(), Expression.class));
+            };
+
+            if (source != null) {
+                node.setSource(source);
+            }
+
+            if (node instanceof Expression expression) {
+                expression.setExpressionType(readExpressionType());
+            }
+
+            return node;
+        }
+
+        private void resolveFunctionCalls(Program program) {
+            List<FunctionDef> functionDefs = program.getFunctionDefs();
+
+            for (int i = 0; i < funcCallExps.size(); i++) {
+                int functionDefIndex = functionDefIndices.get(i);
+
+                if (functionDefIndex >= functionDefs.size()) {
+                    throw new IllegalArgumentException("Function call resolved to definition " + functionDefIndex
+                            + " of only " + functionDefs.size() + ".");
+                }
+
+                funcCallExps.get(i).setFunctionDef(functionDefs.get(functionDefIndex));
+            }
+        }
+
+        private static <T extends Node> T pop(List<Node> stack, Class<T> nodeClass) {
+            if (stack.isEmpty()) {
+                throw new IllegalArgumentException("Expected a " + nodeClass.getSimpleName() + " but found nothing.");
+            }
+
+            Node node = stack.remove(stack.size() - 1);
+            if (!nodeClass.isInstance(node)) {
+                throw new IllegalArgumentException("Expected a " + nodeClass.getSimpleName() + " but found "
+                        + node.getClass().getSimpleName() + ".");
+            }
+
+            return nodeClass.cast(node);
+        }
+
+        // Pops the last count nodes off the stack, in the order they were read
+        private static <T extends Node> List<T> pop(List<Node> stack, int count, Class<T> nodeClass) {
+            if (count < 0 || count > stack.size()) {
+                throw new IllegalArgumentException("Expected " + count + " nodes but found " + stack.size() + ".");
+            }
+
+            List<Node> poppedNodes = stack.subList(stack.size() - count, stack.size());
+            List<T> nodes = new ArrayList<>(count);
+
+            for (Node node : poppedNodes) {
+                if (!nodeClass.isInstance(node)) {
+                    throw new IllegalArgumentException("Expected a " + nodeClass.getSimpleName() + " but found "
+                            + node.getClass().getSimpleName() + ".");
+                }
+
+                nodes.add(nodeClass.cast(node));
+            }
+
+            poppedNodes.clear();
+            return nodes;
+        }
+
+        // Returns null if the source was never set
+        private Source readSource() {
+            byte sourceKind = bytes.get();
+
+            return switch (sourceKind) {
+                case UNSET_SOURCE -> null;
+                case SPAN_SOURCE -> {
+                    int startOffset = readVarInt();
+                    int endOffset = startOffset + readVarInt();
+
+                    if (startOffset < 0 || startOffset > endOffset || endOffset > sourceBuffer.getInput().length()) {
+                        throw new IllegalArgumentException("Span " + startOffset + " to " + endOffset
+                                + " is outside of the input.");
+                    }
+
+                    yield new Source(sourceBuffer, startOffset, endOffset);
+                }
+                case TEXT_SOURCE -> {
+                    String sourceString = readString();
+                    SourcePosition startPosition = readPosition();
+                    yield new Source(sourceString, startPosition, readPosition());
+                }
+                default -> throw new IllegalArgumentException("Unknown source kind " + sourceKind + ".");
+            };
+        }
+
+        private SourcePosition readPosition() {
+            int linePosition = readVarInt();
+            return new SourcePosition(linePosition, readVarInt());
+        }
+
+        private String readName() {
+            int index = readVarInt();
+
+            if (index == names.size()) {
+                names.add(readString());
+            }
+
+            return names.get(index);
+        }
+
+        private Type readExpressionType() {
+            int index = readSignedVarInt();
+
+            if (index == NO_TYPE) {
+                return null;
+            }
+
+            if (index == types.size()) {
+                types.add(readTree(Type.class));
+            }
+
+            return types.get(index);
+        }
+
+        private OperatorEnum readOperator() {
+            return OPERATORS[bytes.get()];
+        }
+
+        private int readVarInt() {
+            int value = 0;
+
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                byte b = bytes.get();
+                value |= (b & 0x7F) << shift;
+
+                if (b >= 0) {
+                    return value;
+                }
+            }
+
+            throw new IllegalArgumentException("Variable-length int is longer than an int.");
+        }
+
+        private int readSignedVarInt() {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            if (length < 0 || length > bytes.remaining()) {
+                throw new IllegalArgumentException("String of length " + length + " runs past the encoding.");
+            }
+
+            byte[] stringBytes = new byte[length];
+            bytes.get(stringBytes);
+
+            return new String(stringBytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+package refraff.parser;
+
+import java.util.List;
+
+/**
+ * A program parsed past its syntax errors. The program holds everything that parsed, leaving out each element that had
+ * an error in it, and the errors are in the order they were found in the source.
+ */
+public class RecoveredProgram {
+
+    private final Program program;
+    private final List<ParserException> errors;
+    private final boolean reachedErrorLimit;
+
+    public RecoveredProgram(final Program program, final List<ParserException> errors,
+                            final boolean reachedErrorLimit) {
+        this.program = program;
+        this.errors = List.copyOf(errors);
+        this.reachedErrorLimit = reachedErrorLimit;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    public List<ParserException> getErrors() {
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    // Whether parsing stopped at the error limit, in which case there may be more errors after the last one
+    public boolean reachedErrorLimit() {
+        return reachedErrorLimit;
+    }
+
+}
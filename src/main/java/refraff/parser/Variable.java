@@ -1,28 +1,39 @@
 package refraff.parser;
 
-import java.util.Objects;
+import refraff.util.SymbolTable;
 
 public class Variable extends AbstractSyntaxTreeNode {
 
     private static final String NODE_TYPE_DESCRIPTOR = "variable";
     
     public final String name;
+    private final int symbol;
 
     public Variable(String name) {
+        this(name, SymbolTable.current().intern(name));
+    }
+
+    // Makes a variable whose name has already been interned, e.g. by the tokenizer
+    public Variable(String name, int symbol) {
         super(NODE_TYPE_DESCRIPTOR);
 
         this.name = name;
+        this.symbol = symbol;
     }
 
     public String getName() {
         return name;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     @Override
     public boolean equals(final Object other) {
         return super.equals(other)
                 && other instanceof Variable otherVariable
-                && Objects.equals(name, otherVariable.name);
+                && name.equals(otherVariable.name);
     }
 
 }
@@ -1,6 +1,7 @@
 package refraff.parser.expression.primaryExpression;
 
 import refraff.parser.function.CommaExp;
+import refraff.parser.function.FunctionDef;
 import refraff.parser.function.FunctionName;
 
 import java.util.Objects;
@@ -12,6 +13,9 @@ public class FuncCallExp extends PrimaryExpression {
     private final FunctionName funcName;
     private final CommaExp commaExp;
 
+    // The definition the typechecker resolved this call to, out of every definition of the function's name
+    private FunctionDef functionDef;
+
     public FuncCallExp(FunctionName funcName, CommaExp commaExp) {
         super(NODE_TYPE_DESCRIPTOR);
 
@@ -28,6 +32,15 @@ public class FuncCallExp extends PrimaryExpression {
         return commaExp;
     }
 
+    public FunctionDef getFunctionDef() {
+        return functionDef;
+    }
+
+    public void setFunctionDef(FunctionDef functionDef) {
+        this.functionDef = functionDef;
+    }
+
+    // The resolved definition is left out, since it can contain this very call (e.g. in a recursive function)
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), getFuncName(), getCommaExp());
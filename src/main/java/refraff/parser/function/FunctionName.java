@@ -1,6 +1,7 @@
 package refraff.parser.function;
 
 import refraff.parser.type.Type;
+import refraff.util.SymbolTable;
 
 import java.util.Objects;
 
@@ -9,17 +10,28 @@ public class FunctionName extends Type {
     private static final String NODE_TYPE_DESCRIPTOR = "function name";
 
     public final String functionName;
+    private final int symbol;
 
-    public FunctionName(final String structName) {
+    public FunctionName(final String functionName) {
+        this(functionName, SymbolTable.current().intern(functionName));
+    }
+
+    // Makes a name that has already been interned, e.g. by the tokenizer
+    public FunctionName(final String functionName, final int symbol) {
         super(NODE_TYPE_DESCRIPTOR);
 
-        this.functionName = structName;
+        this.functionName = functionName;
+        this.symbol = symbol;
     }
 
     public String getName() {
         return functionName;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), functionName);
@@ -29,7 +41,7 @@ public class FunctionName extends Type {
     public boolean equals(Object other) {
         return super.equals(other)
                 && other instanceof FunctionName otherFunctionName
-                && Objects.equals(functionName, otherFunctionName.functionName);
+                && functionName.equals(otherFunctionName.functionName);
     }
 
 }
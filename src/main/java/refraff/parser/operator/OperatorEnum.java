@@ -1,28 +1,38 @@
 package refraff.parser.operator;
 
 public enum OperatorEnum {
-    OR("||"),
-    AND("&&"),
-    DOUBLE_EQUALS("=="),
-    NOT_EQUALS("!="),
-    LESS_THAN_EQUALS("<="),
-    GREATER_THAN_EQUALS(">="),
-    LESS_THAN("<"),
-    GREATER_THAN(">"),
-    PLUS("+"),
-    MINUS("-"),
-    MULTIPLY("*"),
-    DIVISION("/"),
-    NOT("!"),
-    DOT(".");
+    OR("||", 1),
+    AND("&&", 2),
+    DOUBLE_EQUALS("==", 3),
+    NOT_EQUALS("!=", 3),
+    LESS_THAN_EQUALS("<=", 4),
+    GREATER_THAN_EQUALS(">=", 4),
+    LESS_THAN("<", 4),
+    GREATER_THAN(">", 4),
+    PLUS("+", 5),
+    MINUS("-", 5),
+    MULTIPLY("*", 6),
+    DIVISION("/", 6),
+    NOT("!", OperatorEnum.NOT_BINARY),
+    DOT(".", OperatorEnum.NOT_BINARY);
+
+    // The precedence of operators that aren't binary operators
+    public static final int NOT_BINARY = 0;
 
     private final String symbol;
+    private final int binaryPrecedence;
 
-    OperatorEnum(String symbol) {
+    OperatorEnum(String symbol, int binaryPrecedence) {
         this.symbol = symbol;
+        this.binaryPrecedence = binaryPrecedence;
     }
 
     public String getSymbol() {
         return this.symbol;
     }
+
+    // Binary operators with a higher precedence bind more tightly, from || up to * and /
+    public int getBinaryPrecedence() {
+        return this.binaryPrecedence;
+    }
 }
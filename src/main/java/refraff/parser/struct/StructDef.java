@@ -13,6 +13,9 @@ public class StructDef extends AbstractSyntaxTreeNode {
     private final StructName structName; 
     private final List<Param> params;
 
+    // The slots of the struct's fields, once the typechecker has checked its params
+    private StructLayout layout;
+
     public StructDef(final StructName structName, final List<Param> params) {
         super(NODE_TYPE_DESCRIPTOR);
 
@@ -28,6 +31,16 @@ public class StructDef extends AbstractSyntaxTreeNode {
         return params;
     }
 
+    public StructLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(StructLayout layout) {
+        this.layout = layout;
+    }
+
+    // The layout is left out, since it's only ever built from the params
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), getStructName(), getParams());
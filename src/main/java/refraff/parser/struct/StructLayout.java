@@ -0,0 +1,71 @@
+package refraff.parser.struct;
+
+import refraff.parser.type.Type;
+import refraff.util.SymbolMap;
+
+/**
+ * The fields of a struct, each in the slot of the order it was declared in, which is also the order of the values in an
+ * allocation of the struct. A field is found by its symbol in one table lookup, without looking through the struct's
+ * params.
+ */
+public class StructLayout {
+
+    private final SymbolMap<Param> fieldSymbolToParam;
+
+    public StructLayout() {
+        this.fieldSymbolToParam = new SymbolMap<>();
+    }
+
+    /**
+     * Gets the layout of the struct definition's params, without checking them. Only the first of any params with the
+     * same name is laid out.
+     *
+     * @param structDef the struct definition
+     * @return the layout of its fields
+     */
+    public static StructLayout of(StructDef structDef) {
+        StructLayout structLayout = new StructLayout();
+
+        for (Param param : structDef.getParams()) {
+            structLayout.addField(param);
+        }
+
+        return structLayout;
+    }
+
+    /**
+     * Adds the param as a field in the next slot, unless there's already a field with its name.
+     *
+     * @param param the param to add
+     * @return the param that already has the same name, or null if the param was added
+     */
+    public Param addField(Param param) {
+        int fieldSymbol = param.getVariable().getSymbol();
+
+        Param existingParam = fieldSymbolToParam.get(fieldSymbol);
+        if (existingParam != null) {
+            return existingParam;
+        }
+
+        fieldSymbolToParam.put(fieldSymbol, param);
+        return null;
+    }
+
+    public int getFieldCount() {
+        return fieldSymbolToParam.size();
+    }
+
+    // Gets the slot of the field with the symbol as its name, or -1 if the struct has no such field
+    public int getSlot(int fieldSymbol) {
+        return fieldSymbolToParam.indexOf(fieldSymbol);
+    }
+
+    public Param getField(int slot) {
+        return fieldSymbolToParam.valueAt(slot);
+    }
+
+    public Type getFieldType(int slot) {
+        return getField(slot).getType();
+    }
+
+}
@@ -1,6 +1,7 @@
 package refraff.parser.struct;
 
 import refraff.parser.AbstractSyntaxTreeNode;
+import refraff.util.SymbolTable;
 
 import java.util.Objects;
 
@@ -9,17 +10,28 @@ public class StructName extends AbstractSyntaxTreeNode {
     private static final String NODE_TYPE_DESCRIPTOR = "struct name";
 
     public final String structName;
+    private final int symbol;
 
     public StructName(final String structName) {
+        this(structName, SymbolTable.current().intern(structName));
+    }
+
+    // Makes a name that has already been interned, e.g. by the tokenizer
+    public StructName(final String structName, final int symbol) {
         super(NODE_TYPE_DESCRIPTOR);
 
         this.structName = structName;
+        this.symbol = symbol;
     }
 
     public String getName() {
         return structName;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), structName);
@@ -29,7 +41,7 @@ public class StructName extends AbstractSyntaxTreeNode {
     public boolean equals(Object other) {
         return super.equals(other)
                 && other instanceof StructName otherStructName
-                && Objects.equals(structName, otherStructName.structName);
+                && structName.equals(otherStructName.structName);
     }
 
 }
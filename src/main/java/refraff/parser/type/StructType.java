@@ -2,7 +2,6 @@ package refraff.parser.type;
 
 import refraff.parser.struct.StructName;
 
-import java.util.Objects;
 import java.util.Optional;
 
 public class StructType extends Type {
@@ -64,7 +63,7 @@ public class StructType extends Type {
             return true;
         } else if (isNullStruct() == otherStructType.isNullStruct()) {
             // If we're both not null, check that our struct names match exactly
-            return Objects.equals(getStructName().get().structName, otherStructType.getStructName().get().structName);
+            return getStructName().get().getSymbol() == otherStructType.getStructName().get().getSymbol();
         } else {
             // If one of us is null, then the null struct type will change its type to the type of our other struct
             return true;
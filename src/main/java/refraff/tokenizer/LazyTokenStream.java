@@ -0,0 +1,77 @@
+package refraff.tokenizer;
+
+import refraff.Source;
+
+// A token stream that has the tokenizer scan tokens into its buffer only as the parser asks for them
+public class LazyTokenStream implements TokenStream {
+
+    private final Tokenizer tokenizer;
+    private final TokenBuffer tokenBuffer;
+
+    private boolean exhausted;
+
+    public LazyTokenStream(Tokenizer tokenizer, TokenBuffer tokenBuffer) {
+        this.tokenizer = tokenizer;
+        this.tokenBuffer = tokenBuffer;
+
+        this.exhausted = false;
+    }
+
+    @Override
+    public boolean hasToken(int position) {
+        scanUpTo(position);
+        return tokenBuffer.hasToken(position);
+    }
+
+    @Override
+    public TokenKind getKind(int position) {
+        scanUpTo(position);
+        return tokenBuffer.getKind(position);
+    }
+
+    @Override
+    public Token getToken(int position) {
+        scanUpTo(position);
+        return tokenBuffer.getToken(position);
+    }
+
+    @Override
+    public String getTokenizedValue(int position) {
+        scanUpTo(position);
+        return tokenBuffer.getTokenizedValue(position);
+    }
+
+    @Override
+    public int getSymbol(int position) {
+        scanUpTo(position);
+        return tokenBuffer.getSymbol(position);
+    }
+
+    @Override
+    public Source getSource(int inclusiveStartPosition, int exclusiveEndPosition) {
+        scanUpTo(exclusiveEndPosition - 1);
+        return tokenBuffer.getSource(inclusiveStartPosition, exclusiveEndPosition);
+    }
+
+    @Override
+    public int size() {
+        scanUpTo(Integer.MAX_VALUE);
+        return tokenBuffer.size();
+    }
+
+    @Override
+    public void release(int position) {
+        tokenBuffer.release(position);
+    }
+
+    private void scanUpTo(int position) {
+        try {
+            while (!exhausted && !tokenBuffer.hasToken(position)) {
+                exhausted = !tokenizer.scanNextToken();
+            }
+        } catch (TokenizerException ex) {
+            throw new UncheckedTokenizerException(ex);
+        }
+    }
+
+}
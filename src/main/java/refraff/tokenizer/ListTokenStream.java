@@ -0,0 +1,49 @@
+package refraff.tokenizer;
+
+import refraff.Source;
+import refraff.Sourced;
+
+import java.util.List;
+
+// A token stream over sourced tokens that have already been created
+public class ListTokenStream implements TokenStream {
+
+    private final List<Sourced<Token>> sourcedTokens;
+
+    public ListTokenStream(List<Sourced<Token>> sourcedTokens) {
+        this.sourcedTokens = sourcedTokens;
+    }
+
+    @Override
+    public boolean hasToken(int position) {
+        return position < sourcedTokens.size();
+    }
+
+    @Override
+    public TokenKind getKind(int position) {
+        return TokenKind.of(getToken(position));
+    }
+
+    @Override
+    public Token getToken(int position) {
+        return sourcedTokens.get(position).getValue();
+    }
+
+    @Override
+    public Source getSource(int inclusiveStartPosition, int exclusiveEndPosition) {
+        return Source.fromSources(sourcedTokens.subList(inclusiveStartPosition, exclusiveEndPosition).stream()
+                .map(Sourced::getSource)
+                .toList());
+    }
+
+    @Override
+    public Sourced<Token> getSourcedToken(int position) {
+        return sourcedTokens.get(position);
+    }
+
+    @Override
+    public int size() {
+        return sourcedTokens.size();
+    }
+
+}
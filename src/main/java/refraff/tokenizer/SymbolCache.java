@@ -0,0 +1,104 @@
+package refraff.tokenizer;
+
+import refraff.util.SymbolTable;
+
+import java.util.Arrays;
+
+// A tokenizer's own cache of the symbols it has interned, so tokenizers running in parallel rarely contend on their
+// shared symbol table
+class SymbolCache {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Open addressing table of entry index + 1 (0 marks an empty slot), sized to a power of two
+    private int[] slots;
+
+    private String[] names;
+    private int[] hashes;
+    private int[] symbols;
+    private int size;
+
+    private final SymbolTable symbolTable;
+
+    SymbolCache(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+
+        this.slots = new int[INITIAL_CAPACITY * 2];
+
+        this.names = new String[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.symbols = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    int intern(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        int mask = slots.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+
+            if (hashes[index] == hash && contentEquals(names[index], text, start, end)) {
+                return symbols[index];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        int symbol = symbolTable.intern(text, start, end);
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+            symbols = Arrays.copyOf(symbols, size * 2);
+        }
+
+        names[size] = symbolTable.getName(symbol);
+        hashes[size] = hash;
+        symbols[size] = symbol;
+        slots[slot] = ++size;
+
+        // Keep the table at most half full
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+
+        return symbol;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+
+        for (int index = 0; index < size; index++) {
+            int slot = (hashes[index] ^ (hashes[index] >>> 16)) & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = index + 1;
+        }
+    }
+
+    private static boolean contentEquals(String name, CharSequence text, int start, int end) {
+        int length = end - start;
+        if (name.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,284 @@
+package refraff.tokenizer;
+
+import refraff.LineIndex;
+import refraff.Source;
+import refraff.SourceBuffer;
+import refraff.SourcePosition;
+import refraff.Sourced;
+import refraff.util.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact buffer of tokens backed by the tokenized input. Each token is stored as its kind, start offset and length
+ * in parallel arrays, so no objects are created per token until a {@link Token} or {@link Source} is asked for.
+ *
+ * Identifiers are interned by the tokenizer into the buffer's {@link SymbolTable}, so the buffer also stores each
+ * identifier's symbol. The input and its line index are kept in a {@link SourceBuffer}, which every source made from
+ * this buffer spans by offsets.
+ */
+public class TokenBuffer implements TokenStream {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The symbol stored for tokens that are not identifiers
+    public static final int NO_SYMBOL = -1;
+
+    private final SourceBuffer sourceBuffer;
+    private final SymbolTable symbolTable;
+
+    // Token positions are absolute: the token at position p is stored at index p - firstStoredPosition
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int[] symbols;
+    private int firstStoredPosition;
+    private int storedTokens;
+
+    // Tokens before this position have been released, and may be dropped from the arrays when they next grow
+    private int releasedPosition;
+
+    public TokenBuffer(CharSequence input) {
+        this(input, SymbolTable.current());
+    }
+
+    TokenBuffer(CharSequence input, SymbolTable symbolTable) {
+        this(input, symbolTable, INITIAL_CAPACITY);
+    }
+
+    TokenBuffer(CharSequence input, SymbolTable symbolTable, int initialCapacity) {
+        this.sourceBuffer = new SourceBuffer(input);
+        this.symbolTable = symbolTable;
+
+        this.kinds = new int[initialCapacity];
+        this.starts = new int[initialCapacity];
+        this.lengths = new int[initialCapacity];
+        this.symbols = new int[initialCapacity];
+        this.firstStoredPosition = 0;
+        this.storedTokens = 0;
+
+        this.releasedPosition = 0;
+    }
+
+    void addToken(TokenKind kind, int start, int length, int symbol) {
+        if (storedTokens == kinds.length) {
+            makeRoom();
+        }
+
+        kinds[storedTokens] = kind.ordinal();
+        starts[storedTokens] = start;
+        lengths[storedTokens] = length;
+        symbols[storedTokens] = symbol;
+        storedTokens++;
+    }
+
+    void addLineStart(int offset) {
+        getLineIndex().addLineStart(offset);
+    }
+
+    /*
+     * Appends the tokens of another buffer over the same (or an edited) input, from the start position until the end
+     * position, with their offsets shifted by the specified amount. Line starts are not copied.
+     */
+    void append(TokenBuffer other, int startPosition, int endPosition, int offsetShift) {
+        int startIndex = other.toIndex(startPosition);
+        int appendedTokens = endPosition - startPosition;
+        int neededCapacity = storedTokens + appendedTokens;
+
+        if (neededCapacity > kinds.length) {
+            int grownCapacity = Math.max(kinds.length * 2, neededCapacity);
+            kinds = Arrays.copyOf(kinds, grownCapacity);
+            starts = Arrays.copyOf(starts, grownCapacity);
+            lengths = Arrays.copyOf(lengths, grownCapacity);
+            symbols = Arrays.copyOf(symbols, grownCapacity);
+        }
+
+        System.arraycopy(other.kinds, startIndex, kinds, storedTokens, appendedTokens);
+        System.arraycopy(other.lengths, startIndex, lengths, storedTokens, appendedTokens);
+        System.arraycopy(other.symbols, startIndex, symbols, storedTokens, appendedTokens);
+
+        for (int i = 0; i < appendedTokens; i++) {
+            starts[storedTokens + i] = other.starts[startIndex + i] + offsetShift;
+        }
+
+        storedTokens = neededCapacity;
+    }
+
+    // Appends every token and line start of a buffer that tokenized the next range of the same input
+    void append(TokenBuffer chunk) {
+        append(chunk, 0, chunk.size(), 0);
+        getLineIndex().addLineStarts(chunk.getLineIndex(), 0, Integer.MAX_VALUE, 0);
+    }
+
+    CharSequence getInput() {
+        return sourceBuffer.getInput();
+    }
+
+    // Gets the offset of the token at the specified position
+    public int getStart(int position) {
+        return starts[toIndex(position)];
+    }
+
+    /**
+     * Finds the first token that starts at or after the offset into the input.
+     *
+     * @param offset the offset into the input
+     * @return the position of the first token starting at or after the offset, or the size of the buffer if none does
+     */
+    public int findFirstTokenStartingAtOrAfter(int offset) {
+        int low = releasedPosition;
+        int high = size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (getStart(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    // Gets the offset just past the token at the specified position
+    int getEnd(int position) {
+        int index = toIndex(position);
+        return starts[index] + lengths[index];
+    }
+
+    // Drops the released tokens if they take up at least half of the arrays, otherwise grows the arrays
+    private void makeRoom() {
+        int releasedTokens = releasedPosition - firstStoredPosition;
+
+        if (releasedTokens >= storedTokens / 2) {
+            int keptTokens = storedTokens - releasedTokens;
+
+            System.arraycopy(kinds, releasedTokens, kinds, 0, keptTokens);
+            System.arraycopy(starts, releasedTokens, starts, 0, keptTokens);
+            System.arraycopy(lengths, releasedTokens, lengths, 0, keptTokens);
+            System.arraycopy(symbols, releasedTokens, symbols, 0, keptTokens);
+
+            firstStoredPosition = releasedPosition;
+            storedTokens = keptTokens;
+            return;
+        }
+
+        int grownCapacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, grownCapacity);
+        starts = Arrays.copyOf(starts, grownCapacity);
+        lengths = Arrays.copyOf(lengths, grownCapacity);
+        symbols = Arrays.copyOf(symbols, grownCapacity);
+    }
+
+    private int toIndex(int position) {
+        if (position < releasedPosition) {
+            throw new IllegalStateException("Token at position " + position + " has already been released.");
+        }
+
+        return position - firstStoredPosition;
+    }
+
+    @Override
+    public boolean hasToken(int position) {
+        return position < firstStoredPosition + storedTokens;
+    }
+
+    @Override
+    public TokenKind getKind(int position) {
+        return TokenKind.fromOrdinal(kinds[toIndex(position)]);
+    }
+
+    @Override
+    public Token getToken(int position) {
+        TokenKind kind = getKind(position);
+        String fixedValue = kind.getFixedValue();
+
+        return kind.toToken(fixedValue != null ? fixedValue : getTokenizedValue(position));
+    }
+
+    @Override
+    public String getTokenizedValue(int position) {
+        int index = toIndex(position);
+
+        // Identifiers share their interned name rather than copying it out of the input again
+        if (symbols[index] != NO_SYMBOL) {
+            return symbolTable.getName(symbols[index]);
+        }
+
+        return getInput().subSequence(starts[index], starts[index] + lengths[index]).toString();
+    }
+
+    // Gets the symbol the tokenizer interned, or NO_SYMBOL if the token is not an identifier
+    @Override
+    public int getSymbol(int position) {
+        return symbols[toIndex(position)];
+    }
+
+    // Gets the table the identifiers in this buffer were interned in
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    @Override
+    public Source getSource(int inclusiveStartPosition, int exclusiveEndPosition) {
+        if (exclusiveEndPosition <= inclusiveStartPosition) {
+            throw new IllegalArgumentException("Source list must not be empty.");
+        }
+
+        int startIndex = toIndex(inclusiveStartPosition);
+        int endIndex = toIndex(exclusiveEndPosition - 1);
+
+        int startOffset = starts[startIndex];
+        int endOffset = starts[endIndex] + lengths[endIndex];
+
+        return new Source(sourceBuffer, startOffset, endOffset);
+    }
+
+    @Override
+    public int size() {
+        return firstStoredPosition + storedTokens;
+    }
+
+    @Override
+    public void release(int position) {
+        releasedPosition = Math.max(releasedPosition, Math.min(position, size()));
+    }
+
+    /**
+     * Gets the line and column of the specified offset into the input.
+     *
+     * @param offset the offset into the input, from 0 up to and including its length
+     * @return the position of the offset
+     */
+    public SourcePosition getSourcePosition(int offset) {
+        return getLineIndex().getSourcePosition(offset);
+    }
+
+    public LineIndex getLineIndex() {
+        return sourceBuffer.getLineIndex();
+    }
+
+    public SourceBuffer getSourceBuffer() {
+        return sourceBuffer;
+    }
+
+    /**
+     * Creates a sourced token view of every token in this buffer.
+     *
+     * @return the list of sourced tokens
+     */
+    public List<Sourced<Token>> toSourcedTokens() {
+        List<Sourced<Token>> sourcedTokens = new ArrayList<>(storedTokens);
+
+        for (int position = releasedPosition; position < size(); position++) {
+            sourcedTokens.add(getSourcedToken(position));
+        }
+
+        return sourcedTokens;
+    }
+
+}
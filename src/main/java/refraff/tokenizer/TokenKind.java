@@ -0,0 +1,126 @@
+package refraff.tokenizer;
+
+import refraff.tokenizer.reserved.*;
+import refraff.tokenizer.symbol.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The kinds of tokens the tokenizer can produce. A token buffer stores only a kind's ordinal per token, and the
+ * {@link Token} itself is created from its kind (and its tokenized text, for identifiers and int literals) on demand.
+ */
+public enum TokenKind {
+
+    // Non-operator symbols
+    COMMA(new CommaToken()),
+    LEFT_BRACE(new LeftBraceToken()),
+    RIGHT_BRACE(new RightBraceToken()),
+    SEMICOLON(new SemicolonToken()),
+    LEFT_PAREN(new LeftParenToken()),
+    RIGHT_PAREN(new RightParenToken()),
+    COLON(new ColonToken()),
+
+    // Operator symbols
+    DOT(new DotToken()),
+
+    // Arithmetic operators
+    MULTIPLY(new MultiplyToken()),
+    DIVISION(new DivisionToken()),
+    PLUS(new PlusToken()),
+    MINUS(new MinusToken()),
+
+    // Logical operators
+    AND(new AndToken()),
+    OR(new OrToken()),
+    NOT_EQUALS(new NotEqualsToken()),
+    NOT(new NotToken()),
+    LESS_THAN_EQUALS(new LessThanEqualsToken()),
+    LESS_THAN(new LessThanToken()),
+    GREATER_THAN_EQUALS(new GreaterThanEqualsToken()),
+    GREATER_THAN(new GreaterThanToken()),
+    DOUBLE_EQUALS(new DoubleEqualsToken()),
+    ASSIGNMENT(new AssignmentToken()),
+
+    // Reserved words
+    INT(new IntToken()),
+    BOOL(new BoolToken()),
+    STRUCT(new StructToken()),
+    FUNC(new FuncToken()),
+    TRUE(new TrueToken()),
+    FALSE(new FalseToken()),
+    NULL(new NullToken()),
+    NEW(new NewToken()),
+    IF(new IfToken()),
+    ELSE(new ElseToken()),
+    WHILE(new WhileToken()),
+    BREAK(new BreakToken()),
+    PRINTLN(new PrintlnToken()),
+    RETURN(new ReturnToken()),
+    VOID(new VoidToken()),
+
+    // Tokens whose value depends on the tokenized text
+    IDENTIFIER(IdentifierToken.class, IdentifierToken::new),
+    INT_LITERAL(IntLiteralToken.class, IntLiteralToken::new);
+
+    private static final TokenKind[] KINDS = values();
+
+    private static final Map<Class<? extends Token>, TokenKind> TOKEN_CLASS_TO_KIND = Arrays.stream(KINDS)
+            .collect(Collectors.toMap(TokenKind::getTokenClass, Function.identity()));
+
+    private final Class<? extends Token> tokenClass;
+
+    // Symbols and reserved words always have the same value, so they share a single token
+    private final Token sharedToken;
+    private final Function<String, Token> tokenFactory;
+
+    TokenKind(Token sharedToken) {
+        this.tokenClass = sharedToken.getClass();
+        this.sharedToken = sharedToken;
+        this.tokenFactory = null;
+    }
+
+    TokenKind(Class<? extends Token> tokenClass, Function<String, Token> tokenFactory) {
+        this.tokenClass = tokenClass;
+        this.sharedToken = null;
+        this.tokenFactory = tokenFactory;
+    }
+
+    public Class<? extends Token> getTokenClass() {
+        return tokenClass;
+    }
+
+    public boolean isReservedWord() {
+        return sharedToken instanceof AbstractReservedToken;
+    }
+
+    /**
+     * Gets the token of this kind with the specified tokenized text.
+     *
+     * @param tokenizedValue the text that was tokenized
+     * @return the shared token for symbols and reserved words, otherwise a new token holding the text
+     */
+    public Token toToken(String tokenizedValue) {
+        return sharedToken != null ? sharedToken : tokenFactory.apply(tokenizedValue);
+    }
+
+    /**
+     * Gets the fixed text of a symbol or reserved word.
+     *
+     * @return the tokenized value of this kind's shared token, or null if its value depends on the tokenized text
+     */
+    public String getFixedValue() {
+        return sharedToken != null ? sharedToken.getTokenizedValue() : null;
+    }
+
+    public static TokenKind fromOrdinal(int ordinal) {
+        return KINDS[ordinal];
+    }
+
+    public static TokenKind of(Token token) {
+        return TOKEN_CLASS_TO_KIND.get(token.getClass());
+    }
+
+}
@@ -0,0 +1,104 @@
+package refraff.tokenizer;
+
+import refraff.Source;
+import refraff.Sourced;
+import refraff.util.SymbolTable;
+
+import java.util.List;
+
+/**
+ * An indexed sequence of tokens for the parser to read from. Implementations may produce their tokens on demand, in
+ * which case only the tokens from the last released position onwards are held at once.
+ *
+ * Any of these methods may throw an {@link UncheckedTokenizerException} if the tokens could not be produced up to the
+ * requested position.
+ */
+public interface TokenStream {
+
+    /**
+     * Checks whether there is a token at the specified position, producing tokens up to it if needed.
+     *
+     * @param position the position of the token
+     * @return true if there is a token at the specified position, false if the stream ends before it
+     */
+    boolean hasToken(int position);
+
+    /**
+     * Gets the kind of the token at the specified position, which must exist.
+     *
+     * @param position the position of the token
+     * @return the kind of the token
+     */
+    TokenKind getKind(int position);
+
+    /**
+     * Gets the token at the specified position, which must exist.
+     *
+     * @param position the position of the token
+     * @return the token
+     */
+    Token getToken(int position);
+
+    /**
+     * Gets the text of the token at the specified position, which must exist, without having to create the token.
+     *
+     * @param position the position of the token
+     * @return the text that was tokenized
+     */
+    default String getTokenizedValue(int position) {
+        return getToken(position).getTokenizedValue();
+    }
+
+    /**
+     * Gets the interned symbol of the identifier at the specified position, which must exist. By default the
+     * identifier is interned in the table of the current compilation, see {@link SymbolTable#current()}.
+     *
+     * @param position the position of the identifier
+     * @return the symbol of the identifier
+     */
+    default int getSymbol(int position) {
+        return SymbolTable.current().intern(getTokenizedValue(position));
+    }
+
+    /**
+     * Gets the source spanning the tokens in the specified range, as if by {@link Source#fromSources(List)}.
+     *
+     * @param inclusiveStartPosition the position of the first token
+     * @param exclusiveEndPosition the position after the last token
+     * @return the combined source of the tokens
+     */
+    Source getSource(int inclusiveStartPosition, int exclusiveEndPosition);
+
+    /**
+     * Gets the total number of tokens in this stream. A lazy stream must produce all of its remaining tokens to
+     * answer this, so it should only be used when the whole stream is needed anyway (e.g. reporting errors).
+     *
+     * @return the number of tokens in this stream
+     */
+    int size();
+
+    /**
+     * Signals that no token before the specified position will be read again, so it may be discarded.
+     *
+     * @param position the first position that may still be read
+     */
+    default void release(int position) {
+        // By default, all tokens are kept
+    }
+
+    /**
+     * Gets the token at the specified position together with its source. This is only meant for reporting, as it
+     * allocates a new view of the token every time.
+     *
+     * @param position the position of the token
+     * @return the sourced token
+     */
+    default Sourced<Token> getSourcedToken(int position) {
+        return new Sourced<>(getSource(position, position + 1), getToken(position));
+    }
+
+    static TokenStream of(List<Sourced<Token>> sourcedTokens) {
+        return new ListTokenStream(sourcedTokens);
+    }
+
+}
@@ -1,324 +1,517 @@
 package refraff.tokenizer;
 
-import refraff.Source;
 import refraff.SourcePosition;
 import refraff.Sourced;
-import refraff.tokenizer.reserved.*;
-import refraff.tokenizer.symbol.*;
-import refraff.typechecker.TypecheckerException;
-import refraff.util.Pair;
-
-import java.util.*;
-import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import refraff.util.AsciiCharSequence;
+import refraff.util.SymbolTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Tokenizer {
 
-    private static final List<Token> SYMBOL_TOKENS = Arrays.asList(
-            // Non-operator symbols
-            new CommaToken(),
-            new LeftBraceToken(),
-            new RightBraceToken(),
-            new SemicolonToken(),
-            new LeftParenToken(),
-            new RightParenToken(),
-            new ColonToken(),
-
-            // Operator symbols
-            new DotToken(),
-
-            // Arithmetic operators
-            new MultiplyToken(),
-            new DivisionToken(),
-            new PlusToken(),
-            new MinusToken(),
-
-            // Logical operators
-            new AndToken(),
-            new OrToken(),
-            new NotEqualsToken(),
-            new NotToken(),
-            new LessThanEqualsToken(),
-            new LessThanToken(),
-            new GreaterThanEqualsToken(),
-            new GreaterThanToken(),
-            new DoubleEqualsToken(),
-            new AssignmentToken()
-    );
-
-    private static final List<Token> RESERVED_TOKENS = Arrays.asList(
-            new IntToken(),
-            new BoolToken(),
-            new StructToken(),
-            new FuncToken(),
-            new TrueToken(),
-            new FalseToken(),
-            new NullToken(),
-            new NewToken(),
-            new IfToken(),
-            new ElseToken(),
-            new WhileToken(),
-            new BreakToken(),
-            new PrintlnToken(),
-            new ReturnToken(),
-            new VoidToken()
-    );
-
-    // Regex patterns
-
-    // The whitespace character for Java's Pattern is \s
-    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s*");
-
-    // The integer literal pattern. This doesn't allow for leading zeros
-    private static final Pattern INT_LITERAL_PATTERN = Pattern.compile("\\b(0|[1-9][0-9]*)\\b");
-
-    // The identifier regex (underscores should not be allowed in first char for variables according to C standard)
-    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("\\b([a-zA-Z][a-zA-Z_0-9]*)\\b");
-
-    // A regex pattern that places all valid symbols and operators as distinct choices to be tokenized
-    // Take each symbol, escape it and create a group [e.g. `(\<\=)`], then OR the groups together with regex `|`
-    private static final Pattern SYMBOL_PATTERN = Pattern.compile("(" +
-            SYMBOL_TOKENS.stream()
-                    .map(Token::getTokenizedValue)
-                    .map(symbol -> "(" + Pattern.quote(symbol) + ")")
-                    .collect(Collectors.joining("|"))
-            + ")"
-    );
-
-    private static final Map<String, Token> SYMBOL_TO_TOKEN = getStringToTokenMap(SYMBOL_TOKENS);
-    private static final Map<String, Token> RESERVED_TO_TOKEN = getStringToTokenMap(RESERVED_TOKENS);
-
-    private static Map<String, Token> getStringToTokenMap(List<Token> tokenList) {
-        return tokenList.stream()
-                .collect(
-                        Collectors.toMap(
-                                Token::getTokenizedValue,
-                                Function.identity()
-                        )
-                );
-    }
+    private static final TokenKind[] RESERVED_WORD_KINDS = Arrays.stream(TokenKind.values())
+            .filter(TokenKind::isReservedWord)
+            .toArray(TokenKind[]::new);
 
-    private final String input;
+    // Inputs are only split into chunks of at least this many characters, as smaller chunks aren't worth a task
+    private static final int MINIMUM_CHUNK_LENGTH = 1 << 18;
+
+    private final CharSequence input;
+    // Where this tokenizer stops, which is the end of the input unless it's tokenizing a chunk of it
     private final int inputLength;
 
-    private int tokenizerPosition = 0;
+    // The input again if it's ASCII bytes, which can be scanned eight characters at a time, otherwise null
+    private final AsciiCharSequence asciiInput;
+
+    private int tokenizerPosition;
 
-    private SourcePosition previousPosition;
-    private SourcePosition currentPosition;
+    // The tokens and line starts found so far
+    private final TokenBuffer tokenBuffer;
+
+    private final SymbolCache symbolCache;
+
+    public Tokenizer(CharSequence input) {
+        this(input, 0, input.length(), new TokenBuffer(input));
+    }
 
-    public Tokenizer(String input) {
+    private Tokenizer(CharSequence input, int start, int end, TokenBuffer tokenBuffer) {
         this.input = input;
-        this.inputLength = input.length();
+        this.inputLength = end;
 
-        this.previousPosition = SourcePosition.DEFAULT_SOURCE_POSITION;
-        this.currentPosition = previousPosition;
+        this.asciiInput = input instanceof AsciiCharSequence ? (AsciiCharSequence) input : null;
+
+        this.tokenizerPosition = start;
+
+        this.tokenBuffer = tokenBuffer;
+        this.symbolCache = new SymbolCache(tokenBuffer.getSymbolTable());
     }
 
-    public List<Sourced<Token>> tokenize() throws TokenizerException {
-        List<Sourced<Token>> tokens = new ArrayList<>();
-        boolean alreadySkippedWhitespace = false;
+    /**
+     * Tokenizes the input on the common fork/join pool. See {@link #tokenizeInParallel(CharSequence, ForkJoinPool)}.
+     *
+     * @param input the input to tokenize
+     * @return the buffer of all tokens in the input
+     * @throws TokenizerException if the input could not be tokenized
+     */
+    public static TokenBuffer tokenizeInParallel(CharSequence input) throws TokenizerException {
+        return tokenizeInParallel(input, ForkJoinPool.commonPool());
+    }
 
-        while (!inputOutOfBounds()) {
-            // If we haven't already skipped whitespace, try and skip whitespace
-            if (!alreadySkippedWhitespace && skipWhitespace()) {
-                alreadySkippedWhitespace = true;
-                continue;
+    /**
+     * Tokenizes a large input by splitting it into chunks at whitespace, tokenizing the chunks in parallel on the pool
+     * and concatenating their tokens and line starts in order. The result is the same as tokenizing the input in one
+     * pass, and small inputs are simply tokenized in one pass.
+     *
+     * If any chunk fails to tokenize, the input is tokenized again in one pass so the error is exactly the one that
+     * {@link #tokenizeToBuffer()} would have thrown.
+     *
+     * @param input the input to tokenize
+     * @param pool the pool to tokenize the chunks on
+     * @return the buffer of all tokens in the input
+     * @throws TokenizerException if the input could not be tokenized
+     */
+    public static TokenBuffer tokenizeInParallel(CharSequence input, ForkJoinPool pool) throws TokenizerException {
+        int[] chunkStarts = findChunkStarts(input, pool.getParallelism());
+
+        if (chunkStarts.length == 1) {
+            return new Tokenizer(input).tokenizeToBuffer();
+        }
+
+        // The chunks are tokenized on other threads, but all intern into the table of this compilation
+        SymbolTable symbolTable = SymbolTable.current();
+
+        List<ForkJoinTask<TokenBuffer>> chunkTasks = new ArrayList<>(chunkStarts.length);
+        for (int i = 0; i < chunkStarts.length; i++) {
+            int chunkStart = chunkStarts[i];
+            int chunkEnd = i + 1 < chunkStarts.length ? chunkStarts[i + 1] : input.length();
+
+            chunkTasks.add(pool.submit(() -> tokenizeChunk(input, chunkStart, chunkEnd, symbolTable)));
+        }
+
+        TokenBuffer tokenBuffer = new TokenBuffer(input, symbolTable);
+
+        // Join the chunks in order, so the tokens and lines are concatenated in order
+        for (ForkJoinTask<TokenBuffer> chunkTask : chunkTasks) {
+            TokenBuffer chunkTokenBuffer = chunkTask.join();
+
+            if (chunkTokenBuffer == null) {
+                return new Tokenizer(input).tokenizeToBuffer();
             }
 
-            // We will need to try to skip whitespace again in our next iteration
-            alreadySkippedWhitespace = false;
+            tokenBuffer.append(chunkTokenBuffer);
+        }
 
-            // Try and tokenize symbols
-            Optional<Sourced<Token>> optionalSymbolToken = tryTokenizeSymbol();
-            if (optionalSymbolToken.isPresent()) {
-                tokens.add(optionalSymbolToken.get());
-                continue;
+        return tokenBuffer;
+    }
+
+    // Returns null if the chunk could not be tokenized
+    private static TokenBuffer tokenizeChunk(CharSequence input, int chunkStart, int chunkEnd,
+                                             SymbolTable symbolTable) {
+        try {
+            return new Tokenizer(input, chunkStart, chunkEnd, new TokenBuffer(input, symbolTable)).tokenizeToBuffer();
+        } catch (TokenizerException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Splits the input into roughly equal chunks, aiming for a few chunks per thread. Every chunk after the first
+     * starts on a whitespace character, since no token can contain whitespace, but never on the \n of a \r\n, so
+     * each line break is still counted once.
+     */
+    private static int[] findChunkStarts(CharSequence input, int parallelism) {
+        int inputLength = input.length();
+        int chunkCount = Math.min(parallelism * 4, inputLength / MINIMUM_CHUNK_LENGTH);
+
+        if (chunkCount <= 1) {
+            return new int[] { 0 };
+        }
+
+        int chunkLength = inputLength / chunkCount;
+        List<Integer> chunkStarts = new ArrayList<>(chunkCount);
+        chunkStarts.add(0);
+
+        int chunkStart = chunkLength;
+        while (chunkStart < inputLength) {
+            char c = input.charAt(chunkStart);
+
+            if (isWhitespace(c) && !(c == '\n' && input.charAt(chunkStart - 1) == '\r')) {
+                chunkStarts.add(chunkStart);
+                chunkStart += chunkLength;
+            } else {
+                chunkStart++;
             }
+        }
+
+        return chunkStarts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Tokenizes the input of a previous buffer again after an edit, where the removed characters starting at the
+     * offset were replaced with the inserted text. See
+     * {@link #retokenize(TokenBuffer, CharSequence, int, int, int)}.
+     *
+     * @param previous the buffer of all tokens in the input before the edit
+     * @param editOffset the offset of the edit in the previous input
+     * @param removedLength how many characters were removed at the offset
+     * @param insertedText the text inserted at the offset
+     * @return the buffer of all tokens in the edited input
+     * @throws TokenizerException if the edited input could not be tokenized
+     */
+    public static TokenBuffer retokenize(TokenBuffer previous, int editOffset, int removedLength, String insertedText)
+            throws TokenizerException {
+        CharSequence previousInput = previous.getInput();
+        checkEditBounds(previousInput, editOffset, removedLength);
+
+        String editedInput = new StringBuilder(previousInput.length() - removedLength + insertedText.length())
+                .append(previousInput, 0, editOffset)
+                .append(insertedText)
+                .append(previousInput, editOffset + removedLength, previousInput.length())
+                .toString();
+
+        return retokenize(previous, editedInput, editOffset, removedLength, insertedText.length());
+    }
 
-            // Try to tokenize reserved word or identifier
-            Optional<Sourced<Token>> optionalReservedWordOrIdentifier = tryTokenizeReservedOrIdentifier();
-            if (optionalReservedWordOrIdentifier.isPresent()) {
-                tokens.add(optionalReservedWordOrIdentifier.get());
+    /**
+     * Tokenizes an edited input, reusing the tokens of the buffer from before the edit. Only the tokens around the
+     * edit are scanned again, until a scanned token starts where one of the previous tokens started; every token
+     * after that is copied over with its offset shifted. The result is the same as tokenizing the edited input from
+     * scratch.
+     *
+     * @param previous the buffer of all tokens in the input before the edit
+     * @param editedInput the input after the edit
+     * @param editOffset the offset of the edit in the previous input
+     * @param removedLength how many characters of the previous input were removed at the offset
+     * @param insertedLength how many characters were inserted at the offset in the edited input
+     * @return the buffer of all tokens in the edited input
+     * @throws TokenizerException if the edited input could not be tokenized
+     */
+    public static TokenBuffer retokenize(TokenBuffer previous, CharSequence editedInput, int editOffset,
+                                         int removedLength, int insertedLength) throws TokenizerException {
+        checkEditBounds(previous.getInput(), editOffset, removedLength);
+
+        int offsetShift = insertedLength - removedLength;
+        int insertedEnd = editOffset + insertedLength;
+
+        // Tokens only look one character past their end (or two, for a surrogate pair), so any earlier token stays
+        int damagedPosition = findFirstTokenEndingAtOrAfter(previous, editOffset - 1);
+        int restartOffset = damagedPosition > 0 ? previous.getEnd(damagedPosition - 1) : 0;
+
+        // Leave some room for the edit to add tokens, so copying the previous tokens over is all the work left
+        TokenBuffer tokenBuffer = new TokenBuffer(editedInput, previous.getSymbolTable(),
+                previous.size() + insertedLength + 1);
+        tokenBuffer.append(previous, 0, damagedPosition, 0);
+        tokenBuffer.getLineIndex().addLineStarts(previous.getLineIndex(), 0, restartOffset, 0);
+
+        Tokenizer tokenizer = new Tokenizer(editedInput, restartOffset, editedInput.length(), tokenBuffer);
+        int previousPosition = damagedPosition;
+
+        while (tokenizer.scanNextToken()) {
+            int tokenStart = tokenBuffer.getStart(tokenBuffer.size() - 1);
+            if (tokenStart < insertedEnd) {
                 continue;
             }
 
-            // Try and tokenize IntLiteral
-            Optional<Sourced<Token>> optionalIntLiteralToken = tryTokenizeIntLiteral();
-            if (optionalIntLiteralToken.isPresent()) {
-                tokens.add(optionalIntLiteralToken.get());
-                continue;
+            // The rest of the edited input is the same as the rest of the previous input from here
+            int previousStart = tokenStart - offsetShift;
+            while (previousPosition < previous.size() && previous.getStart(previousPosition) < previousStart) {
+                previousPosition++;
             }
 
-            String failedToTokenize = input.substring(tokenizerPosition);
+            // So once a previous token started here too, every token after it is the same, only shifted
+            if (previousPosition < previous.size() && previous.getStart(previousPosition) == previousStart) {
+                tokenBuffer.append(previous, previousPosition + 1, previous.size(), offsetShift);
+                tokenBuffer.getLineIndex().addLineStarts(previous.getLineIndex(), previousStart + 1,
+                        Integer.MAX_VALUE, offsetShift);
+                break;
+            }
+        }
 
-            int offset = 0;
-            int remainingLength = failedToTokenize.length();
+        return tokenBuffer;
+    }
 
-            // While we still have more string left and the character in the future isn't whitespace,
-            while (offset < remainingLength && !Character.isWhitespace(failedToTokenize.charAt(offset))) {
-                // Increment the offset
-                offset++;
-            }
+    private static void checkEditBounds(CharSequence previousInput, int editOffset, int removedLength) {
+        if (editOffset < 0 || removedLength < 0 || editOffset + removedLength > previousInput.length()) {
+            throw new IllegalArgumentException("Edit must be within the bounds of the previous input.");
+        }
+    }
 
-            // If we found a whitespace character before the end of the string ends,
-            if (offset < remainingLength) {
-                // Update the failedToTokenize to be the piece up until the whitespace
-                failedToTokenize = failedToTokenize.substring(0, offset);
-            }
+    private static int findFirstTokenEndingAtOrAfter(TokenBuffer tokenBuffer, int offset) {
+        int low = 0;
+        int high = tokenBuffer.size();
 
-            // Else, there is no whitespace before the end of the string
+        while (low < high) {
+            int middle = (low + high) >>> 1;
 
-            // If we cannot match any whitespace or token by now, throw an exception
-            throwTypecheckerException(failedToTokenize);
+            if (tokenBuffer.getEnd(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
         }
 
-        return tokens;
+        return low;
     }
 
-    private void throwTypecheckerException(String failedToTokenize) throws TokenizerException {
-        String errorMessage = """
-                    Tokenizer error at %s: could not tokenize `%s`
-                    
-                    See valid tokens at: https://github.com/csun-comp430-s24/RefRaff#Grammar
-                    """;
-        throw new TokenizerException(String.format(errorMessage, currentPosition.toString(), failedToTokenize));
+    public List<Sourced<Token>> tokenize() throws TokenizerException {
+        return tokenizeToBuffer().toSourcedTokens();
     }
 
-    private boolean inputOutOfBounds() {
-        return tokenizerPosition >= inputLength;
+    /**
+     * Tokenizes the whole input into a compact token buffer, without creating any objects per token.
+     *
+     * @return the buffer of all tokens in the input
+     * @throws TokenizerException if the input could not be tokenized
+     */
+    public TokenBuffer tokenizeToBuffer() throws TokenizerException {
+        while (scanNextToken()) {
+            // Keep scanning until the end of the input
+        }
+
+        return tokenBuffer;
     }
 
-    private Optional<String> findMatchingPattern(Pattern pattern) {
-        // If we are out of bounds, do not attempt to read pattern match
-        if (inputOutOfBounds()) {
-            return Optional.empty();
-        }
+    /**
+     * Creates a stream that tokenizes the input lazily, as the tokens are read from it. Any tokenizer error is thrown
+     * from the stream as an {@link UncheckedTokenizerException} once the parser reaches the erroneous token.
+     *
+     * @return a lazy token stream over the input
+     */
+    public TokenStream tokenStream() {
+        return new LazyTokenStream(this, tokenBuffer);
+    }
 
-        // Setup the regex matcher for the input
-        Matcher matcher = pattern.matcher(input);
+    /**
+     * Scans the next token from the input in a single pass, skipping any whitespace before it, and adds the token to
+     * the token buffer.
+     *
+     * @return true if a token was scanned, or false if only whitespace remains
+     * @throws TokenizerException if the characters at the current position do not begin a valid token
+     */
+    boolean scanNextToken() throws TokenizerException {
+        skipWhitespace();
 
-        // If we didn't find any string that matches our pattern
-        // or if the position of the found match isn't our current position, return an empty optional
-        if (!matcher.find(tokenizerPosition) || matcher.start() != tokenizerPosition) {
-            return Optional.empty();
+        if (inputOutOfBounds()) {
+            return false;
         }
 
-        // Get the matched string and change our position to immediately after the end of the match
-        String matched = matcher.group();
+        int tokenStart = tokenizerPosition;
 
-        // If we parsed a blank whitespace character, return it now to not affect our position
-        if (matched.isEmpty()) {
-            return Optional.of(matched);
+        TokenKind kind = scanToken();
+        if (kind == null) {
+            throwTokenizerException(tokenBuffer.getSourcePosition(tokenStart));
         }
 
-        this.tokenizerPosition = matcher.end();
+        int symbol = kind == TokenKind.IDENTIFIER
+                ? symbolCache.intern(input, tokenStart, tokenizerPosition)
+                : TokenBuffer.NO_SYMBOL;
 
-        // Update our previous and current line and column numbers
-        this.previousPosition = currentPosition;
-        int additionalLines = getNewLines(matched);
+        tokenBuffer.addToken(kind, tokenStart, tokenizerPosition - tokenStart, symbol);
+        return true;
+    }
 
-        // Start calculating our current position
-        int currentLinePosition = currentPosition.getLinePosition() + additionalLines;
-        int currentColumnPosition = currentPosition.getColumnPosition();
+    private void throwTokenizerException(SourcePosition position) throws TokenizerException {
+        int offset = tokenizerPosition;
 
-        // If we have additional lines here, then reset the column head to be at the start of the last line
-        if (additionalLines > 0) {
-            currentColumnPosition = SourcePosition.STARTING_COLUMN_POSITION;
+        // Report everything up until the next whitespace character (or the end of the input)
+        while (offset < inputLength && !Character.isWhitespace(input.charAt(offset))) {
+            offset++;
         }
 
-        // Add the length of the last processed line to our current column position
-        String lastLine = matched.lines().reduce("", (a, e) -> e);
-        currentColumnPosition += lastLine.length();
+        String failedToTokenize = input.subSequence(tokenizerPosition, offset).toString();
 
-        this.currentPosition = new SourcePosition(currentLinePosition, currentColumnPosition);
+        String errorMessage = """
+                    Tokenizer error at %s: could not tokenize `%s`
 
-        // Return our matched string
-        return Optional.of(matched);
+                    See valid tokens at: https://github.com/csun-comp430-s24/RefRaff#Grammar
+                    """;
+        throw new TokenizerException(String.format(errorMessage, position.toString(), failedToTokenize));
     }
 
-    private int getNewLines(String matched) {
-        // If we're not dealing with whitespace, we can never have a newline
-        if (!matched.isBlank()) {
-            return 0;
-        }
+    private boolean inputOutOfBounds() {
+        return tokenizerPosition >= inputLength;
+    }
 
-        int newLines = 0;
-        boolean hasPrevCarriageReturn = false;
+    private char peek(int offset) {
+        int position = tokenizerPosition + offset;
+        return position < inputLength ? input.charAt(position) : '\0';
+    }
 
-        // https://docs.oracle.com/javase/7/docs/api/java/util/regex/Pattern.html#lt
-        for (char c : matched.toCharArray()) {
-            if (hasPrevCarriageReturn && c != '\n') {
-                newLines++;
-                hasPrevCarriageReturn = false;
+    // Skips the characters matched by Java's \s class: [ \t\n\x0B\f\r], counting \n, \r\n and \r as line breaks
+    private void skipWhitespace() {
+        while (!inputOutOfBounds()) {
+            char c = input.charAt(tokenizerPosition);
 
+            // Skip runs of spaces, such as indentation, in one go
+            if (c == ' ' && asciiInput != null) {
+                tokenizerPosition = asciiInput.indexOfNonSpace(tokenizerPosition + 1, inputLength);
                 continue;
             }
 
             switch (c) {
-                case '\r':
-                    hasPrevCarriageReturn = true;
-                    break;
-                case '\n':
-                case '\u0085':
-                case '\u2028':
-                case '\u2029':
-                    newLines++;
-                    break;
+                case ' ', '\t', '\u000B', '\f' -> {
+                    // Not a line break, so there's nothing to record
+                }
+                case '\n' -> tokenBuffer.addLineStart(tokenizerPosition + 1);
+                case '\r' -> {
+                    // Treat \r\n as a single line break
+                    if (peek(1) != '\n') {
+                        tokenBuffer.addLineStart(tokenizerPosition + 1);
+                    }
+                }
+                default -> {
+                    return;
+                }
             }
+
+            tokenizerPosition++;
+        }
+    }
+
+    // Returns the scanned token's kind and moves past it, or null (without moving) if no token begins here
+    private TokenKind scanToken() {
+        char c = input.charAt(tokenizerPosition);
+
+        TokenKind symbolKind = scanSymbol(c);
+        if (symbolKind != null) {
+            return symbolKind;
+        }
+
+        if (isAsciiLetter(c)) {
+            return scanReservedOrIdentifier();
+        }
+
+        if (isAsciiDigit(c)) {
+            return scanIntLiteral();
         }
 
-        return newLines;
+        return null;
     }
 
-    private boolean skipWhitespace() {
-        // Return whether whitespace was found
-        return findMatchingPattern(WHITESPACE_PATTERN).isPresent();
+    private TokenKind scanSymbol(char c) {
+        char next = peek(1);
+
+        return switch (c) {
+            case ',' -> consume(1, TokenKind.COMMA);
+            case '{' -> consume(1, TokenKind.LEFT_BRACE);
+            case '}' -> consume(1, TokenKind.RIGHT_BRACE);
+            case ';' -> consume(1, TokenKind.SEMICOLON);
+            case '(' -> consume(1, TokenKind.LEFT_PAREN);
+            case ')' -> consume(1, TokenKind.RIGHT_PAREN);
+            case ':' -> consume(1, TokenKind.COLON);
+            case '.' -> consume(1, TokenKind.DOT);
+            case '*' -> consume(1, TokenKind.MULTIPLY);
+            case '/' -> consume(1, TokenKind.DIVISION);
+            case '+' -> consume(1, TokenKind.PLUS);
+            case '-' -> consume(1, TokenKind.MINUS);
+            case '&' -> next == '&' ? consume(2, TokenKind.AND) : null;
+            case '|' -> next == '|' ? consume(2, TokenKind.OR) : null;
+            case '!' -> next == '=' ? consume(2, TokenKind.NOT_EQUALS) : consume(1, TokenKind.NOT);
+            case '<' -> next == '=' ? consume(2, TokenKind.LESS_THAN_EQUALS) : consume(1, TokenKind.LESS_THAN);
+            case '>' -> next == '=' ? consume(2, TokenKind.GREATER_THAN_EQUALS) : consume(1, TokenKind.GREATER_THAN);
+            case '=' -> next == '=' ? consume(2, TokenKind.DOUBLE_EQUALS) : consume(1, TokenKind.ASSIGNMENT);
+            default -> null;
+        };
     }
 
-    // Tries to tokenize mapped tokens
-    public Optional<Sourced<Token>> tryTokenize(Pattern pattern, Map<String, Token> tokenMap) throws TokenizerException {
-        return tryTokenize(pattern, tokenMap::get);
+    private TokenKind consume(int length, TokenKind kind) {
+        tokenizerPosition += length;
+        return kind;
     }
 
-    public Optional<Sourced<Token>> tryTokenize(Pattern pattern, Function<String, Token> stringToTokenFunction)
-            throws TokenizerException {
-        Optional<String> optionalMatchedString = findMatchingPattern(pattern);
+    // identifier ::= [a-zA-Z][a-zA-Z_0-9]*, which must not run into another word character
+    private TokenKind scanReservedOrIdentifier() {
+        int end = tokenizerPosition + 1;
+        if (asciiInput != null) {
+            end = asciiInput.indexOfNonWordCharacter(end, inputLength);
+        } else {
+            while (end < inputLength && isIdentifierPart(input.charAt(end))) {
+                end++;
+            }
+        }
+
+        if (isWordCharacterAt(end)) {
+            return null;
+        }
+
+        int start = tokenizerPosition;
+        tokenizerPosition = end;
+
+        // Compare against the reserved words in place rather than copying out the identifier
+        int length = end - start;
+        for (TokenKind reservedWordKind : RESERVED_WORD_KINDS) {
+            String reservedWord = reservedWordKind.getFixedValue();
+
+            if (reservedWord.length() == length && inputMatchesAt(start, reservedWord)) {
+                return reservedWordKind;
+            }
+        }
 
-        // If we did not find a match for our token, return an empty optional
-        if (optionalMatchedString.isEmpty()) {
-            return Optional.empty();
+        return TokenKind.IDENTIFIER;
+    }
+
+    // int literal ::= 0 | [1-9][0-9]*, which must not run into another word character (so no leading zeros)
+    private TokenKind scanIntLiteral() {
+        int end = tokenizerPosition + 1;
+        if (input.charAt(tokenizerPosition) != '0') {
+            if (asciiInput != null) {
+                end = asciiInput.indexOfNonDigit(end, inputLength);
+            } else {
+                while (end < inputLength && isAsciiDigit(input.charAt(end))) {
+                    end++;
+                }
+            }
         }
 
-        // Apply our mapping function from string to token and return its value
-        String matchedToken = optionalMatchedString.get();
-        Token token = stringToTokenFunction.apply(matchedToken);
+        if (isWordCharacterAt(end)) {
+            return null;
+        }
 
-        if (token == null) {
-            throwTypecheckerException(matchedToken);
+        tokenizerPosition = end;
+        return TokenKind.INT_LITERAL;
+    }
+
+    private boolean inputMatchesAt(int start, String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (input.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
         }
 
-        // Create the source for the line/column position for our token
-        Source source = new Source(matchedToken, previousPosition, currentPosition);
-        Sourced<Token> sourcedToken = new Sourced<>(source, token);
+        return true;
+    }
+
+    // The whitespace characters skipped between tokens, the same as Java's \s class
+    private static boolean isWhitespace(char c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r' -> true;
+            default -> false;
+        };
+    }
 
-        return Optional.of(sourcedToken);
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
 
-    public Optional<Sourced<Token>> tryTokenizeSymbol() throws TokenizerException {
-        return tryTokenize(SYMBOL_PATTERN, SYMBOL_TO_TOKEN);
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
-    public Optional<Sourced<Token>> tryTokenizeReservedOrIdentifier() throws TokenizerException {
-        return tryTokenize(
-                IDENTIFIER_PATTERN,
-                token -> RESERVED_TO_TOKEN.getOrDefault(token, new IdentifierToken(token))
-        );
+    private static boolean isIdentifierPart(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '_';
     }
 
-    public Optional<Sourced<Token>> tryTokenizeIntLiteral() throws TokenizerException {
-        return tryTokenize(INT_LITERAL_PATTERN, IntLiteralToken::new);
+    // Mirrors the word boundary rules of \b, where any Unicode letter or digit also counts as a word character
+    private boolean isWordCharacterAt(int position) {
+        if (position >= inputLength) {
+            return false;
+        }
+
+        int codePoint = Character.codePointAt(input, position);
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
     }
-    
+
 }
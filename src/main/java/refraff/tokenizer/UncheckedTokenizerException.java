@@ -0,0 +1,15 @@
+package refraff.tokenizer;
+
+// Thrown when a lazy token stream fails to tokenize, so the failure can pass through the parser
+public class UncheckedTokenizerException extends RuntimeException {
+
+    public UncheckedTokenizerException(TokenizerException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public TokenizerException getCause() {
+        return (TokenizerException) super.getCause();
+    }
+
+}
@@ -0,0 +1,186 @@
+package refraff.typechecker;
+
+import refraff.parser.function.FunctionDef;
+import refraff.parser.struct.Param;
+import refraff.parser.type.*;
+import refraff.util.SymbolMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every definition of one function name, indexed first by how many params each has and then by its param types, one
+ * param at a time. A call is resolved by following each argument's type down from the definitions with as many params
+ * as the call has arguments, so an argument is matched against every definition at once rather than one at a time.
+ *
+ * Every definition is indexed before any function body is typechecked, but a body can only call the functions declared
+ * before it (and itself), so each lookup only follows the signatures of the definitions declared before some index.
+ */
+class FunctionOverloads {
+
+    // Struct types are keyed by the symbol of their struct name, which is never negative
+    private static final int INT_TYPE_KEY = -1;
+    private static final int BOOL_TYPE_KEY = -2;
+    private static final int VOID_TYPE_KEY = -3;
+
+    /**
+     * The definitions whose first params have the same types, keyed by the type of their next param. Once every param
+     * has been followed, the signatures hold the one definition with those param types.
+     */
+    static class Signatures {
+
+        private final SymbolMap<Signatures> nextParamTypeToSignatures;
+
+        // Definitions are added in the order they're declared, so the first one added is the first one declared
+        private final int firstDeclarationIndex;
+
+        private FunctionDef functionDef;
+        private int declarationIndex;
+
+        private Signatures(int firstDeclarationIndex) {
+            this.nextParamTypeToSignatures = new SymbolMap<>();
+            this.firstDeclarationIndex = firstDeclarationIndex;
+        }
+
+        FunctionDef getFunctionDef() {
+            return functionDef;
+        }
+
+        /**
+         * Adds the signatures whose next param matches the argument type to the list. Every struct type matches the
+         * type of null, so a null argument can match more than one.
+         *
+         * @param argType the type of the next argument
+         * @param declarationCount how many definitions have been declared, counted across every function name
+         * @param matchingSignatures the list to add the matching signatures to
+         */
+        void addMatchingSignatures(Type argType, int declarationCount, List<Signatures> matchingSignatures) {
+            if (argType instanceof StructType structType && structType.isNullStruct()) {
+                for (int i = 0; i < nextParamTypeToSignatures.size(); i++) {
+                    Signatures signatures = nextParamTypeToSignatures.valueAt(i);
+
+                    if (nextParamTypeToSignatures.keyAt(i) >= 0 && signatures.isDeclaredBefore(declarationCount)) {
+                        matchingSignatures.add(signatures);
+                    }
+                }
+
+                return;
+            }
+
+            Signatures signatures = nextParamTypeToSignatures.get(getTypeKey(argType));
+            if (signatures != null && signatures.isDeclaredBefore(declarationCount)) {
+                matchingSignatures.add(signatures);
+            }
+        }
+
+        private boolean isDeclaredBefore(int declarationCount) {
+            return firstDeclarationIndex < declarationCount;
+        }
+
+    }
+
+    // The signatures of the definitions with each number of params, or null if there are none with that many
+    private final List<Signatures> paramCountToSignatures;
+    private int firstDeclarationIndex;
+
+    FunctionOverloads() {
+        this.paramCountToSignatures = new ArrayList<>();
+        this.firstDeclarationIndex = -1;
+    }
+
+    /**
+     * Adds the definition, unless there's already a definition with the same param types. Definitions must be added in
+     * the order they're declared.
+     *
+     * @param functionDef the definition to add
+     * @param declarationIndex the index of the definition in the program's function definitions
+     * @return the definition that already has the same param types, or null if the definition was added
+     */
+    FunctionDef add(FunctionDef functionDef, int declarationIndex) {
+        if (firstDeclarationIndex == -1) {
+            firstDeclarationIndex = declarationIndex;
+        }
+
+        List<Param> params = functionDef.getParams();
+
+        while (paramCountToSignatures.size() <= params.size()) {
+            paramCountToSignatures.add(null);
+        }
+
+        Signatures signatures = paramCountToSignatures.get(params.size());
+        if (signatures == null) {
+            signatures = new Signatures(declarationIndex);
+            paramCountToSignatures.set(params.size(), signatures);
+        }
+
+        for (Param param : params) {
+            int typeKey = getTypeKey(param.getType());
+            Signatures nextSignatures = signatures.nextParamTypeToSignatures.get(typeKey);
+
+            if (nextSignatures == null) {
+                nextSignatures = new Signatures(declarationIndex);
+                signatures.nextParamTypeToSignatures.put(typeKey, nextSignatures);
+            }
+
+            signatures = nextSignatures;
+        }
+
+        if (signatures.functionDef != null) {
+            return signatures.functionDef;
+        }
+
+        signatures.functionDef = functionDef;
+        signatures.declarationIndex = declarationIndex;
+        return null;
+    }
+
+    // Whether any definition of the name is one of the first declarationCount definitions declared
+    boolean isDeclaredBefore(int declarationCount) {
+        return firstDeclarationIndex != -1 && firstDeclarationIndex < declarationCount;
+    }
+
+    // Gets the signatures of the definitions with the specified number of params out of the first declarationCount
+    // definitions declared, or null if there are none
+    Signatures getSignatures(int paramCount, int declarationCount) {
+        if (paramCount >= paramCountToSignatures.size()) {
+            return null;
+        }
+
+        Signatures signatures = paramCountToSignatures.get(paramCount);
+        return signatures != null && signatures.isDeclaredBefore(declarationCount) ? signatures : null;
+    }
+
+    /**
+     * Gets the definition that was declared first out of the matching signatures, which is the one that's called when
+     * more than one definition matches (e.g. when an argument is null).
+     *
+     * @param matchingSignatures the signatures that match every argument, which must not be empty
+     * @return the first declared definition
+     */
+    static FunctionDef getFirstDeclared(List<Signatures> matchingSignatures) {
+        Signatures firstDeclared = matchingSignatures.get(0);
+
+        for (Signatures signatures : matchingSignatures) {
+            if (signatures.declarationIndex < firstDeclared.declarationIndex) {
+                firstDeclared = signatures;
+            }
+        }
+
+        return firstDeclared.functionDef;
+    }
+
+    private static int getTypeKey(Type type) {
+        if (type instanceof IntType) {
+            return INT_TYPE_KEY;
+        } else if (type instanceof BoolType) {
+            return BOOL_TYPE_KEY;
+        } else if (type instanceof VoidType) {
+            return VOID_TYPE_KEY;
+        } else if (type instanceof StructType structType && !structType.isNullStruct()) {
+            return structType.getStructName().get().getSymbol();
+        }
+
+        throw new IllegalArgumentException("Cannot key type " + type + " in a function signature.");
+    }
+
+}
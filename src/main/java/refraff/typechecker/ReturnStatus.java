@@ -1,62 +1,36 @@
 package refraff.typechecker;
 
+/**
+ * Whether a list of statements returns a value: never, only on some paths through them, or on every path. Statements
+ * are combined in the order they run, so the status of a list is the status of its statements one after another.
+ */
+public enum ReturnStatus {
 
-public class ReturnStatus {
-    boolean maybeReturns;
-    boolean definitelyReturns;
+    DOES_NOT_RETURN,
+    MAYBE_RETURNS,
+    DEFINITELY_RETURNS;
 
-    public ReturnStatus() {
-        maybeReturns = false;
-        definitelyReturns = false;
-    }
-
-    public boolean getMaybeReturns() {
-        return maybeReturns;
-    }
-
-    public boolean getDefinitelyReturns() {
-        return definitelyReturns;
+    // A function that only returns a value sometimes would run off its end the rest of the time
+    public boolean isValidReturnStatus() {
+        return this != MAYBE_RETURNS;
     }
 
-    public void setMaybeReturns(boolean boolValue) {
-        maybeReturns = boolValue;
+    // The status of these statements followed by statements with the next status
+    public ReturnStatus then(ReturnStatus next) {
+        return next.compareTo(this) > 0 ? next : this;
     }
 
-    public void setDefinitelyReturns(boolean boolValue) {
-        definitelyReturns = boolValue;
+    // The status of these statements when they only sometimes run, like the body of a loop or an if without an else
+    public ReturnStatus sometimes() {
+        return this == DOES_NOT_RETURN ? DOES_NOT_RETURN : MAYBE_RETURNS;
     }
 
-    public boolean isValidReturnStatus() {
-        if (maybeReturns && !definitelyReturns) {
-            return false;
+    public static ReturnStatus ofIfElse(ReturnStatus ifReturnStatus, ReturnStatus elseReturnStatus) {
+        if (ifReturnStatus == DEFINITELY_RETURNS && elseReturnStatus == DEFINITELY_RETURNS) {
+            return DEFINITELY_RETURNS;
         }
-        return true;
-    }
 
-    public void updateReturnStatus(ReturnStatus newReturnStatus) {
-        // newReturnStatus would be the status of a deeper set of statements
-        // in, for example, an if statement. If if definitely or maybe returns,
-        // then we update our return status to maybe
-        if (newReturnStatus.getDefinitelyReturns() == true
-                || newReturnStatus.getMaybeReturns() == true) {
-            this.maybeReturns = true;
-        }
-    }
-
-    public static ReturnStatus getMaybeReturnStatus() {
-        ReturnStatus returnStatus = new ReturnStatus();
-        returnStatus.setMaybeReturns(true);
-        return returnStatus;
+        return ifReturnStatus.sometimes().then(elseReturnStatus.sometimes());
     }
 
-    public static ReturnStatus getDefinitelyReturnsStatus() {
-        ReturnStatus returnStatus = new ReturnStatus();
-        returnStatus.setMaybeReturns(true);
-        returnStatus.setDefinitelyReturns(true);
-        return returnStatus;
-    }
-
-    public static ReturnStatus getDoesNotReturnStatus() {
-        return new ReturnStatus();
-    }
 }
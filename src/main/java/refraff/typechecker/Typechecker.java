@@ -13,52 +13,109 @@ import refraff.parser.expression.*;
 import refraff.parser.statement.*;
 import refraff.parser.function.*;
 import refraff.util.Pair;
+import refraff.util.ScopedSymbolMap;
 import refraff.util.SourcedErrorBuilder;
+import refraff.util.SymbolMap;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 public class Typechecker {
 
+    // Fewer function definitions than this are typechecked on the calling thread
+    private static final int MINIMUM_PARALLEL_FUNCTIONS = 16;
+
     private final Program program;
 
-    private final Map<Standardized<StructName>, StructDef> structNameToDef;
-    private final Map<Standardized<FunctionName>, List<FunctionDef>> functionNameToDef;
+    // Only read once every struct and function signature has been added, so they're shared by every typechecker
+    private final SymbolMap<StructDef> structNameToDef;
+    private final SymbolMap<FunctionOverloads> functionNameToOverloads;
+
+    // How many of the program's function definitions can be called, which are the ones declared before the function
+    // being typechecked and the function itself
+    private final int callableFunctionCount;
 
+    // The state of the one function body (or the program's statements) this typechecker is typechecking
     private final Stack<Boolean> loopStack;
     private final List<Pair<ReturnStmt, Type>> allReturnTypesInThisFunction;
 
-    private boolean withinFunctionDef;
+    // The function whose body is being typechecked, or null for the program's statements
+    private final FunctionDef functionDef;
+
+    // How many blocks the statement being typechecked is nested in that are statements of their own (not the body of a
+    // function, if or while), since whether their statements return isn't checked
+    private int nestedBlockDepth;
 
     private Typechecker(Program program) {
         this.program = program;
 
-        this.structNameToDef = new HashMap<>();
-        this.functionNameToDef = new HashMap<>();
+        this.structNameToDef = new SymbolMap<>();
+        this.functionNameToOverloads = new SymbolMap<>();
+
+        this.callableFunctionCount = program.getFunctionDefs().size();
 
         this.loopStack = new Stack<>();
         this.allReturnTypesInThisFunction = new ArrayList<>();
 
-        this.withinFunctionDef = false;
+        this.functionDef = null;
+        this.nestedBlockDepth = 0;
     }
 
+    // Creates a typechecker for one function body, which shares the program's signatures but none of its other state
+    private Typechecker(Typechecker programTypechecker, FunctionDef functionDef, int callableFunctionCount) {
+        this.program = programTypechecker.program;
+
+        this.structNameToDef = programTypechecker.structNameToDef;
+        this.functionNameToOverloads = programTypechecker.functionNameToOverloads;
+
+        this.callableFunctionCount = callableFunctionCount;
+
+        this.loopStack = new Stack<>();
+        this.allReturnTypesInThisFunction = new ArrayList<>();
+
+        this.functionDef = functionDef;
+        this.nestedBlockDepth = 0;
+    }
+
+    /**
+     * Typechecks the program, with its function bodies typechecked on the common fork/join pool. See
+     * {@link #typecheckProgram(Program, ForkJoinPool)}.
+     *
+     * @param program the program to typecheck
+     * @throws TypecheckerException if the program does not typecheck
+     */
     public static void typecheckProgram(Program program) throws TypecheckerException {
-        new Typechecker(program).typecheckProgram();
+        typecheckProgram(program, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Typechecks the program. Every struct and function signature is checked first, and then the function bodies are
+     * typechecked in parallel on the pool, since each body only reads the signatures and its own params. The exception
+     * thrown is always the one that typechecking the definitions one at a time, in order, would have thrown first.
+     *
+     * @param program the program to typecheck
+     * @param pool the pool to typecheck the function bodies on
+     * @throws TypecheckerException if the program does not typecheck
+     */
+    public static void typecheckProgram(Program program, ForkJoinPool pool) throws TypecheckerException {
+        new Typechecker(program).typecheckProgram(pool);
     }
 
-    private void typecheckProgram() throws TypecheckerException {
+    private void typecheckProgram(ForkJoinPool pool) throws TypecheckerException {
         // At this point, nothing is going to be added to our type environment.
         // Functions and structs are kept track of separately
         typecheckStructDefs();
-        typecheckFunctionDefs();
+        typecheckFunctionDefs(pool);
 
         // Typecheck our program's statements
         typecheckProgramStatements();
     }
 
     private void throwTypecheckerExceptionOnVariableExists(String beingParsed, AbstractSyntaxTreeNode parent, Variable variable,
-                                                                  Map<Standardized<Variable>, Type> typeEnv) throws TypecheckerException {
-        if (!typeEnv.containsKey(Standardized.of(variable))) {
+                                                                  ScopedSymbolMap<Type> typeEnv) throws TypecheckerException {
+        if (!typeEnv.containsKey(variable.getSymbol())) {
             return;
         }
 
@@ -67,10 +124,10 @@ public class Typechecker {
     }
 
     private Type throwTypecheckerExceptionOnVariableNotExists(String beingParsed, AbstractSyntaxTreeNode parent, Variable variable,
-                                                                     Map<Standardized<Variable>, Type> typeEnv) throws TypecheckerException {
-        Standardized<Variable> standardizedVariable = Standardized.of(variable);
-        if (typeEnv.containsKey(standardizedVariable)) {
-            return typeEnv.get(standardizedVariable);
+                                                                     ScopedSymbolMap<Type> typeEnv) throws TypecheckerException {
+        Type variableType = typeEnv.get(variable.getSymbol());
+        if (variableType != null) {
+            return variableType;
         }
 
         final String errorSuffix = "variable `" + variable.getName() + "` is not defined in this scope";
@@ -109,13 +166,34 @@ public class Typechecker {
     }
 
     /**
-     * Gets a copy of the current type environment. A copy of the type environment should be passed whenever
-     * we enter a new scope and do not want lower scopes to be added to a higher scope type environment.
-     * @param typeEnv the type environment to copy
-     * @return a copy of the current type environment
+     * Typechecks the statements in a lower level scope of the type environment, so that nothing they declare is in
+     * scope once they've been typechecked. Only the declarations are undone, so entering and leaving the scope never
+     * copies the type environment.
+     * @param typeEnv the type environment of the scope the statements are in
+     * @param stmts the statements to typecheck
+     * @return whether the statements return a value
      */
-    private Map<Standardized<Variable>, Type> copyOf(Map<Standardized<Variable>, Type> typeEnv) {
-        return new HashMap<>(typeEnv);
+    private ReturnStatus typecheckStatementsInLowerScope(ScopedSymbolMap<Type> typeEnv, List<Statement> stmts)
+            throws TypecheckerException {
+        typeEnv.enterScope();
+        ReturnStatus returnStatus = typecheckStatements(typeEnv, stmts);
+        typeEnv.exitScope();
+
+        return returnStatus;
+    }
+
+    // Typechecks the body of an if, else or while in a lower level scope, whether or not it's a block
+    private ReturnStatus typecheckBranchInLowerScope(ScopedSymbolMap<Type> typeEnv, Statement body)
+            throws TypecheckerException {
+        if (body instanceof StmtBlock stmtBlock) {
+            return typecheckStatementsInLowerScope(typeEnv, stmtBlock.getBlockBody());
+        }
+
+        typeEnv.enterScope();
+        ReturnStatus returnStatus = typecheckStatement(typeEnv, body);
+        typeEnv.exitScope();
+
+        return returnStatus;
     }
 
     private void typecheckStructDefs() throws TypecheckerException {
@@ -125,10 +203,9 @@ public class Typechecker {
         for (StructDef structDef : program.getStructDefs()) {
 
             StructName structName = structDef.getStructName();
-            Standardized<StructName> standardizedStructName = Standardized.of(structName);
 
             // If we don't already have this struct definition defined, add it to the map
-            if (structNameToDef.containsKey(standardizedStructName)) {
+            if (structNameToDef.containsKey(structName.getSymbol())) {
                 String stringStructName = structName.getName();
                 throwTypecheckerException(String.format(typeErrorInStructMessageFormat, stringStructName),
                         structDef, structName, "struct type `" + stringStructName + "` has already been defined");
@@ -136,15 +213,15 @@ public class Typechecker {
                 continue;
             }
 
-            structNameToDef.put(standardizedStructName, structDef);
+            structNameToDef.put(structName.getSymbol(), structDef);
 
             final String typeErrorInStructMessage = "struct definition for `" + structDef.getStructName().structName + "`";
-            Set<Standardized<Variable>> standardizedVariables = new HashSet<>();
+            StructLayout structLayout = new StructLayout();
 
-            // Add struct def variables
+            // Add struct def variables, each in the next slot of the struct's layout
             for (Param param : structDef.getParams()) {
                 // If we add a variable, and it already exists, we have a duplicate
-                if (!standardizedVariables.add(Standardized.of(param.variable))) {
+                if (structLayout.addField(param) != null) {
                     throwTypecheckerException(typeErrorInStructMessage, structDef, param,
                             "struct parameter `" + param.variable.getName() + "` has already been defined");
                 }
@@ -155,6 +232,9 @@ public class Typechecker {
                         param.variable.getName() + "` declaration";
                 typecheckTypeNotVoidAndStructNameMustExist(onVariableDeclaration, structDef, param.getType());
             }
+
+            // Field accesses and allocations of the struct look their fields up in its layout from now on
+            structDef.setLayout(structLayout);
         }
     }
 
@@ -174,7 +254,7 @@ public class Typechecker {
         StructType paramStructType = (StructType) type;
         StructName paramStructName = paramStructType.getStructName().get();
 
-        if (structNameToDef.containsKey(Standardized.of(paramStructName))) {
+        if (structNameToDef.containsKey(paramStructName.getSymbol())) {
             return;
         }
 
@@ -182,159 +262,178 @@ public class Typechecker {
         throwTypecheckerException(error, parent, type, detailedErrorMessage);
     }
 
-    private void typecheckFunctionDefs() throws TypecheckerException {
+    private void typecheckFunctionDefs(ForkJoinPool pool) throws TypecheckerException {
         final String typeErrorInFunctionMessageFormat = "function definition for `%s`";
+        List<FunctionDef> functionDefs = program.getFunctionDefs();
 
-        // Type environment for each function
-        Map<Standardized<Variable>, Type> functionTypeEnv;
-        
-        // Map all the function definitions names to their AST definitions
-        for (FunctionDef funcDef : program.getFunctionDefs()) {
-            // Replace this with signature
+        // Map all the function definitions names to their AST definitions, up to the first repeated signature
+        int signatureCount = 0;
+        TypecheckerException signatureException = null;
+
+        for (; signatureCount < functionDefs.size(); signatureCount++) {
+            FunctionDef funcDef = functionDefs.get(signatureCount);
             FunctionName funcName = funcDef.getFunctionName();
-            Standardized<FunctionName> standardizedFuncName = Standardized.of(funcName);
 
-            // Check if the function name is already in the map
-            if (!functionNameToDef.containsKey(standardizedFuncName)) {
-                functionNameToDef.put(standardizedFuncName, new ArrayList<>(List.of(funcDef)));
-            } else {
-                // Check if the signature matches one that already exists for this name
-                // Get the parameter lists
-                List<FunctionDef> existingFuncDefs = functionNameToDef.get(standardizedFuncName);
-                // For each function def
-                for (FunctionDef existingFuncDef : existingFuncDefs) {
-                    // If the current function's parameter types match this list
-                    if (existingFuncDef.matchesSignatureOf(funcDef)) {
-                        // Throw an exception
-                        String stringFuncName = funcName.getName();
-                        throwTypecheckerException(String.format(typeErrorInFunctionMessageFormat, stringFuncName),
-                                funcDef, funcName, "function signature for `" + stringFuncName + "` has already been defined");
-                    }
-                }
-                // Add the function definition to the list of definitions under this name
-                // List<FunctionDef> funcDefList = functionNameToDef.get(standardizedFuncName);
-                // funcDefList.add(funcDef);
-                existingFuncDefs.add(funcDef);
+            // Index the definition under its name, unless the name already has a definition with the same signature
+            FunctionOverloads overloads = functionNameToOverloads.get(funcName.getSymbol());
+            if (overloads == null) {
+                overloads = new FunctionOverloads();
+                functionNameToOverloads.put(funcName.getSymbol(), overloads);
             }
 
-            // Create a new type environment to check the function body
-            functionTypeEnv = new HashMap<>();
-
-            // Add the function's parameters to the type environment
-            for (Param param : funcDef.getParams()) {
-                functionTypeEnv.put(Standardized.of(param.getVariable()), param.getType());
+            if (overloads.add(funcDef, signatureCount) != null) {
+                String stringFuncName = funcName.getName();
+                signatureException = new TypecheckerException(SourcedErrorBuilder.getErrorString("Typechecker",
+                        String.format(typeErrorInFunctionMessageFormat, stringFuncName), funcDef, funcName,
+                        "function signature for `" + stringFuncName + "` has already been defined"));
+                break;
             }
+        }
+
+        // The bodies of the functions before the repeated signature would have been typechecked before it was found
+        TypecheckerException bodyException = typecheckFunctionBodies(signatureCount, pool);
+
+        if (bodyException != null) {
+            throw bodyException;
+        } else if (signatureException != null) {
+            throw signatureException;
+        }
+    }
 
-            // Check that the function either always returns, or never returns (void)
-            definitelyReturns(funcDef);
+    /*
+     * Typechecks the bodies of the first functionCount function definitions, split into runs of definitions that are
+     * each typechecked in order on the pool. Every run is joined before returning, so no body is still being
+     * typechecked once this returns, and the exception of the first run that failed is the exception of the first
+     * function that failed.
+     */
+    private TypecheckerException typecheckFunctionBodies(int functionCount, ForkJoinPool pool) {
+        if (functionCount < MINIMUM_PARALLEL_FUNCTIONS || pool.getParallelism() == 1) {
+            return typecheckFunctionBodies(0, functionCount);
+        }
 
-            // Then get the stated return type of the function
-            Type functionType = funcDef.getReturnType();
+        int runCount = Math.min(pool.getParallelism() * 4, functionCount);
 
-            // And then type check the function body statement block
-            Type functionBodyType = typecheckFunctionBody(functionType, funcDef.getFunctionBody(), functionTypeEnv);
+        List<ForkJoinTask<TypecheckerException>> runTasks = new ArrayList<>(runCount);
+        for (int i = 0; i < runCount; i++) {
+            int firstFunction = (int) ((long) functionCount * i / runCount);
+            int endFunction = (int) ((long) functionCount * (i + 1) / runCount);
 
-            // Throw an error if the return types don't match
-            throwTypecheckerExceptionOnMismatchedTypes(funcName.getName(), program, functionBodyType,
-                                                       functionType, functionBodyType);
+            runTasks.add(pool.submit(() -> typecheckFunctionBodies(firstFunction, endFunction)));
         }
+
+        TypecheckerException firstException = null;
+        for (ForkJoinTask<TypecheckerException> runTask : runTasks) {
+            TypecheckerException runException = runTask.join();
+
+            if (firstException == null) {
+                firstException = runException;
+            }
+        }
+
+        return firstException;
     }
 
-    // This is implemented as a second pass, which is not efficient, but I feel like
-    // I'd have to change so much to check for this at the same time as type checking
-    private void definitelyReturns(FunctionDef functionDef) throws TypecheckerException {
-        String functionName = functionDef.getFunctionName().getName();
-        List<Statement> statements = functionDef.getFunctionBody().getBlockBody();
-        ReturnStatus returnStatus = getReturnStatus(functionName, statements);
+    // Typechecks the bodies of the function definitions in order, and returns the exception of the first that failed
+    private TypecheckerException typecheckFunctionBodies(int firstFunction, int endFunction) {
+        List<FunctionDef> functionDefs = program.getFunctionDefs();
 
-        if (!returnStatus.isValidReturnStatus()) {
-            throw new TypecheckerException("Function " + functionName + " only returns value sometimes");
+        for (int i = firstFunction; i < endFunction; i++) {
+            try {
+                // A function can call itself and any function declared before it
+                new Typechecker(this, functionDefs.get(i), i + 1).typecheckFunctionDef();
+            } catch (TypecheckerException ex) {
+                return ex;
+            }
         }
+
+        return null;
     }
 
-    // Recursive function for checking whether a function definitely returns
-    private ReturnStatus getReturnStatus(String functionName, List<Statement> statements)
-            throws TypecheckerException {
-        ReturnStatus thisReturnStatus = new ReturnStatus();
+    private void typecheckFunctionDef() throws TypecheckerException {
+        FunctionName funcName = functionDef.getFunctionName();
 
-        // For each statement in this block
-        for (int i = 0; i < statements.size(); i++) {
+        // Create a new type environment to check the function body
+        ScopedSymbolMap<Type> functionTypeEnv = new ScopedSymbolMap<>();
 
-            if (statements.get(i) instanceof ReturnStmt returnStatement) {
-                // if this returns statement is the last statement in this block
-                if (i == statements.size() - 1) {
-                    // And if it returns a value
-                    if (returnStatement.hasReturnValue()) {
-                        // This level definitely return a value
-                        return ReturnStatus.getDefinitelyReturnsStatus();
-                    } else {
-                        // If it doesn't return a value, the return status as it is currently
-                        return thisReturnStatus;
-                    }
-                } else {
-                    // There are statements after the return, throw
-                    // CHANGE TO THROWTYPECHECKER EXCEPTION
-                    throw new TypecheckerException("Unreachable code in " + functionName);
-                }
-            }
+        // Add the function's parameters to the type environment
+        for (Param param : functionDef.getParams()) {
+            functionTypeEnv.put(param.getVariable().getSymbol(), param.getType());
+        }
 
-            // If it's an if statement
-            if (statements.get(i) instanceof IfElseStmt ifElseStmt) {
-                // If the body is a single statement, put it in a list, or get list from body
-                List<Statement> ifBody = getListOfStmts(ifElseStmt.getIfBody());
-                ReturnStatus ifReturnStatus = getReturnStatus(functionName, ifBody);
-
-                // If it's an if/else statement, get the else return status
-                Optional<Statement> optionalElse = ifElseStmt.getElseBody();
-                if (!optionalElse.isEmpty()) {
-                    List<Statement> elseBody = getListOfStmts(optionalElse.get());
-                    ReturnStatus elseReturnStatus = getReturnStatus(functionName, elseBody);
-
-                    // Throw for unreachable code
-                    if (bothDefinitelyReturn(ifReturnStatus, elseReturnStatus) && i < statements.size() - 1) {
-                        // CHANGE TO THROWTYPECHECKER EXCEPTION
-                        throw new TypecheckerException("Unreachable code in " + functionName);
-                    } else if (bothDefinitelyReturn(ifReturnStatus, elseReturnStatus)) {
-                        // If this is the last statement and both definitely return, return a definitely status
-                        return ReturnStatus.getDefinitelyReturnsStatus();
-                    } else {
-                        // Otherwise, update this status with the else return status
-                        thisReturnStatus.updateReturnStatus(elseReturnStatus);
-                    }
-                }
-                thisReturnStatus.updateReturnStatus(ifReturnStatus);
-            }
+        // Then get the stated return type of the function
+        Type functionType = functionDef.getReturnType();
 
-            // If it's a while statement, update this return status with the while loop return status
-            // I'm not going to see if any loops are always/never entered, but we could do that later if we want
-            if (statements.get(i) instanceof WhileStmt whileStmt) {
-                List<Statement> whileBody = getListOfStmts(whileStmt.getBody());
-                ReturnStatus whileReturnStatus = getReturnStatus(functionName, whileBody);
+        // And then type check the function body statement block
+        Type functionBodyType = typecheckFunctionBody(functionType, functionDef.getFunctionBody(), functionTypeEnv);
 
-                thisReturnStatus.updateReturnStatus(whileReturnStatus);
-            }
+        // Throw an error if the return types don't match
+        throwTypecheckerExceptionOnMismatchedTypes(funcName.getName(), program, functionBodyType,
+                                                   functionType, functionBodyType);
+    }
+
+    // Check that the function either always returns, or never returns (void)
+    private void throwTypecheckerExceptionOnReturnsSometimes(ReturnStatus returnStatus) throws TypecheckerException {
+        if (!returnStatus.isValidReturnStatus()) {
+            throw new TypecheckerException("Function " + functionDef.getFunctionName().getName()
+                    + " only returns value sometimes");
+        }
+    }
 
+    // Nothing can run after a return, or after a statement that returns a value on every path, in the same block
+    private void throwTypecheckerExceptionOnUnreachableCode(List<Statement> statements, int index,
+                                                            ReturnStatus returnStatus) throws TypecheckerException {
+        if (index == statements.size() - 1) {
+            return;
         }
 
-        return thisReturnStatus;
+        if (statements.get(index) instanceof ReturnStmt || returnStatus == ReturnStatus.DEFINITELY_RETURNS) {
+            throw new TypecheckerException("Unreachable code in " + functionDef.getFunctionName().getName());
+        }
     }
 
-    private boolean bothDefinitelyReturn(ReturnStatus firstReturnStatus, ReturnStatus secondReturnStatus) {
-        return firstReturnStatus.getDefinitelyReturns() == true
-               && secondReturnStatus.getDefinitelyReturns() == true;
+    /*
+     * Finds whether the statements return, without typechecking them, by the same rules typecheckStatements uses.
+     * Unreachable code and functions that only return sometimes are reported before any type errors in the function,
+     * so this is only needed to look for them past where typechecking the function body stopped with a type error.
+     */
+    private ReturnStatus getReturnStatus(List<Statement> statements) throws TypecheckerException {
+        ReturnStatus returnStatus = ReturnStatus.DOES_NOT_RETURN;
+
+        for (int i = 0; i < statements.size(); i++) {
+            ReturnStatus statementReturnStatus = getReturnStatus(statements.get(i));
+            throwTypecheckerExceptionOnUnreachableCode(statements, i, statementReturnStatus);
+
+            returnStatus = returnStatus.then(statementReturnStatus);
+        }
+
+        return returnStatus;
     }
 
-    private List<Statement> getListOfStmts(Statement statement) {
-        if (statement instanceof StmtBlock stmtBlock) {
-            return stmtBlock.getBlockBody();
-        } else {
-            return List.of(statement);
+    private ReturnStatus getReturnStatus(Statement statement) throws TypecheckerException {
+        if (statement instanceof ReturnStmt returnStmt) {
+            return returnStmt.hasReturnValue() ? ReturnStatus.DEFINITELY_RETURNS : ReturnStatus.DOES_NOT_RETURN;
+        } else if (statement instanceof IfElseStmt ifElseStmt) {
+            ReturnStatus ifReturnStatus = getBranchReturnStatus(ifElseStmt.getIfBody());
+
+            if (ifElseStmt.getElseBody().isEmpty()) {
+                return ifReturnStatus.sometimes();
+            }
+
+            return ReturnStatus.ofIfElse(ifReturnStatus, getBranchReturnStatus(ifElseStmt.getElseBody().get()));
+        } else if (statement instanceof WhileStmt whileStmt) {
+            return getBranchReturnStatus(whileStmt.getBody()).sometimes();
         }
+
+        return ReturnStatus.DOES_NOT_RETURN;
+    }
+
+    private ReturnStatus getBranchReturnStatus(Statement body) throws TypecheckerException {
+        return body instanceof StmtBlock stmtBlock ? getReturnStatus(stmtBlock.getBlockBody()) : getReturnStatus(body);
     }
 
     // Map of statements to their typechecking functions
     private static final Map<Class<? extends Statement>, 
-            TypecheckingVoidFunction<Typechecker, Statement, Map<Standardized<Variable>, Type>>> STMT_TO_TYPE_FUNC = Map.of(
+            TypecheckingFunction<Typechecker, Statement, ScopedSymbolMap<Type>, ReturnStatus>> STMT_TO_TYPE_FUNC = Map.of(
         AssignStmt.class, Typechecker::typecheckAssignStmt,
         BreakStmt.class, Typechecker::typecheckBreakStmt,
         ExpressionStmt.class, Typechecker::typecheckExpStmt,
@@ -349,26 +448,41 @@ public class Typechecker {
     // Added because we also need to be able to check the statement block list of statements
     private void typecheckProgramStatements() throws TypecheckerException {
         // Our type environment is always empty
-        typecheckStatements(new HashMap<>(), program.getStatements());
+        typecheckStatements(new ScopedSymbolMap<>(), program.getStatements());
     }
 
-    private void typecheckStatements(Map<Standardized<Variable>, Type> typeEnv, List<Statement> stmts) throws TypecheckerException {
-        
-        for (Statement stmt : stmts) {          
-            // Get the statements class
-            Class<? extends Statement> stmtClass = stmt.getClass();
+    // Typechecks the statements, and finds whether they return a value as they're typechecked
+    private ReturnStatus typecheckStatements(ScopedSymbolMap<Type> typeEnv, List<Statement> stmts)
+            throws TypecheckerException {
+        ReturnStatus returnStatus = ReturnStatus.DOES_NOT_RETURN;
+
+        for (int i = 0; i < stmts.size(); i++) {
+            ReturnStatus stmtReturnStatus = typecheckStatement(typeEnv, stmts.get(i));
 
-            if (!STMT_TO_TYPE_FUNC.containsKey(stmtClass)) {
-                // Isn't a statement?
-                throw new UnsupportedOperationException("Map did not contain mapping function for: " + stmtClass);
+            if (functionDef != null && nestedBlockDepth == 0) {
+                throwTypecheckerExceptionOnUnreachableCode(stmts, i, stmtReturnStatus);
             }
 
-            // These functions will throw exceptions if there are type errors
-            STMT_TO_TYPE_FUNC.get(stmtClass).apply(this, stmt, typeEnv);
+            returnStatus = returnStatus.then(stmtReturnStatus);
+        }
+
+        return returnStatus;
+    }
+
+    private ReturnStatus typecheckStatement(ScopedSymbolMap<Type> typeEnv, Statement stmt) throws TypecheckerException {
+        // Get the statements class
+        Class<? extends Statement> stmtClass = stmt.getClass();
+
+        if (!STMT_TO_TYPE_FUNC.containsKey(stmtClass)) {
+            // Isn't a statement?
+            throw new UnsupportedOperationException("Map did not contain mapping function for: " + stmtClass);
         }
+
+        // These functions will throw exceptions if there are type errors
+        return STMT_TO_TYPE_FUNC.get(stmtClass).apply(this, stmt, typeEnv);
     }
 
-    public void typecheckAssignStmt(final Statement stmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckAssignStmt(final Statement stmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         final String beingParsed = "assignment statement";
 
@@ -382,42 +496,45 @@ public class Typechecker {
 
         // Set the expression type to be type of the variable
         assignStmt.expression.setExpressionType(variableType);
+        return ReturnStatus.DOES_NOT_RETURN;
     }
 
-    public void typecheckBreakStmt(final Statement breakStmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckBreakStmt(final Statement breakStmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
-        if (!loopStack.isEmpty()) {
-            return;
+        if (loopStack.isEmpty()) {
+            throwTypecheckerException("break statement", breakStmt, breakStmt, "break used outside of a loop");
         }
 
-        throwTypecheckerException("break statement", breakStmt, breakStmt, "break used outside of a loop");
+        return ReturnStatus.DOES_NOT_RETURN;
     }
 
-    public void typecheckExpStmt(final Statement expStmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckExpStmt(final Statement expStmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         ExpressionStmt castExpStmt = (ExpressionStmt)expStmt;
         // Get expression from the expression statement, typecheck that
         typecheckExp(castExpStmt.getExpression(), typeEnv);
+        return ReturnStatus.DOES_NOT_RETURN;
     }
 
-    public void typecheckIfElseStmt(final Statement stmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckIfElseStmt(final Statement stmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         IfElseStmt ifElseStmt = (IfElseStmt) stmt;
         Expression condition = ifElseStmt.getCondition();
 
-        // Typecheck the condition and if statement body, and treating it as a lower level scope needing a copy
+        // Typecheck the condition and if statement body, and treating it as a lower level scope
         throwTypecheckerExceptionOnNonBooleanType("if statement", stmt, condition, typecheckExp(condition, typeEnv));
-        typecheckStatements(copyOf(typeEnv), List.of(ifElseStmt.getIfBody()));
+        ReturnStatus ifReturnStatus = typecheckBranchInLowerScope(typeEnv, ifElseStmt.getIfBody());
 
         if (ifElseStmt.getElseBody().isEmpty()) {
-            return;
+            return ifReturnStatus.sometimes();
         }
 
-        // Typecheck the else body, if it exists, and treating it as a lower level scope needing a copy
-        typecheckStatements(copyOf(typeEnv), List.of(ifElseStmt.getElseBody().get()));
+        // Typecheck the else body, if it exists, and treating it as a lower level scope
+        ReturnStatus elseReturnStatus = typecheckBranchInLowerScope(typeEnv, ifElseStmt.getElseBody().get());
+        return ReturnStatus.ofIfElse(ifReturnStatus, elseReturnStatus);
     }
 
-    public void typecheckPrintlnStmt(final Statement stmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckPrintlnStmt(final Statement stmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         PrintlnStmt printlnStmt = (PrintlnStmt) stmt;
         Expression toPrint = printlnStmt.getExpression();
@@ -425,19 +542,20 @@ public class Typechecker {
         Type toPrintType = typecheckExp(toPrint, typeEnv);
 
         if (toPrintType instanceof BoolType || toPrintType instanceof IntType) {
-            return;
+            return ReturnStatus.DOES_NOT_RETURN;
         }
 
         // If structs or void are here, throw an exception
         // In the future, we should support println with structs!
         throwTypecheckerException("println statement", printlnStmt, toPrint, "println is only defined for int and bool," +
                 " but received type `" + toPrintType.getSource().getSourceString() + "`");
+        return ReturnStatus.DOES_NOT_RETURN;
     }
 
-    public Type typecheckReturnStmt(final Statement returnStmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckReturnStmt(final Statement returnStmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         // If we aren't in a function definition, then return is invalid
-        if (!withinFunctionDef) {
+        if (functionDef == null) {
             throwTypecheckerException("return statement", returnStmt, returnStmt,
                     "return not allowed outside of function definitions");
         }
@@ -450,15 +568,28 @@ public class Typechecker {
         Type returnType = optionalExp.isEmpty() ? VOID_TYPE : typecheckExp(optionalExp.get(), typeEnv);
 
         allReturnTypesInThisFunction.add(Pair.of(castReturnStmt, returnType));
-        return returnType;
+
+        // Only a return with a value returns a value, and a return without one must still be the last statement
+        return optionalExp.isEmpty() ? ReturnStatus.DOES_NOT_RETURN : ReturnStatus.DEFINITELY_RETURNS;
     }
 
     public Type typecheckFunctionBody(final Type functionReturnType, final StmtBlock functionBody,
-                                      final Map<Standardized<Variable>, Type> typeEnv) throws TypecheckerException {
-        // Typecheck the function body statements and treat it as a lower level scope needing a copy
-        this.withinFunctionDef = true;
-        typecheckStatements(copyOf(typeEnv), functionBody.getBlockBody());
-        this.withinFunctionDef = false;
+                                      final ScopedSymbolMap<Type> typeEnv) throws TypecheckerException {
+        ReturnStatus returnStatus;
+
+        // Typecheck the function body statements and treat it as a lower level scope, which also finds whether the
+        // function returns a value, so the body is only walked once
+        try {
+            returnStatus = typecheckStatementsInLowerScope(typeEnv, functionBody.getBlockBody());
+        } catch (TypecheckerException ex) {
+            // Whether the function returns is checked before its types, so the statements after a type error are
+            // still checked for it
+            throwTypecheckerExceptionOnReturnsSometimes(getReturnStatus(functionBody.getBlockBody()));
+            throw ex;
+        }
+
+        // Check that the function either always returns, or never returns (void)
+        throwTypecheckerExceptionOnReturnsSometimes(returnStatus);
 
         throwIfReturnsDoNotMatchFunctionReturnType(functionReturnType, allReturnTypesInThisFunction, functionBody);
         allReturnTypesInThisFunction.clear();
@@ -483,14 +614,20 @@ public class Typechecker {
         }
     }
 
-    public void typecheckStmtBlock(final Statement stmtBlock, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckStmtBlock(final Statement stmtBlock, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
-        // Typecheck the statement block and treat it as a lower level scope needing a copy
+        // Typecheck the statement block and treat it as a lower level scope. Whether a block that's a statement of
+        // its own returns isn't checked, so it's taken as not returning
         StmtBlock castStmtBlock = (StmtBlock)stmtBlock;
-        typecheckStatements(copyOf(typeEnv), castStmtBlock.getBlockBody());
+
+        nestedBlockDepth++;
+        typecheckStatementsInLowerScope(typeEnv, castStmtBlock.getBlockBody());
+        nestedBlockDepth--;
+
+        return ReturnStatus.DOES_NOT_RETURN;
     }
 
-    public void typecheckVardecStmt(final Statement vardecStmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckVardecStmt(final Statement vardecStmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         VardecStmt castVardecStmt = (VardecStmt)vardecStmt;
 
@@ -505,16 +642,17 @@ public class Typechecker {
         throwTypecheckerExceptionOnMismatchedTypes("vardec statement", vardecStmt, expType, type, expType);
 
         // Add variable to map (throw if already exists)
-        if (typeEnv.put(Standardized.of(castVardecStmt.getVariable()), type) != null) {
+        if (typeEnv.put(castVardecStmt.getVariable().getSymbol(), type) != null) {
             throwTypecheckerExceptionOnVariableExists("vardec statement", vardecStmt, castVardecStmt.getVariable(),
                     typeEnv);
         }
 
         // Set the expression type to be type of the variable
         castVardecStmt.getExpression().setExpressionType(type);
+        return ReturnStatus.DOES_NOT_RETURN;
     }
 
-    public void typecheckWhileStmt(final Statement stmt, final Map<Standardized<Variable>, Type> typeEnv)
+    public ReturnStatus typecheckWhileStmt(final Statement stmt, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         WhileStmt whileStmt = (WhileStmt) stmt;
 
@@ -522,19 +660,47 @@ public class Typechecker {
         throwTypecheckerExceptionOnNonBooleanType("while statement", whileStmt, condition,
                 typecheckExp(condition, typeEnv));
 
-        // Typecheck the while statement body and treat it as a lower level scope needing a copy
+        // Typecheck the while statement body and treat it as a lower level scope
         loopStack.push(true);
-        typecheckStatements(copyOf(typeEnv), List.of(whileStmt.getBody()));
+        ReturnStatus bodyReturnStatus = typecheckBranchInLowerScope(typeEnv, whileStmt.getBody());
         loopStack.pop();
+
+        // I'm not going to see if any loops are always/never entered, but we could do that later if we want
+        return bodyReturnStatus.sometimes();
+    }
+
+    /**
+     * An expression partway through being typechecked. Expressions can nest as deep as the program likes, so rather
+     * than recursing into subexpressions, typecheckExp keeps one of these for each expression on its own stack.
+     */
+    private static class ExpressionFrame {
+
+        private final Expression expression;
+
+        // How many times the expression has been stepped, which says how far along its subexpressions it is
+        private int steps;
+
+        // The signatures of a function call's name whose params match the arguments typechecked so far
+        private List<FunctionOverloads.Signatures> matchingSignatures;
+
+        private ExpressionFrame(Expression expression) {
+            this.expression = expression;
+        }
+
+        private int nextStep() {
+            return steps++;
+        }
+
     }
 
-    // Map of Expression classes to functions that return their types
+    // Map of Expression classes to functions that step through typechecking them. Each step returns the next
+    // subexpression to typecheck, or null once the expression's type is set
     private static final Map<Class<? extends Expression>, 
-            TypecheckingFunction<Typechecker, Expression, Map<Standardized<Variable>, Type>, Type>> EXP_TO_TYPE_FUNC = Map.of(
+            TypecheckingFunction<Typechecker, ExpressionFrame, ScopedSymbolMap<Type>, Expression>> EXP_TO_TYPE_FUNC = Map.of(
                     // We already handle the expression types in the parser for literal values
-                    BoolLiteralExp.class, (typechecker, exp, typeEnv) -> exp.getExpressionType(),
-                    IntLiteralExp.class, (typechecker, exp, typeEnv) -> exp.getExpressionType(),
-                    NullExp.class, (typechecker, exp, typeEnv) -> exp.getExpressionType(),
+                    BoolLiteralExp.class, (typechecker, frame, typeEnv) -> null,
+                    IntLiteralExp.class, (typechecker, frame, typeEnv) -> null,
+                    NullExp.class, (typechecker, frame, typeEnv) -> null,
 
                     // We need to typecheck these manually
                     FuncCallExp.class, Typechecker::typecheckFuncCallExp,
@@ -546,142 +712,157 @@ public class Typechecker {
                     UnaryOpExp.class, Typechecker::typecheckUnaryOpExp
     );
 
-    // Returns true if the arguments (commaExpList) types match the param list types
-    public boolean argsMatchSignature(final List<Expression> commaExpList, final List<Param> paramList,
-                                                  final Map<Standardized<Variable>, Type> typeEnv) throws TypecheckerException {
-        // If the arg list and param list are not the same size
-        if (commaExpList.size() != paramList.size()) {
-            return false;
-        }
-
-        for (int i = 0; i < commaExpList.size(); i++) {
-            // Get the argument's type
-            Type argType = typecheckExp(commaExpList.get(i), typeEnv);
-            // If an arg type doesn't match a param type, return false
-            if (!argType.hasTypeEquality(paramList.get(i).getType())) {
-                return false;
-            }
-        }
-
-        // All of the types match, return true
-        return true;
-    }
-
     // Check that function call's arguments match a signature by the function's name,
-    // Then return the function's return type
-    public Type typecheckFuncCallExp(final Expression funcCallExp, final Map<Standardized<Variable>, Type> typeEnv)
+    // Then set the function's return type
+    private Expression typecheckFuncCallExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         final String beingParsed = "function call expression";
-        FuncCallExp castFuncCallExp = (FuncCallExp)funcCallExp;
-        // Get function name and param list
+        FuncCallExp castFuncCallExp = (FuncCallExp) frame.expression;
+        // Get function name and arg list
         FunctionName funcName = castFuncCallExp.getFuncName();
+        List<Expression> commaExpList = castFuncCallExp.getCommaExp().getExpressions();
 
-
-        // Get existing function definitions by that name
         final String funcWhereWeAre = "function name `" + funcName.getSource().getSourceString() + "`";
-        List<FunctionDef> existingFuncDefs = functionNameToDef.get(Standardized.of(funcName));
+        final int step = frame.nextStep();
 
-        if (existingFuncDefs == null) {
-            throwTypecheckerException(beingParsed, funcCallExp, funcName, funcWhereWeAre + " is not defined");
-        }
+        if (step == 0) {
+            // Get existing function definitions by that name, of the functions that can be called from here
+            FunctionOverloads overloads = functionNameToOverloads.get(funcName.getSymbol());
 
-        // For each signature of this function name
-        for (FunctionDef existingFuncDef : existingFuncDefs) {
-            // Check if the arguments match the signature
-            if (argsMatchSignature(castFuncCallExp.getCommaExp().getExpressions(), existingFuncDef.getParams(), typeEnv)) {
-                // If one does, return the function's return type
-                funcCallExp.setExpressionType(existingFuncDef.getReturnType());
-                return existingFuncDef.getReturnType();
+            if (overloads == null || !overloads.isDeclaredBefore(callableFunctionCount)) {
+                throwTypecheckerException(beingParsed, castFuncCallExp, funcName, funcWhereWeAre + " is not defined");
             }
+
+            // Only the signatures with as many params as there are arguments can match
+            FunctionOverloads.Signatures signatures =
+                    overloads.getSignatures(commaExpList.size(), callableFunctionCount);
+            frame.matchingSignatures = signatures == null ? List.of() : List.of(signatures);
+        } else {
+            // Follow the signatures down by the type of the argument we just typechecked, which was only typechecked
+            // once however many signatures there are
+            Type argType = commaExpList.get(step - 1).getExpressionType();
+            List<FunctionOverloads.Signatures> matchingSignatures = new ArrayList<>(frame.matchingSignatures.size());
+
+            for (FunctionOverloads.Signatures signatures : frame.matchingSignatures) {
+                signatures.addMatchingSignatures(argType, callableFunctionCount, matchingSignatures);
+            }
+
+            frame.matchingSignatures = matchingSignatures;
+        }
+
+        // If the arguments so far don't match any signatures, throw an exception. Arguments are only typechecked
+        // while a signature still matches, so an argument after the mismatch can't report its own error first
+        if (frame.matchingSignatures.isEmpty()) {
+            throwTypecheckerException(beingParsed, castFuncCallExp, funcName,
+                    funcWhereWeAre + " argument list does not match param types");
         }
 
-        // If we got here, the arguments don't match any signatures, so throw an exception
-        throwTypecheckerException(beingParsed, funcCallExp, funcName, funcWhereWeAre + " argument list does not match param types");
-        funcCallExp.setExpressionType(VOID_TYPE);
+        if (step < commaExpList.size()) {
+            return commaExpList.get(step);
+        }
 
-        return VOID_TYPE; // This'll never be reached because of the exception. But it won't compile without this?
+        // The first declared signature that matches every argument is the one that's called
+        FunctionDef functionDef = FunctionOverloads.getFirstDeclared(frame.matchingSignatures);
+        castFuncCallExp.setFunctionDef(functionDef);
+        castFuncCallExp.setExpressionType(functionDef.getReturnType());
+        return null;
     }
 
-    public Type typecheckParenExp(final Expression parenExp, final Map<Standardized<Variable>, Type> typeEnv)
-            throws TypecheckerException {
-        ParenExp castParenExp = (ParenExp)parenExp;
+    private Expression typecheckParenExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv) {
+        ParenExp castParenExp = (ParenExp) frame.expression;
 
         // Get expression in the parentheses, typecheck that
-        Type type = typecheckExp(castParenExp.getExp(), typeEnv);
-        castParenExp.setExpressionType(type);
+        if (frame.nextStep() == 0) {
+            return castParenExp.getExp();
+        }
 
-        return type;
+        castParenExp.setExpressionType(castParenExp.getExp().getExpressionType());
+        return null;
     }
 
-    public Type typecheckStructAllocExp(final Expression exp, final Map<Standardized<Variable>, Type> typeEnv)
+    private Expression typecheckStructAllocExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         final String beingParsed = "struct allocation expression";
-        StructAllocExp structAllocExp = (StructAllocExp) exp;
+        StructAllocExp structAllocExp = (StructAllocExp) frame.expression;
 
         // Struct name should be a safe unwrap - the parser will have looked for an identifier after new, not a null token
         StructType structType = structAllocExp.getStructType();
         StructName structName = structType.getStructName().get();
 
-        final String structWhereWeAre = "struct type `" + structName.getSource().getSourceString() + "`";
-        StructDef structDef = structNameToDef.get(Standardized.of(structName));
-
-        if (structDef == null) {
-            throwTypecheckerException(beingParsed, exp, structName, structWhereWeAre + " is not defined");
-        }
+        StructDef structDef = structNameToDef.get(structName.getSymbol());
 
-        List<Param> structDefinedParams = structDef.getParams();
+        StructLayout structLayout = structDef == null ? null : structDef.getLayout();
         List<StructActualParam> structAllocParams = structAllocExp.getParams().params;
 
-        int definedParameters = structDefinedParams.size();
-        int actualParameters = structAllocParams.size();
+        // Each step after the first comes back from typechecking the previous parameter's expression
+        final int step = frame.nextStep();
 
-        if (definedParameters != actualParameters) {
-            final String errorSuffixFormat = "expected exactly %d allocation parameters for " + structWhereWeAre
-                    + " but received %d allocation parameters";
-            String errorSuffix = String.format(errorSuffixFormat, definedParameters, actualParameters);
+        if (step == 0) {
+            if (structDef == null) {
+                throwTypecheckerException(beingParsed, structAllocExp, structName,
+                        getStructWhereWeAre(structName) + " is not defined");
+            }
 
-            AbstractSyntaxTreeNode child = actualParameters == 0 ? exp : structAllocParams.get(actualParameters - 1);
-            throwTypecheckerException(beingParsed, exp, child, errorSuffix);
-        }
+            int definedParameters = structLayout.getFieldCount();
+            int actualParameters = structAllocParams.size();
 
-        for (int i = 0; i < definedParameters; i++) {
-            Param definedParam = structDefinedParams.get(i);
-            StructActualParam allocationParam = structAllocParams.get(i);
+            if (definedParameters != actualParameters) {
+                final String errorSuffixFormat = "expected exactly %d allocation parameters for "
+                        + getStructWhereWeAre(structName) + " but received %d allocation parameters";
+                String errorSuffix = String.format(errorSuffixFormat, definedParameters, actualParameters);
 
-            Variable definedVariable = definedParam.variable;
+                AbstractSyntaxTreeNode child = actualParameters == 0
+                        ? structAllocExp
+                        : structAllocParams.get(actualParameters - 1);
+                throwTypecheckerException(beingParsed, structAllocExp, child, errorSuffix);
+            }
+        } else {
+            Type definedType = structLayout.getFieldType(step - 1);
+            Type allocationExpType = structAllocParams.get(step - 1).exp.getExpressionType();
 
-            // Check that the variable names match (in order)
-            if (!Standardized.standardizedEquals(definedVariable, allocationParam.var)) {
-                throwTypecheckerException(beingParsed, exp, allocationParam, "expected allocation for variable `"
-                        + definedVariable.name + "` but received allocation for variable `" + allocationParam.var.name + "`");
+            // Check that the type defined matches the allocation expression's type
+            if (!definedType.hasTypeEquality(allocationExpType)) {
+                throwTypecheckerExceptionOnMismatchedTypes(beingParsed + " " + getStructWhereWeAre(structName)
+                        + " for allocation variable `" + structLayout.getField(step - 1).variable.name + "`",
+                        structAllocExp, allocationExpType, definedType, allocationExpType);
             }
 
-            Type definedType = definedParam.type;
+            // This parameter is safe!
+        }
 
-            Expression allocationExp = allocationParam.exp;
-            Type allocationExpType = typecheckExp(allocationExp, typeEnv);
+        // The allocation's params are in the order of the struct's slots
+        if (step < structLayout.getFieldCount()) {
+            Variable definedVariable = structLayout.getField(step).variable;
+            StructActualParam allocationParam = structAllocParams.get(step);
 
-            // Check that the type defined matches the allocation expression's type
-            throwTypecheckerExceptionOnMismatchedTypes(beingParsed + " " + structWhereWeAre + " for allocation variable `"
-                    + definedVariable.name + "`", exp, allocationExpType, definedType, allocationExpType);
+            // Check that the variable names match (in order)
+            if (definedVariable.getSymbol() != allocationParam.var.getSymbol()) {
+                throwTypecheckerException(beingParsed, structAllocExp, allocationParam, "expected allocation for variable `"
+                        + definedVariable.name + "` but received allocation for variable `" + allocationParam.var.name + "`");
+            }
 
-            // This parameter is safe!
+            return allocationParam.exp;
         }
 
         // All parameters are safe!
         structAllocExp.setExpressionType(structAllocExp.getStructType());
-        return structAllocExp.getStructType();
+        return null;
     }
 
-    public Type typecheckVarExp(final Expression expression, final Map<Standardized<Variable>, Type> typeEnv)
+    // Only built for error messages, so typechecking an allocation doesn't build it for every one of its params
+    private String getStructWhereWeAre(StructName structName) {
+        return "struct type `" + structName.getSource().getSourceString() + "`";
+    }
+
+    private Expression typecheckVarExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
-        VariableExp variableExp = (VariableExp) expression;
+        VariableExp variableExp = (VariableExp) frame.expression;
 
         Type type = throwTypecheckerExceptionOnVariableNotExists("variable expression", variableExp,
                 variableExp.getVar(), typeEnv);
         variableExp.setExpressionType(type);
 
-        return type;
+        return null;
     }
 
     private static final BoolType BOOL_TYPE = Node.setNodeSource(new BoolType(), "bool");
@@ -738,18 +919,22 @@ public class Typechecker {
         return operandsAreValidType(validTypes, leftHandType) && leftHandType.hasTypeEquality(rightHandType);
     }
 
-    public Type typecheckerBinOpExp(final Expression binaryOpExp, final Map<Standardized<Variable>, Type> typeEnv)
+    private Expression typecheckerBinOpExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         // Get the left and right hand sides
-        BinaryOpExp castBinOpExp = (BinaryOpExp)binaryOpExp;
-        Type leftHandType = typecheckExp(castBinOpExp.getLeftExp(), typeEnv);
-        Type rightHandType = typecheckExp(castBinOpExp.getRightExp(), typeEnv);
-        OperatorEnum op = castBinOpExp.getOp();
+        BinaryOpExp castBinOpExp = (BinaryOpExp) frame.expression;
 
-        if (op == OperatorEnum.DOT) {
-            return typecheckDotExp(binaryOpExp, typeEnv);
+        switch (frame.nextStep()) {
+            case 0:
+                return castBinOpExp.getLeftExp();
+            case 1:
+                return castBinOpExp.getRightExp();
         }
 
+        Type leftHandType = castBinOpExp.getLeftExp().getExpressionType();
+        Type rightHandType = castBinOpExp.getRightExp().getExpressionType();
+        OperatorEnum op = castBinOpExp.getOp();
+
         // This may be unnecessary, but check that the operand is in the map
         if (!OP_TO_OPERAND_TYPE.containsKey(op) || !OP_TO_EVAL_TYPE.containsKey(op)) {
             throw new UnsupportedOperationException("Map did not find binary operator for: " + op.toString());
@@ -761,7 +946,7 @@ public class Typechecker {
         final String error = op.getSymbol() + " expression";
 
         // Throw exception if the operands are invalid types
-        throwTypecheckerExceptionOnMismatchedTypes(error, binaryOpExp, castBinOpExp.getRightExp(),
+        throwTypecheckerExceptionOnMismatchedTypes(error, castBinOpExp, castBinOpExp.getRightExp(),
                 leftHandType, rightHandType);
 
         if (!operandsAreValidType(validOperandTypes, leftHandType, rightHandType)) {
@@ -771,70 +956,68 @@ public class Typechecker {
                         .map(type -> "`" + type.getSource().getSourceString() + "`")
                         .collect(Collectors.joining(" | ")));
 
-            throwTypecheckerException(error, binaryOpExp, binaryOpExp, errorMessage);
+            throwTypecheckerException(error, castBinOpExp, castBinOpExp, errorMessage);
         }
 
-        // Return the binary operation's evaluation type and set our type for the next expression
-        Type evalType = OP_TO_EVAL_TYPE.get(op);
-        binaryOpExp.setExpressionType(evalType);
-
-        return evalType;
+        // Set the binary operation's evaluation type for the next expression
+        castBinOpExp.setExpressionType(OP_TO_EVAL_TYPE.get(op));
+        return null;
     }
 
-    public Type typecheckDotExp(final Expression exp, final Map<Standardized<Variable>, Type> typeEnv)
+    private Expression typecheckDotExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         final String beingParsed = "dot expression";
 
-        DotExp dotExp = (DotExp) exp;
-        Type leftHandType = typecheckExp(dotExp.getLeftExp(), typeEnv);
+        DotExp dotExp = (DotExp) frame.expression;
+        if (frame.nextStep() == 0) {
+            return dotExp.getLeftExp();
+        }
+
+        Type leftHandType = dotExp.getLeftExp().getExpressionType();
 
         if (!(leftHandType instanceof StructType)) {
             final String errorSuffix = "expected a struct reference but received a type of `"
                     + leftHandType.getParsedValue() + "`";
-            throwTypecheckerException(beingParsed, exp, leftHandType, errorSuffix);
+            throwTypecheckerException(beingParsed, dotExp, leftHandType, errorSuffix);
         }
 
         StructType structType = (StructType) leftHandType;
         if (structType.isNullStruct()) {
             final String errorSuffix = "expected a struct reference but received raw `null` reference";
-            throwTypecheckerException(beingParsed, exp, leftHandType, errorSuffix);
+            throwTypecheckerException(beingParsed, dotExp, leftHandType, errorSuffix);
         }
 
         // By this point, if we evaluated an expression that is a type of struct, that struct should absolutely exist
         StructName structName = structType.getStructName().get();
-        StructDef structDef = structNameToDef.get(Standardized.of(structName));
+        StructDef structDef = structNameToDef.get(structName.getSymbol());
 
         Variable structField = dotExp.getRightVar();
-        Standardized<Variable> standardizedStructField = Standardized.of(structField);
-        Type structFieldType = null;
-
-        for (Param param : structDef.getParams()) {
-            Standardized<Variable> standardizedVar = Standardized.of(param.variable);
-            if (standardizedStructField.equals(standardizedVar)) {
-                structFieldType = param.type;
-                break;
-            }
-        }
+        StructLayout structLayout = structDef.getLayout();
+        int slot = structLayout.getSlot(structField.getSymbol());
 
         // Check that the variable we used does exist as a parameter (or field) for the struct
-        if (structFieldType == null) {
+        if (slot == -1) {
             final String errorSuffix = "parameter `" + structField.getName() +
                     "` is not defined on struct type `" + structType.getSource().getSourceString() + "`";
-            throwTypecheckerException(beingParsed, exp, structField, errorSuffix);
+            throwTypecheckerException(beingParsed, dotExp, structField, errorSuffix);
         }
 
-        dotExp.setExpressionType(structFieldType);
-        return structFieldType;
+        dotExp.setExpressionType(structLayout.getFieldType(slot));
+        return null;
     }
 
-    public Type typecheckUnaryOpExp(final Expression exp, final Map<Standardized<Variable>, Type> typeEnv)
+    private Expression typecheckUnaryOpExp(final ExpressionFrame frame, final ScopedSymbolMap<Type> typeEnv)
             throws TypecheckerException {
         // This is VERY similar to parsing binary ops, probably could refactor at some point
-        UnaryOpExp unaryOpExp = (UnaryOpExp) exp;
+        UnaryOpExp unaryOpExp = (UnaryOpExp) frame.expression;
         OperatorEnum op = unaryOpExp.getOp();
 
         Expression expression = unaryOpExp.getExp();
-        Type expressionType = typecheckExp(expression, typeEnv);
+        if (frame.nextStep() == 0) {
+            return expression;
+        }
+
+        Type expressionType = expression.getExpressionType();
 
         List<Type> validTypes = OP_TO_OPERAND_TYPE.get(op);
         if (!operandsAreValidType(validTypes, expressionType)) {
@@ -844,31 +1027,44 @@ public class Typechecker {
                             .map(type -> "`" + type.getSource().getSourceString() + "`")
                             .collect(Collectors.joining(" | ")));
 
-            throwTypecheckerException(op.getSymbol() + " expression", exp, expressionType, errorMessage);
+            throwTypecheckerException(op.getSymbol() + " expression", unaryOpExp, expressionType, errorMessage);
         }
 
-        Type evalType = OP_TO_EVAL_TYPE.get(op);
-        unaryOpExp.setExpressionType(evalType);
-
-        return evalType;
+        unaryOpExp.setExpressionType(OP_TO_EVAL_TYPE.get(op));
+        return null;
     }
 
     public Type typecheckExp(final Expression exp,
-                                    final Map<Standardized<Variable>, Type> typeEnv) throws TypecheckerException {
+                                    final ScopedSymbolMap<Type> typeEnv) throws TypecheckerException {
+        // Expressions are typechecked with our own stack, so deeply nested expressions can't overflow the call stack.
+        // Every subexpression is typechecked before the step that comes back to its parent expression
+        Deque<ExpressionFrame> frames = new ArrayDeque<>();
+        frames.push(new ExpressionFrame(exp));
+
+        while (!frames.isEmpty()) {
+            ExpressionFrame frame = frames.peek();
+
+            // Get the expression's class
+            Class<? extends Expression> expClass = frame.expression.getClass();
+            TypecheckingFunction<Typechecker, ExpressionFrame, ScopedSymbolMap<Type>, Expression> typecheckingFunction =
+                    EXP_TO_TYPE_FUNC.get(expClass);
+
+            if (typecheckingFunction == null) {
+                // Do I throw an error here? This should be an expression and it isn't? IDK
+                // Maybe an "unsupported exception" letting us know we did development bad is good here
+                throw new UnsupportedOperationException("Map did not contain mapping function for: " + expClass);
+            }
 
-        // Get the expression's class
-        Class<? extends Expression> expClass = exp.getClass();
+            Expression subexpression = typecheckingFunction.apply(this, frame, typeEnv);
 
-        if (!EXP_TO_TYPE_FUNC.containsKey(expClass)) {
-            // Do I throw an error here? This should be an expression and it isn't? IDK
-            // Maybe an "unsupported exception" letting us know we did development bad is good here
-            throw new UnsupportedOperationException("Map did not contain mapping function for: " + expClass);
+            if (subexpression == null) {
+                frames.pop();
+            } else {
+                frames.push(new ExpressionFrame(subexpression));
+            }
         }
 
-        Type type = EXP_TO_TYPE_FUNC.get(expClass).apply(this, exp, typeEnv);
-        exp.setExpressionType(type);
-
-        return type;
+        return exp.getExpressionType();
     }
 
 }
@@ -0,0 +1,170 @@
+package refraff.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// A view of ASCII bytes as characters, so ASCII input never has to be decoded into a UTF-16 string
+public class AsciiCharSequence implements CharSequence {
+
+    // Each of these has the given byte repeated in every byte of a long
+    private static final long ONE_BYTES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long SPACE_BYTES = ' ' * ONE_BYTES;
+
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    public AsciiCharSequence(ByteBuffer bytes) {
+        // A duplicate is always big endian, so the first of eight bytes read as a long is its highest byte
+        this(bytes.duplicate(), 0, bytes.limit());
+    }
+
+    private AsciiCharSequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+
+        return new AsciiCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] characters = new byte[length];
+        bytes.get(offset, characters);
+
+        return new String(characters, StandardCharsets.ISO_8859_1);
+    }
+
+    // Gets the bytes of the characters, as a read-only view that shares them
+    public ByteBuffer asByteBuffer() {
+        return bytes.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Finds the first character in the range that is not a space, checking eight characters at a time.
+     *
+     * @param fromIndex the start of the range (inclusive)
+     * @param toIndex the end of the range (exclusive), which must be at most the length
+     * @return the index of the first character that is not a space, or toIndex if they all are
+     */
+    public int indexOfNonSpace(int fromIndex, int toIndex) {
+        int index = fromIndex;
+
+        for (; index + Long.BYTES <= toIndex; index += Long.BYTES) {
+            long stopBytes = nonZeroBytes(bytes.getLong(offset + index) ^ SPACE_BYTES);
+
+            if (stopBytes != 0) {
+                return index + Long.numberOfLeadingZeros(stopBytes) / Byte.SIZE;
+            }
+        }
+
+        while (index < toIndex && charAt(index) == ' ') {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * Finds the first character in the range that is not an ASCII word character ([a-zA-Z0-9_]), checking eight
+     * characters at a time.
+     *
+     * @param fromIndex the start of the range (inclusive)
+     * @param toIndex the end of the range (exclusive), which must be at most the length
+     * @return the index of the first character that is not a word character, or toIndex if they all are
+     */
+    public int indexOfNonWordCharacter(int fromIndex, int toIndex) {
+        int index = fromIndex;
+
+        for (; index + Long.BYTES <= toIndex; index += Long.BYTES) {
+            long word = bytes.getLong(offset + index);
+            long wordCharacterBytes = bytesInRange(word, 'a', 'z') | bytesInRange(word, 'A', 'Z')
+                    | bytesInRange(word, '0', '9') | bytesInRange(word, '_', '_');
+            long stopBytes = ~wordCharacterBytes & HIGH_BITS;
+
+            if (stopBytes != 0) {
+                return index + Long.numberOfLeadingZeros(stopBytes) / Byte.SIZE;
+            }
+        }
+
+        while (index < toIndex && isWordCharacter(charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * Finds the first character in the range that is not an ASCII digit, checking eight characters at a time.
+     *
+     * @param fromIndex the start of the range (inclusive)
+     * @param toIndex the end of the range (exclusive), which must be at most the length
+     * @return the index of the first character that is not a digit, or toIndex if they all are
+     */
+    public int indexOfNonDigit(int fromIndex, int toIndex) {
+        int index = fromIndex;
+
+        for (; index + Long.BYTES <= toIndex; index += Long.BYTES) {
+            long stopBytes = ~bytesInRange(bytes.getLong(offset + index), '0', '9') & HIGH_BITS;
+
+            if (stopBytes != 0) {
+                return index + Long.numberOfLeadingZeros(stopBytes) / Byte.SIZE;
+            }
+        }
+
+        while (index < toIndex && isDigit(charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    // Sets the high bit of every byte that isn't zero, and clears every other bit
+    private static long nonZeroBytes(long word) {
+        return (((word & LOW_BITS) + LOW_BITS) | word) & HIGH_BITS;
+    }
+
+    /*
+     * Sets the high bit of every byte from low to high (inclusive), and clears every other bit. Bytes with their high
+     * bit set are never in range, and only the low seven bits are added to, so no byte carries into the next one.
+     */
+    private static long bytesInRange(long word, char low, char high) {
+        long lowBits = word & LOW_BITS;
+        long atLeastLow = lowBits + (0x80 - low) * ONE_BYTES;
+        long aboveHigh = lowBits + (0x7F - high) * ONE_BYTES;
+
+        return atLeastLow & ~aboveHigh & ~word & HIGH_BITS;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
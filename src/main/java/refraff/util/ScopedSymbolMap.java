@@ -0,0 +1,114 @@
+package refraff.util;
+
+import java.util.Arrays;
+
+/**
+ * A {@link SymbolMap} with nested scopes. Every put is recorded in an undo log, and leaving a scope undoes the puts
+ * made since it was entered, so entering and leaving a scope never copies the entries of the scopes around it. Lookups
+ * are the same single table lookup as in a plain symbol map, whichever scope the symbol was put in.
+ *
+ * Values must not be null, since a null previous value in the undo log marks a symbol that had no value.
+ *
+ * @param <V> the type of the values
+ */
+public class ScopedSymbolMap<V> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final SymbolMap<V> entries;
+
+    // The symbol of each put, and the value it replaced (or null), in the order they were put
+    private int[] undoSymbols;
+    private Object[] undoValues;
+    private int undoSize;
+
+    // The size of the undo log when each scope still open was entered
+    private int[] scopeStarts;
+    private int scopeDepth;
+
+    public ScopedSymbolMap() {
+        this.entries = new SymbolMap<>();
+
+        this.undoSymbols = new int[INITIAL_CAPACITY];
+        this.undoValues = new Object[INITIAL_CAPACITY];
+        this.undoSize = 0;
+
+        this.scopeStarts = new int[INITIAL_CAPACITY];
+        this.scopeDepth = 0;
+    }
+
+    public V get(int symbol) {
+        return entries.get(symbol);
+    }
+
+    public boolean containsKey(int symbol) {
+        return entries.containsKey(symbol);
+    }
+
+    /**
+     * Maps the symbol to the value until the current scope is left, replacing any value it was already mapped to.
+     *
+     * @param symbol the symbol
+     * @param value the value, which must not be null
+     * @return the previous value of the symbol, or null if it had none
+     */
+    public V put(int symbol, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot put a null value in a scoped symbol map.");
+        }
+
+        V previousValue = entries.put(symbol, value);
+
+        if (undoSize == undoSymbols.length) {
+            undoSymbols = Arrays.copyOf(undoSymbols, undoSize * 2);
+            undoValues = Arrays.copyOf(undoValues, undoSize * 2);
+        }
+
+        undoSymbols[undoSize] = symbol;
+        undoValues[undoSize] = previousValue;
+        undoSize++;
+
+        return previousValue;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void enterScope() {
+        if (scopeDepth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, scopeDepth * 2);
+        }
+
+        scopeStarts[scopeDepth++] = undoSize;
+    }
+
+    /**
+     * Leaves the innermost scope, undoing every put made since it was entered in the reverse order they were made. A
+     * symbol that had no value before its put was the last entry added to the map when its put is undone.
+     *
+     * @throws IllegalStateException if no scope has been entered
+     */
+    @SuppressWarnings("unchecked")
+    public void exitScope() {
+        if (scopeDepth == 0) {
+            throw new IllegalStateException("Cannot leave a scope that was never entered.");
+        }
+
+        int scopeStart = scopeStarts[--scopeDepth];
+
+        while (undoSize > scopeStart) {
+            undoSize--;
+
+            V previousValue = (V) undoValues[undoSize];
+            undoValues[undoSize] = null;
+
+            if (previousValue == null) {
+                entries.removeLast();
+            } else {
+                entries.put(undoSymbols[undoSize], previousValue);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package refraff.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads source files for the tokenizer. Small files are read in one bulk read and larger files are memory-mapped.
+ * ASCII files, which every valid program is, are exposed as their bytes directly, and only files with other characters
+ * are decoded from UTF-8.
+ *
+ * Line endings are left as they are in the file; the tokenizer treats \n, \r\n and \r alike.
+ */
+public final class SourceFileReader {
+
+    // Mapping a file has a fixed cost that's only worth paying for larger files
+    private static final long MEMORY_MAP_THRESHOLD = 1 << 20;
+
+    private static final long NON_ASCII_BITS = 0x8080808080808080L;
+
+    private SourceFileReader() {
+    }
+
+    public static CharSequence read(Path path) throws IOException {
+        ByteBuffer bytes = readBytes(path);
+
+        if (isAscii(bytes)) {
+            return new AsciiCharSequence(bytes);
+        }
+
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    private static ByteBuffer readBytes(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Input file " + path + " is too large to read.");
+            }
+
+            if (size >= MEMORY_MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    // Checks eight bytes at a time for any byte with its high bit set
+    private static boolean isAscii(ByteBuffer bytes) {
+        int limit = bytes.limit();
+        int i = 0;
+
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            if ((bytes.getLong(i) & NON_ASCII_BITS) != 0) {
+                return false;
+            }
+        }
+
+        for (; i < limit; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
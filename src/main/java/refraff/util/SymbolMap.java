@@ -0,0 +1,167 @@
+package refraff.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from interned symbols (see {@link SymbolTable}) to values. Entries are kept in insertion order in parallel
+ * arrays, indexed by a small open addressing table, so lookups never box their keys and copies are plain array copies.
+ *
+ * @param <V> the type of the values
+ */
+public class SymbolMap<V> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Open addressing table of entry index + 1 (0 marks an empty slot), sized to a power of two
+    private int[] slots;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public SymbolMap() {
+        this.slots = new int[INITIAL_CAPACITY * 2];
+
+        this.keys = new int[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    private SymbolMap(SymbolMap<V> other) {
+        this.slots = other.slots.clone();
+
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.size = other.size;
+    }
+
+    public V get(int symbol) {
+        int index = indexOf(symbol);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+    public boolean containsKey(int symbol) {
+        return indexOf(symbol) >= 0;
+    }
+
+    /**
+     * Maps the symbol to the value, replacing any value it was already mapped to.
+     *
+     * @param symbol the symbol
+     * @param value the value
+     * @return the previous value of the symbol, or null if it had none
+     */
+    public V put(int symbol, V value) {
+        int mask = slots.length - 1;
+        int slot = symbol & mask;
+
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+
+            if (keys[index] == symbol) {
+                V previousValue = valueAt(index);
+                values[index] = value;
+
+                return previousValue;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        keys[size] = symbol;
+        values[size] = value;
+        slots[slot] = ++size;
+
+        // Keep the table at most half full
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the entry that was put last. An entry only ever probes past the entries put before it, so the last entry
+     * is the one entry that can be removed by just emptying its slot.
+     *
+     * @throws IllegalStateException if the map is empty
+     */
+    public void removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot remove an entry from an empty map.");
+        }
+
+        int index = size - 1;
+        int mask = slots.length - 1;
+        int slot = keys[index] & mask;
+
+        while (slots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        slots[slot] = 0;
+        values[index] = null;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Entries are numbered from 0 to size() - 1, in the order they were first put
+    public int keyAt(int index) {
+        return keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    public SymbolMap<V> copy() {
+        return new SymbolMap<>(this);
+    }
+
+    // Gets the index of the symbol's entry (see keyAt), or -1 if the symbol has no entry
+    public int indexOf(int symbol) {
+        int mask = slots.length - 1;
+        int slot = symbol & mask;
+
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+
+            if (keys[index] == symbol) {
+                return index;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+
+        for (int index = 0; index < size; index++) {
+            int slot = keys[index] & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = index + 1;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package refraff.util;
+
+import java.util.Arrays;
+
+/**
+ * Interns the identifiers of one compilation to dense int symbols, starting at 0. Two identifiers have the same symbol
+ * exactly when they have the same name, so later stages can compare and look up names by their symbol alone. Symbols
+ * from different tables mean nothing to each other.
+ *
+ * The tokenizer interns identifiers straight from the input, without copying them out first. Nodes that are made from
+ * a name rather than a token are interned in the table of the compilation running on the current thread, see
+ * {@link #current()}.
+ */
+public final class SymbolTable {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final ThreadLocal<SymbolTable> CURRENT = ThreadLocal.withInitial(SymbolTable::new);
+
+    // Open addressing table of symbol + 1 (0 marks an empty slot), sized to a power of two
+    private int[] slots;
+
+    // Names are only ever appended, and the count is written after them, so they can be read without the lock
+    private volatile String[] names;
+    private int[] nameHashes;
+    private volatile int symbolCount;
+
+    public SymbolTable() {
+        this.slots = new int[INITIAL_CAPACITY * 2];
+
+        this.names = new String[INITIAL_CAPACITY];
+        this.nameHashes = new int[INITIAL_CAPACITY];
+        this.symbolCount = 0;
+    }
+
+    /**
+     * Gets the table of the compilation running on the current thread, which is a new one if no compilation has been
+     * started on the thread yet.
+     *
+     * @return the current table
+     */
+    public static SymbolTable current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a new compilation on the current thread with a new, empty table, so nothing interned by earlier
+     * compilations is kept.
+     *
+     * @return the new current table
+     */
+    public static SymbolTable startCompilation() {
+        SymbolTable symbolTable = new SymbolTable();
+        CURRENT.set(symbolTable);
+
+        return symbolTable;
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * Interns the characters in the specified range, only copying them out if they have not been interned before.
+     *
+     * @param text the text holding the name
+     * @param start the start of the name (inclusive)
+     * @param end the end of the name (exclusive)
+     * @return the symbol of the name
+     */
+    public synchronized int intern(CharSequence text, int start, int end) {
+        // Same as String::hashCode, so interning a String or a range of the input agree
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+
+        while (slots[slot] != 0) {
+            int symbol = slots[slot] - 1;
+
+            if (nameHashes[symbol] == hash && contentEquals(names[symbol], text, start, end)) {
+                return symbol;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        int symbol = addName(text.subSequence(start, end).toString(), hash);
+        slots[slot] = symbol + 1;
+
+        // Keep the table at most half full
+        if (symbolCount * 2 > slots.length) {
+            rehash();
+        }
+
+        return symbol;
+    }
+
+    public String getName(int symbol) {
+        // Reading the count first means the names hold every symbol below it
+        if (symbol < 0 || symbol >= symbolCount) {
+            throw new IllegalArgumentException("Symbol " + symbol + " has not been interned.");
+        }
+
+        return names[symbol];
+    }
+
+    public int size() {
+        return symbolCount;
+    }
+
+    private int addName(String name, int hash) {
+        int symbol = symbolCount;
+
+        if (symbol == names.length) {
+            names = Arrays.copyOf(names, symbol * 2);
+            nameHashes = Arrays.copyOf(nameHashes, symbol * 2);
+        }
+
+        names[symbol] = name;
+        nameHashes[symbol] = hash;
+        symbolCount = symbol + 1;
+
+        return symbol;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            int slot = spread(nameHashes[symbol]) & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = symbol + 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean contentEquals(String name, CharSequence text, int start, int end) {
+        int length = end - start;
+        if (name.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
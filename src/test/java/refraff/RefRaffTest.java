@@ -1,18 +1,34 @@
 package refraff;
 
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.api.io.CleanupMode;
 import org.junit.jupiter.api.io.TempDir;
+import refraff.parser.Parser;
+import refraff.parser.Program;
+import refraff.tokenizer.Tokenizer;
+import refraff.typechecker.Typechecker;
+import refraff.util.AsciiCharSequence;
 import refraff.util.ResourceUtil;
+import refraff.util.SourceFileReader;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RefRaffTest {
@@ -38,6 +54,177 @@ public class RefRaffTest {
         );
     }
 
+    @Test
+    public void testCompilesWithCarriageReturnLineEndings() throws IOException {
+        String program = ResourceUtil.readProgramInputFile().replace("\n", "\r\n");
+        Files.writeString(tempDir.toPath().resolve("program_crlf.refraff"), program);
+
+        RefRaff.doGeneration(tempDir, "program_crlf.refraff", "output.c");
+        assertTrue(new File(tempDir, "output.c").exists());
+    }
+
+    @Test
+    public void testSourceFileReaderReadsAsciiWithoutDecoding() throws IOException {
+        Path asciiFile = tempDir.toPath().resolve("ascii.refraff");
+        Files.writeString(asciiFile, "int a = 1;\nprintln(a);\n", StandardCharsets.US_ASCII);
+
+        CharSequence input = SourceFileReader.read(asciiFile);
+
+        assertInstanceOf(AsciiCharSequence.class, input);
+        assertEquals("int a = 1;\nprintln(a);\n", input.toString());
+        assertEquals("a = 1", input.subSequence(4, 9).toString());
+    }
+
+    @Test
+    public void testSourceFileReaderDecodesNonAsciiAsUtf8() throws IOException {
+        Path utf8File = tempDir.toPath().resolve("utf8.refraff");
+        Files.writeString(utf8File, "int \u00e9 = 1;", StandardCharsets.UTF_8);
+
+        assertEquals("int \u00e9 = 1;", SourceFileReader.read(utf8File).toString());
+    }
+
+    @Test
+    public void testProgramCacheLoadsTypecheckedProgram() throws Exception {
+        String input = ResourceUtil.readProgram2InputFile();
+        Program program = Parser.parseProgram(new Tokenizer(input).tokenize());
+        Typechecker.typecheckProgram(program);
+
+        ProgramCache programCache = new ProgramCache(tempDir.toPath().resolve(RefRaff.CACHE_DIRECTORY_NAME));
+        Path inputFile = tempDir.toPath().resolve("program2.txt");
+        String key = programCache.getKey(input);
+        programCache.store(inputFile, key, program);
+
+        // Expressions are only equal if their expression types are too
+        assertEquals(program, programCache.load(inputFile, key, input));
+        assertNotEquals(key, programCache.getKey(input + "\n"));
+    }
+
+    @Test
+    public void testProgramCacheMissesOnCompilerVersionMismatch() throws Exception {
+        String input = ResourceUtil.readProgram2InputFile();
+        Program program = Parser.parseProgram(new Tokenizer(input).tokenize());
+        Typechecker.typecheckProgram(program);
+
+        Path cacheDirectory = tempDir.toPath().resolve(RefRaff.CACHE_DIRECTORY_NAME);
+        Path inputFile = tempDir.toPath().resolve("program2.txt");
+        ProgramCache oldProgramCache = new ProgramCache(cacheDirectory, "1.0.0+20260101000000");
+        oldProgramCache.store(inputFile, oldProgramCache.getKey(input), program);
+
+        // A rebuilt compiler looks the same input up under a key of its own, so never loads the old program
+        ProgramCache newProgramCache = new ProgramCache(cacheDirectory, "1.0.0+20260102000000");
+        assertNotEquals(oldProgramCache.getKey(input), newProgramCache.getKey(input));
+        assertNull(newProgramCache.load(inputFile, newProgramCache.getKey(input), input));
+
+        // And replaces the old program rather than adding to it
+        newProgramCache.store(inputFile, newProgramCache.getKey(input), program);
+        assertEquals(program, newProgramCache.load(inputFile, newProgramCache.getKey(input), input));
+        assertNull(oldProgramCache.load(inputFile, oldProgramCache.getKey(input), input));
+        assertEquals(1, countCacheFiles(cacheDirectory));
+    }
+
+    @Test
+    public void testProgramCacheKeepsOneProgramPerInputFile() throws Exception {
+        String input = ResourceUtil.readProgram2InputFile();
+        String editedInput = input + "\nprintln(1);\n";
+        Program program = Parser.parseProgram(new Tokenizer(input).tokenize());
+        Program editedProgram = Parser.parseProgram(new Tokenizer(editedInput).tokenize());
+        Typechecker.typecheckProgram(program);
+        Typechecker.typecheckProgram(editedProgram);
+
+        Path cacheDirectory = tempDir.toPath().resolve(RefRaff.CACHE_DIRECTORY_NAME);
+        ProgramCache programCache = new ProgramCache(cacheDirectory);
+        Path inputFile = tempDir.toPath().resolve("program2.txt");
+        Path otherInputFile = tempDir.toPath().resolve("other").resolve("program2.txt");
+
+        programCache.store(inputFile, programCache.getKey(input), program);
+        programCache.store(otherInputFile, programCache.getKey(input), program);
+        assertEquals(2, countCacheFiles(cacheDirectory));
+
+        // Editing the input replaces its program, and the program from before the edit is no longer loaded
+        programCache.store(inputFile, programCache.getKey(editedInput), editedProgram);
+        assertEquals(2, countCacheFiles(cacheDirectory));
+        assertNull(programCache.load(inputFile, programCache.getKey(input), input));
+        assertEquals(editedProgram, programCache.load(inputFile, programCache.getKey(editedInput), editedInput));
+        assertEquals(program, programCache.load(otherInputFile, programCache.getKey(input), input));
+    }
+
+    @Test
+    public void testProgramCacheCompilerVersionComesFromBuild() {
+        assertTrue(ProgramCache.COMPILER_VERSION.matches("[^+]+\\+\\d{14}"), ProgramCache.COMPILER_VERSION);
+    }
+
+    @Test
+    public void testProgramCacheIsOffForUnknownCompilerVersion() throws Exception {
+        String input = ResourceUtil.readProgram2InputFile();
+        Program program = Parser.parseProgram(new Tokenizer(input).tokenize());
+        Typechecker.typecheckProgram(program);
+
+        Path cacheDirectory = tempDir.toPath().resolve(RefRaff.CACHE_DIRECTORY_NAME);
+        ProgramCache programCache = new ProgramCache(cacheDirectory, ProgramCache.UNKNOWN_VERSION);
+        assertFalse(programCache.isEnabled());
+
+        Path inputFile = tempDir.toPath().resolve("program2.txt");
+        programCache.store(inputFile, programCache.getKey(input), program);
+        assertFalse(Files.exists(cacheDirectory));
+        assertNull(programCache.load(inputFile, programCache.getKey(input), input));
+    }
+
+    @Test
+    public void testProgramCacheCanBeTurnedOff() throws IOException {
+        ResourceUtil.copyResourceFile("program.txt", new File(tempDir, "program.txt"));
+
+        System.setProperty(ProgramCache.ENABLED_PROPERTY, "false");
+        try {
+            assertFalse(new ProgramCache(tempDir.toPath()).isEnabled());
+
+            RefRaff.doGeneration(tempDir, "program.txt", "output.c");
+        } finally {
+            System.clearProperty(ProgramCache.ENABLED_PROPERTY);
+        }
+
+        assertTrue(new File(tempDir, "output.c").exists());
+        assertFalse(Files.exists(tempDir.toPath().resolve(RefRaff.CACHE_DIRECTORY_NAME)));
+    }
+
+    @Test
+    public void testProgramCacheMissesOnCorruptFile() throws IOException {
+        String input = ResourceUtil.readProgramInputFile();
+        ProgramCache programCache = new ProgramCache(tempDir.toPath());
+        Path inputFile = tempDir.toPath().resolve("program.txt");
+        String key = programCache.getKey(input);
+
+        assertNull(programCache.load(inputFile, key, input));
+
+        Files.write(programCache.getCacheFile(inputFile), new byte[] { 0x52, 0x52, 0x41 });
+        assertNull(programCache.load(inputFile, key, input));
+
+        // The right key, but a program cut short after it
+        Files.write(programCache.getCacheFile(inputFile), (key + "RRA").getBytes(StandardCharsets.US_ASCII));
+        assertNull(programCache.load(inputFile, key, input));
+    }
+
+    @Test
+    public void testCompilesFromProgramCache() throws IOException {
+        ResourceUtil.copyResourceFile("program.txt", new File(tempDir, "program.txt"));
+
+        RefRaff.doGeneration(tempDir, "program.txt", "output.c");
+        String output = Files.readString(tempDir.toPath().resolve("output.c"));
+
+        Path cacheDirectory = tempDir.toPath().resolve(RefRaff.CACHE_DIRECTORY_NAME);
+        ProgramCache programCache = new ProgramCache(cacheDirectory);
+        assertTrue(Files.exists(programCache.getCacheFile(new File(tempDir, "program.txt").toPath())));
+
+        RefRaff.doGeneration(tempDir, "program.txt", "output_from_cache.c");
+        assertEquals(output, Files.readString(tempDir.toPath().resolve("output_from_cache.c")));
+        assertEquals(1, countCacheFiles(cacheDirectory));
+    }
+
+    private static long countCacheFiles(Path cacheDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.count();
+        }
+    }
+
     private DynamicTest testCompilesSuccessfully(String inputFileName) {
         return testCompiles(inputFileName, true, (file) -> assertTrue(file.exists()));
     }
@@ -39,6 +39,42 @@ public class SourceTest {
     }
 
     @Test
+    public void testSpansOfSourceBufferMatchSourcesWithText() {
+        // int x = true;
+        SourceBuffer sourceBuffer = new SourceBuffer("int x = true;");
+
+        Source intSpan = new Source(sourceBuffer, 0, 3);
+        Source semicolonSpan = new Source(sourceBuffer, 12, 13);
+        Source combinedSpan = Source.fromSources(intSpan, new Source(sourceBuffer, 4, 5), semicolonSpan);
+
+        Source expectedSource = new Source("int x = true;", new SourcePosition(1, 1), new SourcePosition(1, 14));
+
+        assertEquals("int x = true;", combinedSpan.getSourceString());
+        assertEquals(expectedSource, combinedSpan);
+        assertEquals(expectedSource.hashCode(), combinedSpan.hashCode());
+        assertEquals(new Source(sourceBuffer, 0, 13), combinedSpan);
+    }
+
+    @Test
+    public void testSpansOfSourceSegmentMoveWithIt() {
+        SourceBuffer sourceBuffer = new SourceBuffer("int x = true;");
+        SourceSegment sourceSegment = new SourceSegment(sourceBuffer);
+
+        Source trueSpan = sourceSegment.span(8, 12);
+        Source combinedSpan = Source.fromSources(trueSpan, sourceSegment.span(12, 13));
+        assertEquals(new Source(sourceBuffer, 8, 13), combinedSpan);
+
+        // The variable is renamed from x to abc, which moves everything after it two characters along
+        SourceBuffer editedBuffer = new SourceBuffer("int abc = true;");
+        sourceSegment.move(editedBuffer, 2);
+
+        assertEquals("true", trueSpan.getSourceString());
+        assertEquals(new SourcePosition(1, 11), trueSpan.getStartPosition());
+        assertEquals(new Source(editedBuffer, 10, 14), trueSpan);
+        assertEquals(new Source(editedBuffer, 10, 15), combinedSpan);
+    }
+
+        @Test
     public void testFromSourceWithMultilineSources() {
         String expectedInput = """
                 func foo(int a): int {
@@ -22,6 +22,7 @@ import refraff.tokenizer.TokenizerException;
 import refraff.typechecker.Typechecker;
 import refraff.typechecker.TypecheckerException;
 import refraff.util.ResourceUtil;
+import refraff.util.SymbolTable;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -1674,7 +1675,7 @@ public class CodegenTest {
     public void structScopeManagerThrowsWhenCheckingIfVariableIsInScopeOnEmptyStack() {
         // This is for code coverage
         StructScopeManager structScopeManager = new StructScopeManager();
-        String variableName = "variableName";
+        int variableName = SymbolTable.current().intern("variableName");
         assertThrows(CodegenException.class, () -> structScopeManager.isInScope(variableName));
     }
 
@@ -1682,7 +1683,7 @@ public class CodegenTest {
     public void structScopeManagerThrowsWhenAddingVariableToEmptyStack() {
         // This is for code coverage
         StructScopeManager structScopeManager = new StructScopeManager();
-        String variableName = "variableName";
+        int variableName = SymbolTable.current().intern("variableName");
         StructType structType = getStructType("structTypeName");
         assertThrows(CodegenException.class, () -> structScopeManager.addStructVariableToScope(variableName, structType));
     }
@@ -1753,6 +1754,28 @@ public class CodegenTest {
         }
     }
 
+    @Test
+    public void testCodegenDeeplyNestedExpressionsWithoutException() {
+        final int deepNesting = 100_000;
+        String input = """
+                struct Node {
+                    int value;
+                    Node rest;
+                }
+
+                """
+                + "int x = " + "(".repeat(deepNesting) + "1" + " + 1)".repeat(deepNesting) + ";\n"
+                + "Node n = " + "new Node { value: x, rest: ".repeat(deepNesting) + "null" + " }".repeat(deepNesting) + ";\n"
+                + "println(" + "n" + ".rest".repeat(deepNesting - 1) + ".value);";
+        try {
+            Program program = Parser.parseProgram(new Tokenizer(input).tokenStream());
+            Typechecker.typecheckProgram(program);
+            assertDoesNotThrow(() -> Codegen.generateProgram(program, tempDirectory));
+        } catch (TokenizerException | ParserException | TypecheckerException ex) {
+            fail(ex.toString());
+        }
+    }
+
     // Needs integration testing with leaks (for when we start working on reference counted memory management)
 
 }
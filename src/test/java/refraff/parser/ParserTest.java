@@ -3,10 +3,14 @@ package refraff.parser;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.Test;
 import refraff.Source;
@@ -571,6 +575,62 @@ public class ParserTest {
         testStatementMatchesExpected(statement, input);
     }
 
+    @Test
+    public void testParseSamePrecedenceOperatorsAreLeftAssociative() {
+        // 1 - 2 + 3 / 4 * 5;
+        Token[] input = toArray(new IntLiteralToken("1"), new MinusToken(), new IntLiteralToken("2"), new PlusToken(),
+                new IntLiteralToken("3"), new DivisionToken(), new IntLiteralToken("4"), new MultiplyToken(),
+                new IntLiteralToken("5"), new SemicolonToken());
+
+        Expression binOpMinus = new BinaryOpExp(new IntLiteralExp(1), OperatorEnum.MINUS, new IntLiteralExp(2));
+        Expression binOpDivide = new BinaryOpExp(new IntLiteralExp(3), OperatorEnum.DIVISION, new IntLiteralExp(4));
+        Expression binOpMult = new BinaryOpExp(binOpDivide, OperatorEnum.MULTIPLY, new IntLiteralExp(5));
+        Expression binOpAdd = new BinaryOpExp(binOpMinus, OperatorEnum.PLUS, binOpMult);
+
+        testStatementMatchesExpected(new ExpressionStmt(binOpAdd), input);
+    }
+
+    @Test
+    public void testChainedInequalitiesThrowException() {
+        // 1 < 2 < 3;
+        testProgramParsesWithException(new IntLiteralToken("1"), new LessThanToken(), new IntLiteralToken("2"),
+                new LessThanToken(), new IntLiteralToken("3"), new SemicolonToken());
+    }
+
+    @Test
+    public void testChainedInequalitiesOnRightOfEqualsThrowException() {
+        // 1 == 1 < 2 < 3;
+        ParserException ex = assertThrows(ParserMalformedException.class, () -> parseProgram(
+                new IntLiteralToken("1"), new DoubleEqualsToken(), new IntLiteralToken("1"), new LessThanToken(),
+                new IntLiteralToken("2"), new LessThanToken(), new IntLiteralToken("3"), new SemicolonToken()));
+
+        assertTrue(ex.getMessage().contains("expected terminating `;`"));
+    }
+
+    @Test
+    public void testChainedInequalitiesOnRightOfAndThrowException() {
+        // true && 1 >= 2 < 3;
+        ParserException ex = assertThrows(ParserMalformedException.class, () -> parseProgram(
+                new TrueToken(), new AndToken(), new IntLiteralToken("1"), new GreaterThanEqualsToken(),
+                new IntLiteralToken("2"), new LessThanToken(), new IntLiteralToken("3"), new SemicolonToken()));
+
+        assertTrue(ex.getMessage().contains("expected terminating `;`"));
+    }
+
+    @Test
+    public void testInequalitiesOnEitherSideOfEquals() {
+        // 1 < 2 == 3 > 4;
+        Token[] input = toArray(new IntLiteralToken("1"), new LessThanToken(), new IntLiteralToken("2"),
+                new DoubleEqualsToken(), new IntLiteralToken("3"), new GreaterThanToken(), new IntLiteralToken("4"),
+                new SemicolonToken());
+
+        Expression binOpLt = new BinaryOpExp(new IntLiteralExp(1), OperatorEnum.LESS_THAN, new IntLiteralExp(2));
+        Expression binOpGt = new BinaryOpExp(new IntLiteralExp(3), OperatorEnum.GREATER_THAN, new IntLiteralExp(4));
+        Expression binOpEquals = new BinaryOpExp(binOpLt, OperatorEnum.DOUBLE_EQUALS, binOpGt);
+
+        testStatementMatchesExpected(new ExpressionStmt(binOpEquals), input);
+    }
+
     @Test
     public void testStructDefWithNoParams() {
         // struct A {}
@@ -896,6 +956,20 @@ public class ParserTest {
         testProgramParsesWithException(new ReturnToken(), new IntLiteralToken("2"));
     }
 
+    @Test
+    public void testReturnWithMissingRightOperandThrowsException() {
+        // return 1 + ;
+        testProgramParsesWithException(new ReturnToken(), new IntLiteralToken("1"), new PlusToken(),
+                new SemicolonToken());
+    }
+
+    @Test
+    public void testAssignmentWithoutExpressionInStatementBlockThrowsException() {
+        // { x = ; }
+        testProgramParsesWithException(new LeftBraceToken(), new IdentifierToken("x"), new AssignmentToken(),
+                new SemicolonToken(), new RightBraceToken());
+    }
+
     @Test
     public void testStatementBlockWithoutClosingBraceThrowsException() {
         // {
@@ -1088,4 +1162,297 @@ public class ParserTest {
         }
     }
 
+    @Test
+    public void testParseProgramFromTokenStreamMatchesParseProgramFromTokens() throws TokenizerException, ParserException {
+        String input = ResourceUtil.readProgramInputFile();
+
+        Program expectedProgram = Parser.parseProgram(new Tokenizer(input).tokenize());
+        Program actualProgram = Parser.parseProgram(new Tokenizer(input).tokenStream());
+
+        assertEquals(expectedProgram, actualProgram);
+        assertEquals(expectedProgram.getSource(), actualProgram.getSource());
+    }
+
+    private static String manyDefinitionsProgram(int functionCount) {
+        StringBuilder program = new StringBuilder("struct Node { int value; Node rest; }\n");
+
+        for (int i = 0; i < functionCount; i++) {
+            program.append("func f").append(i).append("(Node list, int n): int {\n")
+                    .append("  while (list != null) { { n = n + list.value; } list = list.rest; }\n")
+                    .append("  if (n > 10) { return n; } else { return f").append(i).append("(list, n + 1); }\n")
+                    .append("}\n");
+        }
+
+        return program.append("Node list = new Node { value: 1, rest: null };\nprintln(f0(list, 0));\n").toString();
+    }
+
+    @Test
+    public void testParseProgramInParallelMatchesParseProgram() throws TokenizerException, ParserException {
+        String input = manyDefinitionsProgram(200);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            Program expectedProgram = Parser.parseProgram(new Tokenizer(input).tokenizeToBuffer());
+            Program actualProgram = Parser.parseProgramInParallel(new Tokenizer(input).tokenizeToBuffer(), pool);
+
+            assertEquals(expectedProgram, actualProgram);
+            assertEquals(expectedProgram.getSource(), actualProgram.getSource());
+            assertEquals(201, actualProgram.getStructDefs().size() + actualProgram.getFunctionDefs().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseProgramInParallelThrowsSameException() throws TokenizerException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Break a function in the middle, put a struct after the functions, and leave the last function unclosed
+        String[] inputs = {
+                manyDefinitionsProgram(200).replace("func f100(Node list, int n): int {", "func f100(Node list, int n) {"),
+                manyDefinitionsProgram(200).replace("Node list = new", "struct A { int a; }\nNode list = new"),
+                manyDefinitionsProgram(200).replaceFirst("}\nNode list", "\nNode list")
+        };
+
+        try {
+            for (String input : inputs) {
+                ParserException expected = assertThrows(ParserException.class,
+                        () -> Parser.parseProgram(new Tokenizer(input).tokenizeToBuffer()));
+                ParserException actual = assertThrows(ParserException.class,
+                        () -> Parser.parseProgramInParallel(new Tokenizer(input).tokenizeToBuffer(), pool));
+
+                assertEquals(expected.getMessage(), actual.getMessage());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final int DEEP_NESTING = 100_000;
+
+    @Test
+    public void testParseDeeplyNestedExpressions() throws TokenizerException, ParserException {
+        String input = "x = " + "(".repeat(DEEP_NESTING) + "1" + " + 1)".repeat(DEEP_NESTING) + ";\n"
+                + "x = " + "new Node { value: 1, rest: ".repeat(DEEP_NESTING) + "null" + " }".repeat(DEEP_NESTING) + ";\n"
+                + "x = " + "f(".repeat(DEEP_NESTING) + "a" + ".b".repeat(DEEP_NESTING) + ")".repeat(DEEP_NESTING) + ";";
+
+        Program program = Parser.parseProgram(new Tokenizer(input).tokenStream());
+        List<Statement> statements = program.getStatements();
+        assertEquals(3, statements.size());
+
+        int parens = 0;
+        Expression expression = ((AssignStmt) statements.get(0)).getExpression();
+        for (; expression instanceof ParenExp parenExp; parens++) {
+            expression = ((BinaryOpExp) parenExp.getExp()).getLeftExp();
+        }
+
+        assertEquals(DEEP_NESTING, parens);
+        assertEquals(1, ((IntLiteralExp) expression).getIntLiteral());
+
+        int structAllocs = 0;
+        expression = ((AssignStmt) statements.get(1)).getExpression();
+        for (; expression instanceof StructAllocExp structAllocExp; structAllocs++) {
+            expression = structAllocExp.getParams().getStructActualParams().get(1).getExpression();
+        }
+
+        assertEquals(DEEP_NESTING, structAllocs);
+        assertTrue(expression instanceof NullExp);
+
+        int funcCalls = 0;
+        expression = ((AssignStmt) statements.get(2)).getExpression();
+        for (; expression instanceof FuncCallExp funcCallExp; funcCalls++) {
+            expression = funcCallExp.getCommaExp().getExpressions().get(0);
+        }
+
+        int dots = 0;
+        for (; expression instanceof DotExp dotExp; dots++) {
+            expression = dotExp.getLeftExp();
+        }
+
+        assertEquals(DEEP_NESTING, funcCalls);
+        assertEquals(DEEP_NESTING, dots);
+    }
+
+    @Test
+    public void testParseDeeplyNestedExpressionThrowsParserException() {
+        String input = "x = " + "(".repeat(DEEP_NESTING) + "1 +" + ")".repeat(DEEP_NESTING) + ";";
+        assertThrows(ParserException.class, () -> Parser.parseProgram(new Tokenizer(input).tokenStream()));
+    }
+
+    @Test
+    public void testParseProgramFromTokenStreamThrowsTokenizerException() {
+        String input = "int a = 1;\nint b = $;";
+        assertThrows(TokenizerException.class, () -> Parser.parseProgram(new Tokenizer(input).tokenStream()));
+    }
+
+    // Applies the edit to the input, and checks the program parsed again is the same as parsing the edited input
+    private IncrementalProgram testReparseMatchesParseProgram(IncrementalProgram previous, int editOffset,
+                                                              int removedLength, String insertedText)
+            throws TokenizerException, ParserException {
+        CharSequence input = previous.getTokens().getSourceBuffer().getInput();
+        String editedInput = new StringBuilder(input).replace(editOffset, editOffset + removedLength, insertedText)
+                .toString();
+
+        Program expectedProgram = Parser.parseProgram(new Tokenizer(editedInput).tokenizeToBuffer());
+        IncrementalProgram reparsed = Parser.reparse(previous, editOffset, removedLength, insertedText);
+
+        assertEquals(expectedProgram, reparsed.getProgram());
+        assertEquals(expectedProgram.getSource(), reparsed.getProgram().getSource());
+        return reparsed;
+    }
+
+    @Test
+    public void testReparseOnlyParsesEditedDefinition() throws TokenizerException, ParserException {
+        String input = manyDefinitionsProgram(100);
+        IncrementalProgram previous = Parser.parseIncrementally(new Tokenizer(input).tokenizeToBuffer());
+        List<FunctionDef> previousFunctionDefs = previous.getProgram().getFunctionDefs();
+
+        // Change a literal in the middle of f50 to one a line longer
+        int editOffset = input.indexOf("n > 10", input.indexOf("func f50(")) + 4;
+        IncrementalProgram reparsed = testReparseMatchesParseProgram(previous, editOffset, 2, "\n1000");
+
+        List<FunctionDef> functionDefs = reparsed.getProgram().getFunctionDefs();
+        for (int i = 0; i < functionDefs.size(); i++) {
+            if (i == 50) {
+                assertNotSame(previousFunctionDefs.get(i), functionDefs.get(i));
+            } else {
+                assertSame(previousFunctionDefs.get(i), functionDefs.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testReparseAfterEachOfManyEdits() throws TokenizerException, ParserException {
+        String input = manyDefinitionsProgram(10);
+        IncrementalProgram program = Parser.parseIncrementally(new Tokenizer(input).tokenizeToBuffer());
+
+        // Add a function, remove a struct field, add a statement, then add an else to the if statement
+        program = testReparseMatchesParseProgram(program, input.indexOf("func f3("), 0,
+                "func g(int a): int { return a; }\n");
+        program = testReparseMatchesParseProgram(program, input.indexOf(" Node rest;"), 11, "");
+        program = testReparseMatchesParseProgram(program, 0, 0, "struct A { int a; }\n");
+
+        CharSequence editedInput = program.getTokens().getSourceBuffer().getInput();
+        program = testReparseMatchesParseProgram(program, editedInput.length(), 0, "if (true) { println(1); }");
+        testReparseMatchesParseProgram(program, editedInput.length() + 25, 0, " else { println(2); }");
+    }
+
+    @Test
+    public void testReparseThrowsSameException() throws TokenizerException, ParserException {
+        String input = manyDefinitionsProgram(10);
+
+        // Leave a function without its return type, then put a statement before a function
+        String[][] edits = {
+                { "func f5(Node list, int n): int", "func f5(Node list, int n)" },
+                { "func f5(", "int a = 1;\nfunc f5(" }
+        };
+
+        for (String[] edit : edits) {
+            IncrementalProgram previous = Parser.parseIncrementally(new Tokenizer(input).tokenizeToBuffer());
+
+            int editOffset = input.indexOf(edit[0]);
+            String editedInput = input.replace(edit[0], edit[1]);
+
+            ParserException expected = assertThrows(ParserException.class,
+                    () -> Parser.parseProgram(new Tokenizer(editedInput).tokenizeToBuffer()));
+            ParserException actual = assertThrows(ParserException.class,
+                    () -> Parser.reparse(previous, editOffset, edit[0].length(), edit[1]));
+
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    private static final String MANY_ERRORS_PROGRAM = """
+            struct A { int x; }
+            struct B { int ; }
+            func f(int a): int { return a + ; }
+            func g(int a): int { if (a > 0) { int y = 1 } return a; }
+            func h(int a): int { return a; }
+            int x = 1;
+            x = ;
+            println(x);
+            """;
+
+    @Test
+    public void testParseProgramWithRecoveryFindsEveryError() throws TokenizerException {
+        RecoveredProgram recoveredProgram =
+                Parser.parseProgramWithRecovery(new Tokenizer(MANY_ERRORS_PROGRAM).tokenStream(), 100);
+
+        List<ParserException> errors = recoveredProgram.getErrors();
+        assertEquals(4, errors.size());
+        assertFalse(recoveredProgram.reachedErrorLimit());
+
+        // The first error is the one the program would throw without recovering
+        ParserException expected = assertThrows(ParserException.class,
+                () -> Parser.parseProgram(new Tokenizer(MANY_ERRORS_PROGRAM).tokenStream()));
+        assertEquals(expected.getMessage(), errors.get(0).getMessage());
+
+        assertTrue(errors.get(0).getMessage().contains("line 2"));
+        assertTrue(errors.get(1).getMessage().contains("line 3"));
+        assertTrue(errors.get(2).getMessage().contains("line 4"));
+        assertTrue(errors.get(3).getMessage().contains("line 7"));
+    }
+
+    @Test
+    public void testParseProgramWithRecoveryKeepsWhatParsed() throws TokenizerException {
+        Program program = Parser.parseProgramWithRecovery(new Tokenizer(MANY_ERRORS_PROGRAM).tokenStream(), 100)
+                .getProgram();
+
+        assertEquals(1, program.getStructDefs().size());
+        assertEquals("A", program.getStructDefs().get(0).getStructName().getName());
+
+        // The malformed statements in f and g are left out of their bodies, but the functions themselves are kept
+        List<FunctionDef> functionDefs = program.getFunctionDefs();
+        assertEquals(3, functionDefs.size());
+        assertEquals("f", functionDefs.get(0).getFunctionName().getName());
+        assertTrue(functionDefs.get(0).getFunctionBody().getBlockBody().isEmpty());
+        assertEquals("h", functionDefs.get(2).getFunctionName().getName());
+
+        assertEquals(2, program.getStatements().size());
+        assertTrue(program.getStatements().get(1) instanceof PrintlnStmt);
+    }
+
+    @Test
+    public void testParseProgramWithRecoveryStopsAtErrorLimit() throws TokenizerException {
+        RecoveredProgram recoveredProgram =
+                Parser.parseProgramWithRecovery(new Tokenizer(MANY_ERRORS_PROGRAM).tokenStream(), 2);
+
+        assertEquals(2, recoveredProgram.getErrors().size());
+        assertTrue(recoveredProgram.reachedErrorLimit());
+        assertEquals(1, recoveredProgram.getProgram().getStructDefs().size());
+        assertTrue(recoveredProgram.getProgram().getStatements().isEmpty());
+    }
+
+    @Test
+    public void testParseProgramWithRecoveryReportsLeftoverTokensStartingPartwayAlongLine() throws TokenizerException {
+        String input = """
+                int x = 1; } int z =
+                  3;
+                println(x);
+                """;
+
+        RecoveredProgram recoveredProgram = Parser.parseProgramWithRecovery(new Tokenizer(input).tokenStream(), 100);
+
+        List<ParserException> errors = recoveredProgram.getErrors();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage().contains("line 1, column 12"));
+        assertTrue(errors.get(0).getMessage().contains("expected a valid statement"));
+
+        ParserException expected = assertThrows(ParserException.class,
+                () -> Parser.parseProgram(new Tokenizer(input).tokenStream()));
+        assertEquals(expected.getMessage(), errors.get(0).getMessage());
+    }
+
+    @Test
+    public void testParseProgramWithRecoveryMatchesParseProgram() throws TokenizerException, ParserException {
+        String input = ResourceUtil.readProgramInputFile();
+
+        Program expectedProgram = Parser.parseProgram(new Tokenizer(input).tokenStream());
+        RecoveredProgram recoveredProgram = Parser.parseProgramWithRecovery(new Tokenizer(input).tokenStream(), 1);
+
+        assertFalse(recoveredProgram.hasErrors());
+        assertEquals(expectedProgram, recoveredProgram.getProgram());
+        assertEquals(expectedProgram.getSource(), recoveredProgram.getProgram().getSource());
+    }
+
 }
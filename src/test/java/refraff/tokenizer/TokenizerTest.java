@@ -4,16 +4,22 @@ import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import refraff.LineIndex;
 import refraff.Source;
 import refraff.SourcePosition;
 import refraff.Sourced;
 import refraff.tokenizer.reserved.*;
 import refraff.tokenizer.symbol.*;
+import refraff.util.AsciiCharSequence;
 import refraff.util.ResourceUtil;
+import refraff.util.SymbolTable;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -371,6 +377,19 @@ public class TokenizerTest {
         testTokenizerThrowsException("0123");
     }
 
+    @Test
+    public void testTokenizerThrowsOnIdentifierTokenFollowedByUnicodeLetter() {
+        testTokenizerThrowsException("abcé");
+    }
+
+    @Test
+    public void testTokenizerExceptionReportsPositionAndUntokenizableString() {
+        TokenizerException exception = assertThrows(TokenizerException.class,
+                () -> new Tokenizer("int a = 1;\n  b = $foo bar;").tokenize());
+
+        assertTrue(exception.getMessage().startsWith("Tokenizer error at line 2, column 7: could not tokenize `$foo`"));
+    }
+
     // Sourced token tests
 
 
@@ -438,6 +457,244 @@ public class TokenizerTest {
         assertEquals(expectedSourcedTokens, actualSourcedTokens);
     }
 
+    @Test
+    public void testTokenizeSourcedTokensAfterTrailingWhitespaceAndCarriageReturns() throws TokenizerException {
+        // Trailing whitespace and \r\n line endings should not shift the next line's columns
+        String input = "a  \r\n  b\t\n}";
+
+        Source aSource = new Source("a", new SourcePosition(1, 1), new SourcePosition(1, 2));
+        Source bSource = new Source("b", new SourcePosition(2, 3), new SourcePosition(2, 4));
+        Source rightBraceSource = new Source("}", new SourcePosition(3, 1), new SourcePosition(3, 2));
+
+        List<Sourced<Token>> expectedSourcedTokens = List.of(
+                new Sourced<>(aSource, new IdentifierToken("a")),
+                new Sourced<>(bSource, new IdentifierToken("b")),
+                new Sourced<>(rightBraceSource, new RightBraceToken())
+        );
+
+        assertEquals(expectedSourcedTokens, new Tokenizer(input).tokenize());
+    }
+
+    @Test
+    public void testTokenStreamMatchesTokenize() throws TokenizerException {
+        String sampleProgram = ResourceUtil.readProgramInputFile();
+
+        List<Sourced<Token>> expectedSourcedTokens = new Tokenizer(sampleProgram).tokenize();
+        TokenStream tokenStream = new Tokenizer(sampleProgram).tokenStream();
+
+        for (int i = 0; i < expectedSourcedTokens.size(); i++) {
+            assertEquals(expectedSourcedTokens.get(i), tokenStream.getSourcedToken(i));
+
+            // Only keep a small window of tokens around
+            tokenStream.release(i - 2);
+        }
+
+        assertFalse(tokenStream.hasToken(expectedSourcedTokens.size()));
+        assertEquals(expectedSourcedTokens.size(), tokenStream.size());
+    }
+
+    @Test
+    public void testTokenStreamThrowsOnReleasedToken() {
+        TokenStream tokenStream = new Tokenizer("a b c").tokenStream();
+
+        assertEquals(new IdentifierToken("b"), tokenStream.getToken(1));
+        tokenStream.release(1);
+
+        assertEquals(new IdentifierToken("b"), tokenStream.getToken(1));
+        assertThrows(IllegalStateException.class, () -> tokenStream.getToken(0));
+    }
+
+    @Test
+    public void testTokenStreamThrowsTokenizerErrorOnlyWhenReached() {
+        TokenStream tokenStream = new Tokenizer("a $").tokenStream();
+
+        assertEquals(new IdentifierToken("a"), tokenStream.getToken(0));
+
+        UncheckedTokenizerException ex = assertThrows(UncheckedTokenizerException.class,
+                () -> tokenStream.hasToken(1));
+        assertTrue(ex.getMessage().contains("could not tokenize `$`"));
+    }
+
+    @Test
+    public void testTokenBufferStoresKindsAndTokenizedValues() throws TokenizerException {
+        TokenBuffer tokenBuffer = new Tokenizer("int abc = 123;").tokenizeToBuffer();
+
+        assertEquals(5, tokenBuffer.size());
+        assertEquals(TokenKind.INT, tokenBuffer.getKind(0));
+        assertEquals(TokenKind.IDENTIFIER, tokenBuffer.getKind(1));
+        assertEquals(TokenKind.ASSIGNMENT, tokenBuffer.getKind(2));
+        assertEquals(TokenKind.INT_LITERAL, tokenBuffer.getKind(3));
+        assertEquals(TokenKind.SEMICOLON, tokenBuffer.getKind(4));
+
+        assertEquals("abc", tokenBuffer.getTokenizedValue(1));
+        assertEquals(new IntLiteralToken("123"), tokenBuffer.getToken(3));
+    }
+
+    @Test
+    public void testTokenBufferInternsIdentifiers() throws TokenizerException {
+        TokenBuffer tokenBuffer = new Tokenizer("foo bar foo 1").tokenizeToBuffer();
+
+        int fooSymbol = tokenBuffer.getSymbol(0);
+        assertEquals(fooSymbol, tokenBuffer.getSymbol(2));
+        assertNotEquals(fooSymbol, tokenBuffer.getSymbol(1));
+        assertEquals(TokenBuffer.NO_SYMBOL, tokenBuffer.getSymbol(3));
+
+        // The same name is interned to the same symbol everywhere else in the compilation
+        assertSame(SymbolTable.current(), tokenBuffer.getSymbolTable());
+        assertEquals(fooSymbol, SymbolTable.current().intern("foo"));
+        assertEquals("foo", SymbolTable.current().getName(fooSymbol));
+        assertSame(tokenBuffer.getTokenizedValue(0), tokenBuffer.getTokenizedValue(2));
+    }
+
+    @Test
+    public void testStartCompilationInternsIntoNewTable() throws TokenizerException {
+        TokenBuffer previousTokenBuffer = new Tokenizer("foo bar").tokenizeToBuffer();
+
+        SymbolTable symbolTable = SymbolTable.startCompilation();
+        assertEquals(0, symbolTable.size());
+
+        // Nothing interned by the previous compilation is kept, so symbols start from 0 again
+        TokenBuffer tokenBuffer = new Tokenizer("bar").tokenizeToBuffer();
+        assertSame(symbolTable, tokenBuffer.getSymbolTable());
+        assertEquals(0, tokenBuffer.getSymbol(0));
+        assertEquals(1, symbolTable.size());
+
+        assertNotSame(symbolTable, previousTokenBuffer.getSymbolTable());
+        assertEquals("bar", previousTokenBuffer.getTokenizedValue(1));
+    }
+
+    @Test
+    public void testLineIndexResolvesPositionsOfOffsets() throws TokenizerException {
+        // Lines start at offsets 0, 4, 5 and 8
+        TokenBuffer tokenBuffer = new Tokenizer("ab\r\n\ncd\rx").tokenizeToBuffer();
+        LineIndex lineIndex = tokenBuffer.getLineIndex();
+
+        assertEquals(4, lineIndex.getLineCount());
+        assertEquals(new SourcePosition(1, 1), lineIndex.getSourcePosition(0));
+        assertEquals(new SourcePosition(1, 3), lineIndex.getSourcePosition(2));
+        assertEquals(new SourcePosition(2, 1), lineIndex.getSourcePosition(4));
+        assertEquals(new SourcePosition(3, 2), lineIndex.getSourcePosition(6));
+        assertEquals(new SourcePosition(4, 1), lineIndex.getSourcePosition(8));
+
+        Source cdSource = tokenBuffer.getSource(1, 2);
+        assertEquals(new SourcePosition(3, 1), cdSource.getStartPosition());
+        assertEquals(new SourcePosition(3, 3), cdSource.getEndPosition());
+    }
+
+    @Test
+    public void testTokenBufferSourceMatchesCombinedTokenSources() throws TokenizerException {
+        // Tabs, carriage returns and other whitespace get spaced out the same way as combining token sources
+        String input = "a\t+ b  \r\n\t\f c\r\r  d \n\u000B;";
+
+        TokenBuffer tokenBuffer = new Tokenizer(input).tokenizeToBuffer();
+        List<Sourced<Token>> sourcedTokens = new Tokenizer(input).tokenize();
+
+        for (int start = 0; start < sourcedTokens.size(); start++) {
+            for (int end = start + 1; end <= sourcedTokens.size(); end++) {
+                Source expectedSource = Source.fromSources(sourcedTokens.subList(start, end).stream()
+                        .map(Sourced::getSource)
+                        .toList());
+
+                assertEquals(expectedSource, tokenBuffer.getSource(start, end));
+            }
+        }
+    }
+
+    private static String createLargeProgram() {
+        // Mix in carriage returns, so some chunks could start in the middle of a \r\n
+        String sampleProgram = ResourceUtil.readProgramInputFile().replace("\n", "\r\n\t");
+        return sampleProgram.repeat(1 + (1 << 21) / sampleProgram.length());
+    }
+
+    @Test
+    public void testTokenizeInParallelMatchesTokenize() throws TokenizerException {
+        String largeProgram = createLargeProgram();
+
+        TokenBuffer expectedTokenBuffer = new Tokenizer(largeProgram).tokenizeToBuffer();
+        TokenBuffer tokenBuffer = Tokenizer.tokenizeInParallel(largeProgram, new ForkJoinPool(4));
+
+        assertEquals(expectedTokenBuffer.getLineIndex().getLineCount(), tokenBuffer.getLineIndex().getLineCount());
+        assertEquals(expectedTokenBuffer.toSourcedTokens(), tokenBuffer.toSourcedTokens());
+    }
+
+    @Test
+    public void testTokenizeInParallelThrowsSameErrorAsTokenize() {
+        String largeProgram = createLargeProgram() + " a $ ";
+
+        TokenizerException expectedException = assertThrows(TokenizerException.class,
+                () -> new Tokenizer(largeProgram).tokenizeToBuffer());
+        TokenizerException exception = assertThrows(TokenizerException.class,
+                () -> Tokenizer.tokenizeInParallel(largeProgram, new ForkJoinPool(4)));
+
+        assertEquals(expectedException.getMessage(), exception.getMessage());
+    }
+
+    private void testRetokenizeMatchesTokenize(String input, int editOffset, int removedLength, String insertedText)
+            throws TokenizerException {
+        String editedInput = input.substring(0, editOffset) + insertedText
+                + input.substring(editOffset + removedLength);
+
+        TokenBuffer expectedTokenBuffer = new Tokenizer(editedInput).tokenizeToBuffer();
+        TokenBuffer tokenBuffer = Tokenizer.retokenize(new Tokenizer(input).tokenizeToBuffer(), editOffset,
+                removedLength, insertedText);
+
+        assertEquals(expectedTokenBuffer.toSourcedTokens(), tokenBuffer.toSourcedTokens());
+        assertEquals(expectedTokenBuffer.getLineIndex().getLineCount(), tokenBuffer.getLineIndex().getLineCount());
+    }
+
+    @Test
+    public void testRetokenizeMatchesTokenize() throws TokenizerException {
+        String sampleProgram = ResourceUtil.readProgramInputFile();
+        int middle = sampleProgram.indexOf(' ', sampleProgram.length() / 2);
+
+        // Inserting, removing and replacing text, including line breaks and text that joins or splits tokens
+        testRetokenizeMatchesTokenize(sampleProgram, middle, 0, "x");
+        testRetokenizeMatchesTokenize(sampleProgram, middle, 0, "\r\n  int a = 1;\n");
+        testRetokenizeMatchesTokenize(sampleProgram, middle, 1, "");
+        testRetokenizeMatchesTokenize(sampleProgram, middle - 3, 6, "<=");
+        testRetokenizeMatchesTokenize(sampleProgram, 0, 0, "  ");
+        testRetokenizeMatchesTokenize(sampleProgram, sampleProgram.length(), 0, " abc");
+        testRetokenizeMatchesTokenize("a < b\r", 3, 0, "=");
+        testRetokenizeMatchesTokenize("a\r b", 2, 0, "\n");
+        testRetokenizeMatchesTokenize("ab cd", 2, 1, "");
+    }
+
+    @Test
+    public void testRetokenizeThrowsSameErrorAsTokenize() {
+        String input = "int a = 1;\nint b = 2;\n";
+        String editedInput = "int a = 1;\nint $b = 2;\n";
+
+        TokenizerException expectedException = assertThrows(TokenizerException.class,
+                () -> new Tokenizer(editedInput).tokenizeToBuffer());
+        TokenizerException exception = assertThrows(TokenizerException.class,
+                () -> Tokenizer.retokenize(new Tokenizer(input).tokenizeToBuffer(), 15, 0, "$"));
+
+        assertEquals(expectedException.getMessage(), exception.getMessage());
+    }
+
+    @Test
+    public void testTokenizeAsciiInputMatchesTokenizeString() throws TokenizerException {
+        // Deep indentation and long identifiers and numbers, so the ASCII input is scanned eight characters at a time
+        String input = ResourceUtil.readProgramInputFile().replace("\n", "\n                ")
+                + " identifier_with_a_long_name_0123456789 12345678901234567 ";
+        AsciiCharSequence asciiInput = new AsciiCharSequence(
+                ByteBuffer.wrap(input.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(new Tokenizer(input).tokenize(), new Tokenizer(asciiInput).tokenize());
+    }
+
+    @Test
+    public void testAsciiCharSequenceFindsEndsOfRuns() {
+        AsciiCharSequence asciiInput = new AsciiCharSequence(
+                ByteBuffer.wrap("           abc_DEF_0123456789+ 42".getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(11, asciiInput.indexOfNonSpace(0, asciiInput.length()));
+        assertEquals(29, asciiInput.indexOfNonWordCharacter(11, asciiInput.length()));
+        assertEquals(29, asciiInput.indexOfNonDigit(19, asciiInput.length()));
+        assertEquals(33, asciiInput.indexOfNonDigit(31, asciiInput.length()));
+        assertEquals(5, asciiInput.indexOfNonSpace(0, 5));
+    }
+
     private void testReconstructedSourceInputMatchesExpected(String originalInput, List<Sourced<Token>> sourcedTokens) {
         // Map the actual sources into a singular source composed of the whole program
         Source source = Source.fromSources(sourcedTokens.stream()
@@ -17,6 +17,7 @@ import refraff.tokenizer.TokenizerException;
 import refraff.util.ResourceUtil;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -282,6 +283,42 @@ public class TypecheckerTest {
         assertEquals(type, secondDotExpression.getExpressionType());
     }
 
+    @Test
+    public void testStructDefIsLaidOutInDeclarationOrder() {
+        /*
+         * struct A {
+         *   int x;
+         *   bool y;
+         *   A z;
+         * }
+         *
+         * A a = null;
+         * a.y;
+         */
+        StructType type = getStructType("A");
+        Param xParam = new Param(getIntType(), getVariable("x"));
+        Param yParam = new Param(getBoolType(), getVariable("y"));
+        Param zParam = new Param(type, getVariable("z"));
+
+        StructDef structDef = new StructDef(getStructName("A"), List.of(xParam, yParam, zParam));
+
+        VardecStmt vardec = new VardecStmt(type, getVariable("a"), getNullExp());
+        Expression dotExpression = new DotExp(new VariableExp(getVariable("a")), getVariable("y"));
+
+        Program program = new Program(List.of(structDef), List.of(),
+                List.of(vardec, new ExpressionStmt(dotExpression)));
+        testDoesNotThrowTypecheckerException(program);
+
+        StructLayout layout = structDef.getLayout();
+        assertEquals(3, layout.getFieldCount());
+        assertEquals(0, layout.getSlot(getVariable("x").getSymbol()));
+        assertEquals(2, layout.getSlot(getVariable("z").getSymbol()));
+        assertEquals(-1, layout.getSlot(getVariable("w").getSymbol()));
+        assertSame(yParam, layout.getField(1));
+
+        assertEquals(getBoolType(), dotExpression.getExpressionType());
+    }
+
     @Test
     public void testExpWithBool() {
         /*
@@ -1097,6 +1134,65 @@ public class TypecheckerTest {
         testDoesNotThrowTypecheckerException(program);
     }
 
+    @Test
+    public void testLowerScopeVariableIsNotInScopeAfterwards() {
+        /*
+         *  {
+         *     int a = 2;
+         *  }
+         *
+         *  a = 3;
+         */
+
+        Statement aVardec = new VardecStmt(getIntType(), getVariable("a"), new IntLiteralExp(2));
+        Statement statementBlock = new StmtBlock(List.of(aVardec));
+        Statement aAssign = new AssignStmt(getVariable("a"), new IntLiteralExp(3));
+
+        Program program = new Program(List.of(), List.of(), List.of(statementBlock, aAssign));
+        testThrowsTypecheckerException(program);
+    }
+
+    @Test
+    public void testLowerScopeCannotRedeclareHigherScopeVariable() {
+        /*
+         *  int a = 1;
+         *
+         *  while (true) {
+         *     int a = 2;
+         *  }
+         */
+
+        Statement outerVardec = new VardecStmt(getIntType(), getVariable("a"), new IntLiteralExp(1));
+        Statement innerVardec = new VardecStmt(getIntType(), getVariable("a"), new IntLiteralExp(2));
+        Statement whileStatement = new WhileStmt(new BoolLiteralExp(true), new StmtBlock(List.of(innerVardec)));
+
+        Program program = new Program(List.of(), List.of(), List.of(outerVardec, whileStatement));
+        testThrowsTypecheckerException(program);
+    }
+
+    @Test
+    public void testHigherScopeVariableIsInScopeAfterNestedLowerScopes() {
+        /*
+         *  int a = 1;
+         *
+         *  { { { int b = a; } int b = a; } int b = a; }
+         *
+         *  a = 2;
+         */
+
+        Statement block = new StmtBlock(List.of());
+        for (int depth = 0; depth < 3; depth++) {
+            Statement bVardec = new VardecStmt(getIntType(), getVariable("b"), new VariableExp(getVariable("a")));
+            block = new StmtBlock(depth == 0 ? List.of(bVardec) : List.of(block, bVardec));
+        }
+
+        Statement aVardec = new VardecStmt(getIntType(), getVariable("a"), new IntLiteralExp(1));
+        Statement aAssign = new AssignStmt(getVariable("a"), new IntLiteralExp(2));
+
+        Program program = new Program(List.of(), List.of(), List.of(aVardec, block, aAssign));
+        testDoesNotThrowTypecheckerException(program);
+    }
+
 
     // Test invalid inputs
 
@@ -1752,6 +1848,63 @@ public class TypecheckerTest {
         testThrowsTypecheckerException(program);
     }
 
+    @Test
+    public void testFunctionWithUnreachableCodeAfterTypeErrorThrowsUnreachableCode() {
+        /*
+         * func foo(bool b) : int {
+         *   int i = b;
+         *   return 0;
+         *   println(1);
+         * }
+         *
+         */
+
+        Statement vardecStmt = new VardecStmt(getIntType(), getVariable("i"), new VariableExp(getVariable("b")));
+        Statement returnStmt0 = new ReturnStmt(new IntLiteralExp(0));
+        Statement printStmt = new PrintlnStmt(new IntLiteralExp(1));
+        StmtBlock funcBodyBlock = new StmtBlock(List.of(vardecStmt, returnStmt0, printStmt));
+
+        FunctionDef funcDef = new FunctionDef(
+            getFunctionName("foo"),
+            List.of(new Param(getBoolType(), getVariable("b"))),
+            getIntType(),
+            funcBodyBlock);
+
+        // Whether the function returns is checked before the types in it
+        Program program = new Program(List.of(), List.of(funcDef), List.of());
+        TypecheckerException ex = assertThrows(TypecheckerException.class, () -> Typechecker.typecheckProgram(program));
+        assertEquals("Unreachable code in foo", ex.getMessage());
+    }
+
+    @Test
+    public void testFunctionReturningSometimesAfterTypeErrorThrowsReturnsSometimes() {
+        /*
+         * func foo(bool b) : int {
+         *   while (b) {
+         *     b = 1;
+         *     return 0;
+         *   }
+         * }
+         *
+         */
+
+        Statement assignStmt = new AssignStmt(getVariable("b"), new IntLiteralExp(1));
+        Statement returnStmt0 = new ReturnStmt(new IntLiteralExp(0));
+        Statement whileStmt = new WhileStmt(new VariableExp(getVariable("b")),
+                new StmtBlock(List.of(assignStmt, returnStmt0)));
+        StmtBlock funcBodyBlock = new StmtBlock(List.of(whileStmt));
+
+        FunctionDef funcDef = new FunctionDef(
+            getFunctionName("foo"),
+            List.of(new Param(getBoolType(), getVariable("b"))),
+            getIntType(),
+            funcBodyBlock);
+
+        Program program = new Program(List.of(), List.of(funcDef), List.of());
+        TypecheckerException ex = assertThrows(TypecheckerException.class, () -> Typechecker.typecheckProgram(program));
+        assertEquals("Function foo only returns value sometimes", ex.getMessage());
+    }
+
     @Test
     public void testFunctionWithDifferentReturnTypesThrows() {
         /*
@@ -1871,6 +2024,169 @@ public class TypecheckerTest {
         }
     }
 
+    private static final String OVERLOADED_FUNCTIONS = """
+            struct A {
+                int value;
+            }
+
+            struct B {
+                int value;
+            }
+
+            func f(int x, A a): int {
+                return x;
+            }
+
+            func f(int x, B b): int {
+                return x;
+            }
+
+            func f(bool x, A a): bool {
+                return x;
+            }
+
+            """;
+
+    private Program typecheckCallOfOverloadedFunction(String call) throws TokenizerException, ParserException,
+            TypecheckerException {
+        Program program = Parser.parseProgram(new Tokenizer(OVERLOADED_FUNCTIONS + call).tokenStream());
+        Typechecker.typecheckProgram(program);
+
+        return program;
+    }
+
+    private FuncCallExp getFirstStatementCall(Program program) {
+        return (FuncCallExp) ((ExpressionStmt) program.getStatements().get(0)).getExpression();
+    }
+
+    @Test
+    public void testFuncCallRecordsResolvedOverload() throws TokenizerException, ParserException,
+            TypecheckerException {
+        Program program = typecheckCallOfOverloadedFunction("f(1, new B { value: 2 });");
+
+        assertSame(program.getFunctionDefs().get(1), getFirstStatementCall(program).getFunctionDef());
+    }
+
+    @Test
+    public void testFuncCallWithNullArgumentResolvesToFirstDeclaredOverload() throws TokenizerException,
+            ParserException, TypecheckerException {
+        Program program = typecheckCallOfOverloadedFunction("f(1, null);");
+        FuncCallExp funcCallExp = getFirstStatementCall(program);
+
+        assertSame(program.getFunctionDefs().get(0), funcCallExp.getFunctionDef());
+        assertInstanceOf(IntType.class, funcCallExp.getExpressionType());
+    }
+
+    @Test
+    public void testFuncCallNotMatchingAnyOverloadThrowsException() throws TokenizerException, ParserException {
+        Program program = Parser.parseProgram(new Tokenizer(OVERLOADED_FUNCTIONS + "f(true, new B { value: 2 });")
+                .tokenStream());
+
+        testThrowsTypecheckerException(program);
+    }
+
+    private static String manyFunctionsProgram(int functionCount) {
+        StringBuilder program = new StringBuilder("func f0(int n): int {\n    return n;\n}\n");
+
+        // Each function calls the one declared before it
+        for (int i = 1; i < functionCount; i++) {
+            program.append("func f").append(i).append("(int n): int {\n")
+                    .append("    while (n > 0) {\n        n = n - 1;\n    }\n")
+                    .append("    return f").append(i - 1).append("(n) + 1;\n}\n");
+        }
+
+        return program.append("println(f").append(functionCount - 1).append("(1));\n").toString();
+    }
+
+    @Test
+    public void testTypecheckProgramInParallelResolvesEveryCall() throws TokenizerException, ParserException,
+            TypecheckerException {
+        Program program = Parser.parseProgram(new Tokenizer(manyFunctionsProgram(200)).tokenStream());
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            Typechecker.typecheckProgram(program, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<FunctionDef> functionDefs = program.getFunctionDefs();
+        for (int i = 1; i < functionDefs.size(); i++) {
+            ReturnStmt returnStmt = (ReturnStmt) functionDefs.get(i).getFunctionBody().getBlockBody().get(1);
+            BinaryOpExp returnValue = (BinaryOpExp) returnStmt.getReturnValue().get();
+
+            assertSame(functionDefs.get(i - 1), ((FuncCallExp) returnValue.getLeftExp()).getFunctionDef());
+            assertInstanceOf(IntType.class, returnValue.getLeftExp().getExpressionType());
+        }
+    }
+
+    @Test
+    public void testTypecheckProgramInParallelThrowsSameException() {
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Break two functions far apart, break a function before a repeated signature, and call a later function
+        String[] inputs = {
+                manyFunctionsProgram(200).replace("return f150(n) + 1;", "return f150(n) == 1;")
+                        .replace("return f50(n) + 1;", "return true;"),
+                manyFunctionsProgram(200).replace("func f120(", "func f20(")
+                        .replace("return f80(n) + 1;", "return f80(n, n) + 1;"),
+                manyFunctionsProgram(200).replace("return f100(n) + 1;", "return f150(n) + 1;")
+        };
+
+        try {
+            for (String input : inputs) {
+                TypecheckerException expected = assertThrows(TypecheckerException.class, () -> Typechecker
+                        .typecheckProgram(Parser.parseProgram(new Tokenizer(input).tokenStream()), sequentialPool));
+                TypecheckerException actual = assertThrows(TypecheckerException.class, () -> Typechecker
+                        .typecheckProgram(Parser.parseProgram(new Tokenizer(input).tokenStream()), pool));
+
+                assertEquals(expected.getMessage(), actual.getMessage());
+            }
+        } finally {
+            sequentialPool.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    private static final int DEEP_NESTING = 100_000;
+
+    private static final String DEEP_NESTING_DEFINITIONS = """
+            struct Node {
+                int value;
+                Node rest;
+            }
+
+            func f(Node node): Node {
+                return node;
+            }
+
+            """;
+
+    @Test
+    public void testTokenizeParseTypecheckDeeplyNestedExpressionsWithoutException() {
+        String input = DEEP_NESTING_DEFINITIONS
+                + "int x = " + "(".repeat(DEEP_NESTING) + "1" + " + 1)".repeat(DEEP_NESTING) + ";\n"
+                + "Node n = " + "new Node { value: x, rest: ".repeat(DEEP_NESTING) + "null" + " }".repeat(DEEP_NESTING) + ";\n"
+                + "Node m = " + "f(".repeat(DEEP_NESTING) + "n" + ".rest".repeat(DEEP_NESTING) + ")".repeat(DEEP_NESTING) + ";";
+        try {
+            Program program = Parser.parseProgram(new Tokenizer(input).tokenStream());
+            Typechecker.typecheckProgram(program);
+        } catch (TokenizerException | ParserException | TypecheckerException ex) {
+            fail(ex.toString());
+        }
+    }
+
+    @Test
+    public void testTokenizeParseTypecheckDeeplyNestedExpressionThrowsTypecheckerException() throws TokenizerException,
+            ParserException {
+        String input = DEEP_NESTING_DEFINITIONS
+                + "Node n = " + "new Node { value: 1, rest: ".repeat(DEEP_NESTING) + "1" + " }".repeat(DEEP_NESTING) + ";";
+
+        Program program = Parser.parseProgram(new Tokenizer(input).tokenStream());
+        assertThrows(TypecheckerException.class, () -> Typechecker.typecheckProgram(program));
+    }
+
     @Disabled("Method to screenshot typechecker error messages")
     @Test
     public void testTokenizeParseTypecheckInvalidProgram() {